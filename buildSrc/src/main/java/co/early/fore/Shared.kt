@@ -59,6 +59,9 @@ object Shared {
         const val ktor_client = "2.3.9"
         const val converter_gson = "2.6.0"
         const val kotlinxSerializationJson = "1.5.1"
+        // benchmark dependencies
+        const val jmh = "1.37"
+        const val kotlinx_coroutines_test = "1.8.0"
     }
 
     object BuildTypes {
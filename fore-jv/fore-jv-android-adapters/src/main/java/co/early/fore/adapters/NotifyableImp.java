@@ -4,6 +4,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import co.early.fore.adapters.immutable.DiffSpec;
 import co.early.fore.adapters.immutable.Diffable;
+import co.early.fore.adapters.immutable.ListDiff;
 import co.early.fore.adapters.mutable.UpdateSpec;
 import co.early.fore.adapters.mutable.Updateable;
 import co.early.fore.core.Affirm;
@@ -17,6 +18,7 @@ public class NotifyableImp<VH extends RecyclerView.ViewHolder> implements Notify
     private final Updateable updateable;
     private final Diffable diffable;
     private final RecyclerView.Adapter<VH> adapter;
+    private final ListDiff.Callback listDiffCallback = new AdapterListDiffCallback();
 
     public NotifyableImp(RecyclerView.Adapter<VH> adapter, Updateable updateable) {
         this.adapter = Affirm.notNull(adapter);
@@ -55,6 +57,14 @@ public class NotifyableImp<VH extends RecyclerView.ViewHolder> implements Notify
             case ITEM_INSERTED:
                 adapter.notifyItemRangeInserted(updateSpec.rowPosition, updateSpec.rowsEffected);
                 break;
+            case ITEM_MOVED:
+                ListDiff.Builder moves = new ListDiff.Builder();
+                moves.moved(updateSpec.rowPosition, updateSpec.toRowPosition, updateSpec.rowsEffected);
+                moves.build().dispatchUpdatesTo(listDiffCallback);
+                break;
+            case BATCHED:
+                updateSpec.changes.dispatchUpdatesTo(listDiffCallback);
+                break;
         }
     }
 
@@ -62,10 +72,35 @@ public class NotifyableImp<VH extends RecyclerView.ViewHolder> implements Notify
 
         DiffSpec diffSpec = diffable.getAndClearLatestDiffSpec(MAX_AGE_MS_BEFORE_IGNORE);
 
-        if (diffSpec.diffResult == null) {
-            adapter.notifyDataSetChanged();
-        } else {
+        if (diffSpec.diffResult != null) {
             diffSpec.diffResult.dispatchUpdatesTo(adapter);
+        } else if (diffSpec.listDiff != null) {
+            diffSpec.listDiff.dispatchUpdatesTo(listDiffCallback);
+        } else {
+            adapter.notifyDataSetChanged();
+        }
+    }
+
+    private class AdapterListDiffCallback implements ListDiff.Callback {
+
+        @Override
+        public void onInserted(int position, int count) {
+            adapter.notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            adapter.notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            adapter.notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            adapter.notifyItemRangeChanged(position, count, payload);
         }
     }
 }
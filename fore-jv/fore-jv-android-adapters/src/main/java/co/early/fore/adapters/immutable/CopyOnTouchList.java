@@ -0,0 +1,120 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import co.early.fore.core.Affirm;
+
+/**
+ * The list handed to {@link ImmutableListMgr.ListEditor} when structural sharing is turned on.
+ * <p>
+ * The items in it are shared with the list currently being displayed, so any item the client
+ * gets hold of (via get(), set(), remove() or an iterator) is deep copied first, and it's the
+ * copy that ends up in the new list. Items that are never touched are never copied.
+ * Items that are added are copied too, just as they would be without structural sharing.
+ * <p>
+ * peek(), indexOfFirst(), indexOf(), lastIndexOf() and contains() don't count as touching an item.
+ */
+class CopyOnTouchList<T extends DeepCopyable<T>> extends AbstractList<T> implements PeekableList<T>, RandomAccess {
+
+    private final PersistentList.Transient<T> items;
+    private final Set<T> copies = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+
+    CopyOnTouchList(PersistentList<T> list) {
+        this.items = Affirm.notNull(list).asTransient();
+    }
+
+    @Override
+    public T get(int index) {
+        T item = items.get(index);
+        if (copies.contains(item)) {
+            return item;
+        }
+        T copy = item.deepCopy();
+        items.set(index, copy);
+        copies.add(copy);
+        return copy;
+    }
+
+    @Override
+    public T peek(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public T set(int index, T item) {
+        return touched(items.set(index, copyOf(item)));
+    }
+
+    @Override
+    public void add(int index, T item) {
+        items.add(index, copyOf(item));
+        modCount++;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = touched(items.remove(index));
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+        copies.clear();
+        modCount++;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        for (int ii = 0; ii < items.size(); ii++) {
+            if (equal(o, items.get(ii))) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        for (int ii = items.size() - 1; ii >= 0; ii--) {
+            if (equal(o, items.get(ii))) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    PersistentList<T> persistent() {
+        return items.persistent();
+    }
+
+    private T copyOf(T item) {
+        T copy = Affirm.notNull(item).deepCopy();
+        copies.add(copy);
+        return copy;
+    }
+
+    private T touched(T item) {
+        return copies.contains(item) ? item : item.deepCopy();
+    }
+
+    // java.util.Objects is only on android from API 19
+    private static boolean equal(Object o, Object item) {
+        return o == null ? item == null : o.equals(item);
+    }
+}
@@ -29,9 +29,11 @@ public class DiffCalculator<T extends DiffComparator<T>> {
      *
      * <p>
      * Once these lists start to get larger than about 1000 rows, DiffUtil based methods can get
-     * a bit slow. For faster performance consider using the mutable package classes if it's an
-     * option for your situation (mostly if you are using MVI or some other form of immutable
-     * list data, you will be restricted to using DiffUtil based methods to determine list changes)
+     * a bit slow. If your items have stable ids, {@link StableIdDiffCalculator} handles lists of
+     * tens of thousands of rows. Otherwise, for faster performance consider using the mutable
+     * package classes if it's an option for your situation (mostly if you are using MVI or some
+     * other form of immutable list data, you will be restricted to using diff based methods to
+     * determine list changes)
      *
      * <p>
      * @param oldList the list about to be replaced
@@ -61,6 +63,11 @@ public class DiffCalculator<T extends DiffComparator<T>> {
             public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
                 return oldList.get(oldItemPosition) != null && oldList.get(oldItemPosition).itemsLookTheSame(newList.get(newItemPosition));
             }
+
+            @Override
+            public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                return oldList.get(oldItemPosition) == null ? null : oldList.get(oldItemPosition).getChangePayload(newList.get(newItemPosition));
+            }
         });
     }
 }
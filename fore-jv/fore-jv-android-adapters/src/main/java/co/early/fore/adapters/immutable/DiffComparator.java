@@ -46,4 +46,22 @@ public interface DiffComparator<T> {
      * @return true if the items will look the same when displayed
      */
     boolean itemsLookTheSame(T other);
+
+    /**
+     * Used by {@link DiffUtil} (and {@link StableIdDiffCalculator})
+     *
+     * Only called when itemsTheSame() is true but itemsLookTheSame() is false. If you can say
+     * what it is that changed, return that here and the adapter will receive it in
+     * onBindViewHolder(holder, position, payloads). That lets you update just the parts of the
+     * row that changed - for example only the price text in our stock list, rather than
+     * rebinding the whole row including its images.
+     *
+     * The default implementation returns null, which means the whole row is rebound.
+     *
+     * @param other the new version of this item
+     * @return a description of what changed, or null
+     */
+    default Object getChangePayload(T other) {
+        return null;
+    }
 }
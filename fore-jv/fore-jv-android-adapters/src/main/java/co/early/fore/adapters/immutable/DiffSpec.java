@@ -6,12 +6,14 @@ import androidx.recyclerview.widget.DiffUtil;
 import co.early.fore.core.time.SystemTimeWrapper;
 
 /**
- * Wraps a DiffResult with a timestamp so that we can abandon it when it gets old. This helps
- * the NotifyableImp manage adapter updates appropriately
+ * Wraps a DiffResult (or a ListDiff) with a timestamp so that we can abandon it when it gets old.
+ * This helps the NotifyableImp manage adapter updates appropriately. Either one carries any change
+ * payloads from {@link DiffComparator#getChangePayload(Object)} through to the adapter
  */
 public class DiffSpec {
 
     public final DiffUtil.DiffResult diffResult;
+    public final ListDiff listDiff;
     public final long timeStamp;
 
     /**
@@ -19,7 +21,18 @@ public class DiffSpec {
      * @param systemTimeWrapper wrapper for the system time (can not be null)
      */
     public DiffSpec(DiffUtil.DiffResult diffResult, SystemTimeWrapper systemTimeWrapper) {
+        this(diffResult, null, systemTimeWrapper);
+    }
+
+    /**
+     * @param diffResult from a {@link DiffCalculator}, or null
+     * @param listDiff from a {@link StableIdDiffCalculator}, or null (set at most one of diffResult
+     *                 and listDiff, if neither is set this indicates no changes)
+     * @param systemTimeWrapper wrapper for the system time (can not be null)
+     */
+    public DiffSpec(DiffUtil.DiffResult diffResult, ListDiff listDiff, SystemTimeWrapper systemTimeWrapper) {
         this.diffResult = diffResult;
+        this.listDiff = listDiff;
         this.timeStamp = notNull(systemTimeWrapper).currentTimeMillis();
     }
 
@@ -11,55 +11,201 @@ import co.early.fore.core.WorkMode;
 import co.early.fore.core.logging.Logger;
 import co.early.fore.core.observer.ObservableImp;
 import co.early.fore.core.threading.AsyncBuilder;
+import co.early.fore.core.threading.CancellationToken;
+import co.early.fore.core.threading.TaskExecutors;
 import co.early.fore.core.time.SystemTimeWrapper;
 
 /**
  * This class holds the definition of the current list for an adapter, so it's getItemCount() and getItem()
  * functions are always correct.
  *
- * The way to change the list is to first call getListCopy(), make the changes to that list, and
- * then call updateList() which will return immediately.
+ * The way to change the list is to call changeList() (or editList(), see {@link PeekableList})
+ * with a function that makes the changes to the copy of the list it's given, it will return
+ * immediately.
  *
  * The DiffSpec between the old and the new list will be calculated off the UI thread and the
  * results applied atomically on the UI thread. Observers will be notified on the UI thread.
  *
+ * Only one diff is calculated at a time. Updates that arrive while a diff is running wait for
+ * it to finish, and if several arrive only the latest one is diffed, the others are skipped
+ * (see {@link #getSkippedDiffCount()}). The running diff is cancelled as soon as an update
+ * arrives (its result would be out of date before it was shown), and the latest update is
+ * diffed against what is displayed instead. A diff that was started in place of a cancelled
+ * one is always allowed to finish though, so a fast stream of updates costs no more than one
+ * diff at a time, and whatever is displayed is never more than two diffs behind.
+ *
+ * By default the DiffSpec is calculated with DiffUtil, for lists larger than about 1000 rows
+ * construct this with a {@link StableIdDiffCalculator} instead.
+ *
+ * By default every update deep copies the whole list twice. With structural sharing turned on
+ * the lists are {@link PersistentList}s instead: each version shares its unchanged items (and
+ * most of its structure) with the previous one, and only the items touched inside changeList()
+ * are copied, so the cost of an update depends on the size of the change, not the size of the
+ * list.
+ *
  */
 public class ImmutableListMgr<T extends DeepCopyable<T> & DiffComparator<T>>
         extends ObservableImp implements Diffable, Adaptable<T> {
 
     private final SystemTimeWrapper systemTimeWrapper;
     private final WorkMode workMode;
+    private final StableIdDiffCalculator<T> stableIdDiffCalculator;
+    private final boolean structuralSharing;
     private DiffSpec latestDiffSpec;
-    private List<T> currentList = new ArrayList<T>();
-    private List<T> currentListMutableCopy = new ArrayList<T>();
+    private List<T> currentList;
+    private PeekableArrayList<T> currentListMutableCopy = new PeekableArrayList<T>();
+    private PersistentList<T> currentListEditableVersion = PersistentList.empty();
+    // counts edits made to currentListMutableCopy
+    private int mutableCopyEdits = 0;
     private int currentListVersion = 0;
 
     private final Object listChangesLock = new Object();
 
+    private final Object diffLock = new Object();
+    private boolean diffInProgress = false;
+    private CancellationToken diffToken = null;
+    private boolean diffCancellable = false;
+    private List<T> pendingNewList = null;
+    private long skippedDiffCount = 0;
+
     public ImmutableListMgr(SystemTimeWrapper systemTimeWrapper, WorkMode workMode, Logger logger) {
+        this(systemTimeWrapper, workMode, logger, null, false);
+    }
+
+    /**
+     * @param stableIdDiffCalculator used in place of DiffUtil to work out the changes between
+     *                               the old and the new lists
+     */
+    public ImmutableListMgr(SystemTimeWrapper systemTimeWrapper, WorkMode workMode, Logger logger,
+                            StableIdDiffCalculator<T> stableIdDiffCalculator) {
+        this(systemTimeWrapper, workMode, logger, Affirm.notNull(stableIdDiffCalculator), false);
+    }
+
+    /**
+     * @param stableIdDiffCalculator used in place of DiffUtil to work out the changes between
+     *                               the old and the new lists, or null to use DiffUtil
+     * @param structuralSharing true to keep the lists as {@link PersistentList}s, only copying
+     *                          the items that are touched by a change, rather than deep copying
+     *                          the whole list each time
+     */
+    public ImmutableListMgr(SystemTimeWrapper systemTimeWrapper, WorkMode workMode, Logger logger,
+                            StableIdDiffCalculator<T> stableIdDiffCalculator, boolean structuralSharing) {
         super(workMode, logger);
         this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
         this.workMode = workMode;
+        this.stableIdDiffCalculator = stableIdDiffCalculator;
+        this.structuralSharing = structuralSharing;
+        currentList = structuralSharing ? PersistentList.<T>empty() : new ArrayList<T>();
         latestDiffSpec = createFullDiffSpec();
     }
 
     public void changeList(ListUpdater<T> listUpdater){
-        synchronized (listChangesLock) {
-            listUpdater.updateList(currentListMutableCopy);
+        Affirm.notNull(listUpdater);
+        editList(listUpdater::updateList);
+    }
+
+    /**
+     * As changeList(), but the list copy can also be searched without copying the items it
+     * looks at, see {@link PeekableList}
+     */
+    public void editList(ListEditor<T> listEditor){
+        if (structuralSharing) {
+            PersistentList<T> newList;
+            synchronized (listChangesLock) {
+                CopyOnTouchList<T> listCopy = new CopyOnTouchList<>(currentListEditableVersion);
+                listEditor.editList(listCopy);
+                newList = listCopy.persistent();
+                currentListEditableVersion = newList;
+            }
+            updateList(newList);
+        } else {
+            // updateState() can swap currentListMutableCopy as soon as the lock is released
+            PeekableArrayList<T> listCopy;
+            synchronized (listChangesLock) {
+                listCopy = currentListMutableCopy;
+                listEditor.editList(listCopy);
+                mutableCopyEdits++;
+            }
+            updateList(listCopy);
         }
-        updateList(currentListMutableCopy);
     }
 
     public void replaceList(ListReplacer<T> listReplacer){
         updateList(listReplacer.replaceList());
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * @return how many list updates were never displayed because a newer update replaced them,
+     * either while they were waiting for the previous diff to finish, or part way through
+     * their own diff
+     */
+    public long getSkippedDiffCount() {
+        synchronized (diffLock) {
+            return skippedDiffCount;
+        }
+    }
+
     private void updateList(List<T> newList) {
-        new AsyncBuilder<Input, Result>(workMode)
-                .doInBackground(input -> doWork(input[0]))
+
+        Input input = null;
+        CancellationToken supersededDiff = null;
+
+        synchronized (diffLock) {
+            if (diffInProgress) {
+                if (pendingNewList != null) {
+                    skippedDiffCount++;
+                }
+                pendingNewList = newList;
+                if (diffCancellable) {
+                    diffCancellable = false;
+                    supersededDiff = diffToken;
+                }
+            } else {
+                input = nextDiff(newList, true);
+            }
+        }
+
+        // outside the lock, cancelling runs the token's listeners
+        if (supersededDiff != null) {
+            supersededDiff.cancel();
+        }
+        if (input != null) {
+            startDiff(input);
+        }
+    }
+
+    /**
+     * Call with the diffLock held, so that the list being diffed against can't change before
+     * the diff has started
+     */
+    private Input nextDiff(List<T> newList, boolean cancellable) {
+        diffInProgress = true;
+        diffToken = new CancellationToken();
+        diffCancellable = cancellable;
+        return new Input(currentListVersion, currentList, newList, replacedEditableVersion(newList), diffToken);
+    }
+
+    /**
+     * @return the list that edits are currently made to, if newList is going to replace it
+     * once diffed (lists from editList() already are the editable version), otherwise null
+     */
+    private PersistentList<T> replacedEditableVersion(List<T> newList) {
+        if (!structuralSharing || newList instanceof PersistentList) {
+            return null;
+        }
+        synchronized (listChangesLock) {
+            return currentListEditableVersion;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void startDiff(Input input) {
+        new AsyncBuilder<Input, Result>(workMode, TaskExecutors.cpu())
+                .doInBackgroundCancellable((cancellationToken, inputs) -> doWork(cancellationToken, inputs[0]))
                 .onPostExecute(this::updateState)
-                .execute(new Input(currentListVersion, currentList, newList));
+                .onCancelled(this::diffCancelled)
+                .cancellationToken(input.cancellationToken)
+                .execute(input);
     }
 
     @Override
@@ -100,38 +246,134 @@ public class ImmutableListMgr<T extends DeepCopyable<T> & DiffComparator<T>>
         return new DiffSpec(null, systemTimeWrapper);
     }
 
-    private Result doWork(Input input) {
-
-        List<T> newListCopy = new ArrayList<>(input.newList.size());
-        List<T> newListCopy2 = new ArrayList<>(input.newList.size());
-
-        synchronized (listChangesLock) {
-            //create a mutable copy of the new list, ready for when client wants to change it
-            for (T item : input.newList) {
-                newListCopy.add(item.deepCopy());
-                newListCopy2.add(item.deepCopy());
+    private Result doWork(CancellationToken cancellationToken, Input input) {
+
+        List<T> newListCopy;
+        List<T> newListCopy2;
+        int mutableCopyEditsCopied = 0;
+
+        if (structuralSharing) {
+            //lists from changeList() were already copied as they were changed, other lists
+            //belong to the client so we take one copy
+            if (input.newList instanceof PersistentList) {
+                newListCopy = input.newList;
+            } else {
+                List<T> copies = new ArrayList<>(input.newList.size());
+                for (T item : input.newList) {
+                    copies.add(item.deepCopy());
+                }
+                newListCopy = PersistentList.copyOf(copies);
+            }
+            newListCopy2 = newListCopy;
+        } else {
+            newListCopy = new ArrayList<>(input.newList.size());
+            newListCopy2 = new PeekableArrayList<>(input.newList.size());
+
+            synchronized (listChangesLock) {
+                //create a mutable copy of the new list, ready for when client wants to change it
+                for (T item : input.newList) {
+                    newListCopy.add(item.deepCopy());
+                    newListCopy2.add(item.deepCopy());
+                }
+                mutableCopyEditsCopied = mutableCopyEdits;
             }
         }
 
+        cancellationToken.throwIfCancelled();
+
         // work out the differences in the lists
-        DiffUtil.DiffResult diffResult = new DiffCalculator<T>().createDiffResult(input.oldList, newListCopy);
+        DiffSpec diffSpec;
+        if (stableIdDiffCalculator != null) {
+            ListDiff listDiff = stableIdDiffCalculator.createListDiff(input.oldList, newListCopy, cancellationToken);
+            diffSpec = new DiffSpec(null, listDiff, systemTimeWrapper);
+        } else {
+            DiffUtil.DiffResult diffResult = new DiffCalculator<T>().createDiffResult(input.oldList, newListCopy);
+            diffSpec = new DiffSpec(diffResult, systemTimeWrapper);
+        }
 
         //return to the UI thread
-        return new Result(input.oldListVersion, newListCopy, newListCopy2, new DiffSpec(diffResult, systemTimeWrapper));
+        return new Result(input.oldListVersion, newListCopy, newListCopy2, input.replacedEditableVersion,
+                mutableCopyEditsCopied, diffSpec);
     }
 
+    @SuppressWarnings("unchecked")
     private void updateState(Result result) {
 
-        if (result.oldListVersion != currentListVersion){
-            return; // this is an old change, we ignore it
+        boolean updated = false;
+        Input nextInput = null;
+
+        // the new list is in place before another diff can start, so that diff is always
+        // against the list that is displayed
+        synchronized (diffLock) {
+
+            if (result.oldListVersion == currentListVersion){
+
+                currentListVersion = currentListVersion + 1;
+                currentList = result.newList;
+                if (structuralSharing) {
+                    // a list from replaceList() is what gets edited from now on, unless there
+                    // has been an edit since its diff started (that edit is the newer list)
+                    if (result.replacedEditableVersion != null) {
+                        synchronized (listChangesLock) {
+                            if (currentListEditableVersion == result.replacedEditableVersion) {
+                                currentListEditableVersion = (PersistentList<T>) result.newListCopy;
+                            }
+                        }
+                    }
+                } else if (pendingNewList == null) {
+                    // if there is a next update, it already has any changes made since this one
+                    // started and it will set the mutable copy itself when it's done. An edit
+                    // made since the list was copied might not have reached updateList() yet,
+                    // in which case the mutable copy it was made to is kept
+                    synchronized (listChangesLock) {
+                        if (mutableCopyEdits == result.mutableCopyEditsCopied) {
+                            currentListMutableCopy = (PeekableArrayList<T>) result.newListCopy;
+                        }
+                    }
+                }
+                latestDiffSpec = result.diffSpec;
+                updated = true;
+            } // else this is an old change, we ignore it
+
+            nextInput = takePendingDiff(true);
         }
 
-        currentListVersion = currentListVersion + 1;
-        currentList = result.newList;
-        currentListMutableCopy = result.newListCopy;
-        latestDiffSpec = result.diffSpec;
+        if (updated) {
+            notifyObservers();
+        }
+        if (nextInput != null) {
+            startDiff(nextInput);
+        }
+    }
 
-        notifyObservers();
+    /**
+     * A diff is only ever cancelled once a newer list is waiting, so that one is diffed
+     * instead (and allowed to finish, whatever arrives while it's running)
+     */
+    private void diffCancelled() {
+        Input nextInput;
+        synchronized (diffLock) {
+            skippedDiffCount++;
+            nextInput = takePendingDiff(false);
+        }
+        if (nextInput != null) {
+            startDiff(nextInput);
+        }
+    }
+
+    /**
+     * Call with the diffLock held
+     */
+    private Input takePendingDiff(boolean cancellable) {
+        List<T> nextNewList = pendingNewList;
+        pendingNewList = null;
+        if (nextNewList == null) {
+            diffInProgress = false;
+            diffToken = null;
+            diffCancellable = false;
+            return null;
+        }
+        return nextDiff(nextNewList, cancellable);
     }
 
     private class Input {
@@ -139,11 +381,16 @@ public class ImmutableListMgr<T extends DeepCopyable<T> & DiffComparator<T>>
         public final int oldListVersion;
         public final List<T> oldList;
         public final List<T> newList;
+        public final PersistentList<T> replacedEditableVersion;
+        public final CancellationToken cancellationToken;
 
-        public Input(int oldListVersion, List<T> oldList, List<T> newList) {
+        public Input(int oldListVersion, List<T> oldList, List<T> newList, PersistentList<T> replacedEditableVersion,
+                     CancellationToken cancellationToken) {
             this.oldListVersion = oldListVersion;
             this.oldList = Affirm.notNull(oldList);
             this.newList = Affirm.notNull(newList);
+            this.replacedEditableVersion = replacedEditableVersion;
+            this.cancellationToken = Affirm.notNull(cancellationToken);
         }
     }
 
@@ -152,12 +399,17 @@ public class ImmutableListMgr<T extends DeepCopyable<T> & DiffComparator<T>>
         public final int oldListVersion;
         public final List<T> newList;
         public final List<T> newListCopy;
+        public final PersistentList<T> replacedEditableVersion;
+        public final int mutableCopyEditsCopied;
         public final DiffSpec diffSpec;
 
-        public Result(int oldListVersion, List<T> newList, List<T> newListCopy, DiffSpec diffSpec) {
+        public Result(int oldListVersion, List<T> newList, List<T> newListCopy, PersistentList<T> replacedEditableVersion,
+                      int mutableCopyEditsCopied, DiffSpec diffSpec) {
             this.oldListVersion = oldListVersion;
             this.newList = Affirm.notNull(newList);
             this.newListCopy = Affirm.notNull(newListCopy);
+            this.replacedEditableVersion = replacedEditableVersion;
+            this.mutableCopyEditsCopied = mutableCopyEditsCopied;
             this.diffSpec = Affirm.notNull(diffSpec);
         }
     }
@@ -166,6 +418,10 @@ public class ImmutableListMgr<T extends DeepCopyable<T> & DiffComparator<T>>
         void updateList(List<T> listCopy);
     }
 
+    public interface ListEditor<T>{
+        void editList(PeekableList<T> listCopy);
+    }
+
     public interface ListReplacer<T>{
         List<T> replaceList();
     }
@@ -0,0 +1,200 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.Arrays;
+
+/**
+ * An ordered list of insert / remove / move / change operations which, applied in order, turn
+ * an old list in to a new list. Produced by {@link StableIdDiffCalculator}, or recorded as the
+ * changes happen by the batching ChangeAware lists.
+ * <p>
+ * Positions follow the same rules as the RecyclerView.Adapter notifyItemXXX() methods: each
+ * one is relative to the list as it is once all the previous operations have been applied,
+ * so they can be passed straight through to an adapter (see NotifyableImp)
+ */
+public class ListDiff {
+
+    public interface Callback {
+        void onInserted(int position, int count);
+        void onRemoved(int position, int count);
+        void onMoved(int fromPosition, int toPosition);
+        /**
+         * @param payload from {@link DiffComparator#getChangePayload(Object)}, null for a full rebind
+         */
+        void onChanged(int position, int count, Object payload);
+    }
+
+    private static final int INSERTED = 0;
+    private static final int REMOVED = 1;
+    private static final int MOVED = 2;
+    private static final int CHANGED = 3;
+
+    // operations are stored as (type, a, b) triplets, a and b being position and count,
+    // or from and to for a move
+    private final int[] operations;
+    private final int operationCount;
+    // payloads of CHANGED operations by operation index, null until there is a payload
+    private final Object[] payloads;
+
+    private ListDiff(int[] operations, int operationCount, Object[] payloads) {
+        this.operations = operations;
+        this.operationCount = operationCount;
+        this.payloads = payloads;
+    }
+
+    public void dispatchUpdatesTo(Callback callback) {
+        for (int ii = 0; ii < operationCount * 3; ii += 3) {
+            int a = operations[ii + 1];
+            int b = operations[ii + 2];
+            switch (operations[ii]) {
+                case INSERTED:
+                    callback.onInserted(a, b);
+                    break;
+                case REMOVED:
+                    callback.onRemoved(a, b);
+                    break;
+                case MOVED:
+                    callback.onMoved(a, b);
+                    break;
+                case CHANGED:
+                    callback.onChanged(a, b, payloads == null ? null : payloads[ii / 3]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the number of operations (adjacent inserts, removes and changes are
+     * merged in to single range operations)
+     */
+    public int getOperationCount() {
+        return operationCount;
+    }
+
+    public boolean isEmpty() {
+        return operationCount == 0;
+    }
+
+
+    /**
+     * Collects operations in the order they happen, merging each one in to the previous one
+     * where the two describe a single range (eg: removing positions 5, 4, 3 in turn, or
+     * inserting at 7 then at 8, or changing 2..4 then 5..6). Changes are only merged if they
+     * have the same payload.
+     */
+    public static class Builder {
+
+        private int[] operations = new int[3 * 16];
+        private int operationCount = 0;
+        private Object[] payloads = null;
+
+        public void inserted(int position, int count) {
+            if (lastTypeIs(INSERTED) && lastA() <= position && position <= lastA() + lastB()) {
+                // inserted within or either side of the previous insert
+                operations[lastIndex() + 2] += count;
+            } else {
+                add(INSERTED, position, count);
+            }
+        }
+
+        public void removed(int position, int count) {
+            if (lastTypeIs(REMOVED) && position <= lastA() && lastA() <= position + count) {
+                // removed from either side of the previous removal
+                operations[lastIndex() + 1] = position;
+                operations[lastIndex() + 2] += count;
+            } else {
+                add(REMOVED, position, count);
+            }
+        }
+
+        public void moved(int fromPosition, int toPosition) {
+            add(MOVED, fromPosition, toPosition);
+        }
+
+        /**
+         * Adds a range move as single moves (that's all an adapter supports)
+         *
+         * @param fromPosition first position of the range before it moves
+         * @param toPosition first position of the range after it has moved
+         * @param count size of the range
+         */
+        public void moved(int fromPosition, int toPosition, int count) {
+            if (toPosition > fromPosition) {
+                for (int ii = 0; ii < count; ii++) {
+                    add(MOVED, fromPosition, toPosition + count - 1);
+                }
+            } else if (toPosition < fromPosition) {
+                for (int ii = 0; ii < count; ii++) {
+                    add(MOVED, fromPosition + ii, toPosition + ii);
+                }
+            }
+        }
+
+        public void changed(int position, int count) {
+            changed(position, count, null);
+        }
+
+        /**
+         * @param payload passed on to the adapter's notifyItemRangeChanged(), can be null
+         */
+        public void changed(int position, int count, Object payload) {
+            if (lastTypeIs(CHANGED) && lastPayload() == payload
+                    && position <= lastA() + lastB() && lastA() <= position + count) {
+                // overlaps or touches the previous change
+                int start = Math.min(position, lastA());
+                int end = Math.max(position + count, lastA() + lastB());
+                operations[lastIndex() + 1] = start;
+                operations[lastIndex() + 2] = end - start;
+            } else {
+                add(CHANGED, position, count);
+                if (payload != null) {
+                    if (payloads == null) {
+                        payloads = new Object[operations.length / 3];
+                    }
+                    payloads[operationCount - 1] = payload;
+                }
+            }
+        }
+
+        public int getOperationCount() {
+            return operationCount;
+        }
+
+        public ListDiff build() {
+            return new ListDiff(operations, operationCount, payloads);
+        }
+
+        private void add(int type, int a, int b) {
+            if (operations.length < (operationCount + 1) * 3) {
+                operations = Arrays.copyOf(operations, operations.length * 2);
+                if (payloads != null) {
+                    payloads = Arrays.copyOf(payloads, operations.length / 3);
+                }
+            }
+            int index = operationCount * 3;
+            operations[index] = type;
+            operations[index + 1] = a;
+            operations[index + 2] = b;
+            operationCount++;
+        }
+
+        private boolean lastTypeIs(int type) {
+            return operationCount > 0 && operations[lastIndex()] == type;
+        }
+
+        private int lastIndex() {
+            return (operationCount - 1) * 3;
+        }
+
+        private int lastA() {
+            return operations[lastIndex() + 1];
+        }
+
+        private int lastB() {
+            return operations[lastIndex() + 2];
+        }
+
+        private Object lastPayload() {
+            return payloads == null ? null : payloads[operationCount - 1];
+        }
+    }
+}
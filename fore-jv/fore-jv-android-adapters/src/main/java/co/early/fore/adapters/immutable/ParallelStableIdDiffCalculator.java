@@ -0,0 +1,218 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.threading.CancellationToken;
+
+/**
+ * A {@link StableIdDiffCalculator} for very large lists (20k rows plus) which splits the lists
+ * in to chunks and diffs the chunks in parallel.
+ * <p>
+ * The lists are cut at anchors: items with the same id found at roughly the same place in
+ * both lists. Each chunk of the old list is diffed against the matching chunk of the new list
+ * and the operations are stitched back together, last chunk first, so that each chunk's
+ * positions only need to be offset by where that chunk starts in the old list.
+ * <p>
+ * The result is always a correct update script. It is only less tidy than the one a
+ * StableIdDiffCalculator would produce when an item moves from one chunk to another: that
+ * shows up as a remove and an insert rather than a move. With edits scattered through a long
+ * list that is rare. If no anchors can be found (say the whole list was shuffled), there is
+ * only one chunk and this behaves exactly like a StableIdDiffCalculator.
+ * <p>
+ * Pass in any ExecutorService, a ForkJoinPool for example, or
+ * Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()). The calling thread
+ * diffs one of the chunks itself.
+ */
+public class ParallelStableIdDiffCalculator<T extends DiffComparator<T>> extends StableIdDiffCalculator<T> {
+
+    /**
+     * lists smaller than this are not worth splitting
+     */
+    public static final int MIN_CHUNK_SIZE = 2000;
+
+    /**
+     * how far either side of its expected position to look for an anchor in the old list
+     */
+    private static final int ANCHOR_SEARCH_DISTANCE = 64;
+
+    /**
+     * how many new list items to try at each cut before giving up on it
+     */
+    private static final int ANCHOR_ATTEMPTS = 8;
+
+    private final IdExtractor<T> idExtractor;
+    private final ExecutorService executorService;
+    private final int parallelism;
+
+    /**
+     * @param executorService runs the chunk diffs
+     * @param parallelism how many chunks to diff at once, usually the number of threads
+     *                    available to the executorService
+     */
+    public ParallelStableIdDiffCalculator(IdExtractor<T> idExtractor, ExecutorService executorService, int parallelism) {
+        super(idExtractor);
+        this.idExtractor = Affirm.notNull(idExtractor);
+        this.executorService = Affirm.notNull(executorService);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1, not:" + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public ListDiff createListDiff(final List<T> oldList, final List<T> newList, final CancellationToken cancellationToken) {
+
+        final int[] cuts = findCuts(oldList, newList);
+        final int chunks = cuts.length / 2 - 1;
+
+        if (chunks == 1) {
+            return super.createListDiff(oldList, newList, cancellationToken);
+        }
+
+        // chunk 0 is diffed on this thread
+        final List<Future<ListDiff>> futures = new ArrayList<>(chunks - 1);
+        for (int chunk = 1; chunk < chunks; chunk++) {
+            final int oldStart = cuts[chunk * 2];
+            final int newStart = cuts[chunk * 2 + 1];
+            final int oldEnd = cuts[chunk * 2 + 2];
+            final int newEnd = cuts[chunk * 2 + 3];
+            futures.add(executorService.submit(() -> ParallelStableIdDiffCalculator.super.createListDiff(
+                    oldList.subList(oldStart, oldEnd), newList.subList(newStart, newEnd), cancellationToken)));
+        }
+
+        final ListDiff[] chunkDiffs = new ListDiff[chunks];
+        try {
+            chunkDiffs[0] = super.createListDiff(oldList.subList(0, cuts[2]), newList.subList(0, cuts[3]), cancellationToken);
+            for (int chunk = 1; chunk < chunks; chunk++) {
+                chunkDiffs[chunk] = futures.get(chunk - 1).get();
+            }
+        } catch (InterruptedException e) {
+            // interrupting is how a superseded diff gets stopped, so stop rather than
+            // starting the whole diff again on this thread
+            cancel(futures);
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        } catch (RuntimeException | Error e) {
+            // once one chunk has failed (or been cancelled) the others are no use
+            cancel(futures);
+            throw e;
+        } catch (ExecutionException e) {
+            cancel(futures);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+
+        // last chunk first, so the positions before each chunk are still those of the old list
+        final ListDiff.Builder builder = new ListDiff.Builder();
+        for (int chunk = chunks - 1; chunk >= 0; chunk--) {
+            chunkDiffs[chunk].dispatchUpdatesTo(new OffsetCallback(builder, cuts[chunk * 2]));
+        }
+        return builder.build();
+    }
+
+    private static void cancel(List<Future<ListDiff>> futures) {
+        for (Future<ListDiff> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * @return (oldPosition, newPosition) pairs, starting with (0, 0) and ending with
+     * (oldList.size(), newList.size()), each chunk running from one pair up to the next
+     */
+    private int[] findCuts(List<T> oldList, List<T> newList) {
+
+        final int oldSize = oldList.size();
+        final int newSize = newList.size();
+        final int wantedChunks = Math.min(parallelism, Math.min(oldSize, newSize) / MIN_CHUNK_SIZE);
+
+        final int[] cuts = new int[(Math.max(wantedChunks, 1) + 1) * 2];
+        int cutCount = 1; // (0, 0)
+
+        for (int chunk = 1; chunk < wantedChunks; chunk++) {
+            int previousOld = cuts[(cutCount - 1) * 2];
+            int previousNew = cuts[(cutCount - 1) * 2 + 1];
+            for (int attempt = 0; attempt < ANCHOR_ATTEMPTS; attempt++) {
+                int newPosition = (int) ((long) newSize * chunk / wantedChunks) + attempt;
+                int oldPosition = findInOldList(oldList, idExtractor.idOf(newList.get(newPosition)),
+                        (int) ((long) newPosition * oldSize / newSize));
+                if (oldPosition > previousOld && newPosition > previousNew) {
+                    cuts[cutCount * 2] = oldPosition;
+                    cuts[cutCount * 2 + 1] = newPosition;
+                    cutCount++;
+                    break;
+                }
+            }
+        }
+
+        cuts[cutCount * 2] = oldSize;
+        cuts[cutCount * 2 + 1] = newSize;
+        cutCount++;
+
+        if (cutCount * 2 == cuts.length) {
+            return cuts;
+        }
+        int[] foundCuts = new int[cutCount * 2];
+        System.arraycopy(cuts, 0, foundCuts, 0, foundCuts.length);
+        return foundCuts;
+    }
+
+    /**
+     * @return the position of the item with this id nearest to expectedPosition, or -1
+     */
+    private int findInOldList(List<T> oldList, Object id, int expectedPosition) {
+        for (int distance = 0; distance <= ANCHOR_SEARCH_DISTANCE; distance++) {
+            int before = expectedPosition - distance;
+            if (before >= 0 && before < oldList.size() && id.equals(idExtractor.idOf(oldList.get(before)))) {
+                return before;
+            }
+            int after = expectedPosition + distance;
+            if (distance > 0 && after < oldList.size() && id.equals(idExtractor.idOf(oldList.get(after)))) {
+                return after;
+            }
+        }
+        return -1;
+    }
+
+    private static class OffsetCallback implements ListDiff.Callback {
+
+        private final ListDiff.Builder builder;
+        private final int offset;
+
+        OffsetCallback(ListDiff.Builder builder, int offset) {
+            this.builder = builder;
+            this.offset = offset;
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            builder.inserted(position + offset, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            builder.removed(position + offset, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            builder.moved(fromPosition + offset, toPosition + offset);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            builder.changed(position + offset, count, payload);
+        }
+    }
+}
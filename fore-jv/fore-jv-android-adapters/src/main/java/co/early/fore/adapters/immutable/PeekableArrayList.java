@@ -0,0 +1,22 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.ArrayList;
+
+/**
+ * The list handed to {@link ImmutableListMgr.ListEditor} without structural sharing, every
+ * item in it is already a copy so there is nothing to save by peeking
+ */
+class PeekableArrayList<T> extends ArrayList<T> implements PeekableList<T> {
+
+    PeekableArrayList() {
+    }
+
+    PeekableArrayList(int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    @Override
+    public T peek(int index) {
+        return get(index);
+    }
+}
@@ -0,0 +1,46 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.List;
+
+/**
+ * The list handed to {@link ImmutableListMgr.ListEditor}.
+ * <p>
+ * With structural sharing turned on, get() deep copies the item it returns so that the item
+ * can be changed (see {@link ImmutableListMgr}). That is wasted work for the items that are
+ * only looked at while searching for the one to change, peek() and indexOfFirst() read the
+ * items without copying them:
+ * <p>
+ * <pre>
+ * listMgr.editList(listCopy -&gt; {
+ *     int index = listCopy.indexOfFirst(item -&gt; item.getId() == id);
+ *     listCopy.get(index).increasePlaysRequested();
+ * });
+ * </pre>
+ * <p>
+ * Items returned by peek() may be shared with the list that is currently displayed, so they
+ * must not be changed. To change an item use get() or set()
+ */
+public interface PeekableList<T> extends List<T> {
+
+    /**
+     * @return the item at this index, which must not be changed
+     */
+    T peek(int index);
+
+    /**
+     * @return the index of the first item the matcher matches, or -1 if there isn't one
+     */
+    default int indexOfFirst(Matcher<? super T> matcher) {
+        final int size = size();
+        for (int ii = 0; ii < size; ii++) {
+            if (matcher.matches(peek(ii))) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    interface Matcher<T> {
+        boolean matches(T item);
+    }
+}
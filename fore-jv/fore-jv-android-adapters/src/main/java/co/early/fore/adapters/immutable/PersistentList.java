@@ -0,0 +1,399 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list which shares its structure with the versions it was made from.
+ * <p>
+ * The items are kept in the leaves of a B+ tree, each node holding up to
+ * {@link #MAX_NODE_SIZE} entries, and each branch knowing how many items are underneath
+ * each of its children. get() is O(log n), and so is each change made through a
+ * {@link Transient}: only the nodes on the path to the changed position are copied, the rest
+ * of the tree is shared with the list it came from.
+ * <p>
+ * <pre>
+ * PersistentList.Transient&lt;T&gt; editor = list.asTransient();
+ * editor.set(42, item);
+ * editor.remove(0);
+ * PersistentList&lt;T&gt; newList = editor.persistent(); // list is unchanged
+ * </pre>
+ */
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+
+    static final int MAX_NODE_SIZE = 32;
+    private static final int MIN_NODE_SIZE = MAX_NODE_SIZE / 2;
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(new Leaf(null), 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentList(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    public static <T> PersistentList<T> copyOf(Collection<? extends T> items) {
+        Transient<T> editor = PersistentList.<T>empty().asTransient();
+        editor.addAll(items);
+        return editor.persistent();
+    }
+
+    @Override
+    public T get(int index) {
+        checkIndex(index, size);
+        return get(root, index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a mutable view of this list, changes made to it are not visible here
+     */
+    public Transient<T> asTransient() {
+        return new Transient<>(root, size);
+    }
+
+
+    /**
+     * A mutable list which starts out sharing all of its nodes with the PersistentList it was
+     * created from. Nodes are copied the first time they are changed, after that they belong to
+     * this Transient and are changed in place.
+     * <p>
+     * Not thread safe. Once {@link #persistent()} has been called the Transient can't be used
+     * any more.
+     */
+    public static final class Transient<T> extends AbstractList<T> implements RandomAccess {
+
+        private Object owner = new Object();
+        private Node root;
+        private int size;
+
+        private Transient(Node root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        @Override
+        public T get(int index) {
+            ensureEditable();
+            checkIndex(index, size);
+            return PersistentList.get(root, index);
+        }
+
+        @Override
+        public int size() {
+            ensureEditable();
+            return size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T set(int index, T item) {
+            ensureEditable();
+            checkIndex(index, size);
+            root = editable(root);
+            return (T) setIn(root, index, item);
+        }
+
+        @Override
+        public void add(int index, T item) {
+            ensureEditable();
+            checkIndex(index, size + 1);
+            root = editable(root);
+            insertIn(root, index, item);
+            if (root.count > MAX_NODE_SIZE) {
+                Branch newRoot = new Branch(owner);
+                newRoot.entries[0] = root;
+                newRoot.count = 1;
+                splitChild(newRoot, 0);
+                root = newRoot;
+            }
+            size++;
+            modCount++;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public T remove(int index) {
+            ensureEditable();
+            checkIndex(index, size);
+            root = editable(root);
+            Object removed = removeIn(root, index);
+            if (root instanceof Branch && root.count == 1) {
+                root = (Node) root.entries[0];
+            }
+            size--;
+            modCount++;
+            return (T) removed;
+        }
+
+        @Override
+        public void clear() {
+            ensureEditable();
+            root = new Leaf(owner);
+            size = 0;
+            modCount++;
+        }
+
+        /**
+         * @return an immutable snapshot of this list, after which the Transient can't be used
+         */
+        public PersistentList<T> persistent() {
+            ensureEditable();
+            owner = null;
+            return new PersistentList<>(root, size);
+        }
+
+        private void ensureEditable() {
+            if (owner == null) {
+                throw new IllegalStateException("persistent() has already been called on this Transient");
+            }
+        }
+
+        private Node editable(Node node) {
+            return node.owner == owner ? node : node.copy(owner);
+        }
+
+        private Object setIn(Node node, int index, Object item) {
+            if (node instanceof Leaf) {
+                Object previous = node.entries[index];
+                node.entries[index] = item;
+                return previous;
+            }
+            Branch branch = (Branch) node;
+            int childIndex = branch.childIndexFor(index);
+            Node child = editable((Node) branch.entries[childIndex]);
+            branch.entries[childIndex] = child;
+            return setIn(child, index - branch.startOf(childIndex), item);
+        }
+
+        private void insertIn(Node node, int index, Object item) {
+            if (node instanceof Leaf) {
+                node.insertEntry(index, item);
+                return;
+            }
+            Branch branch = (Branch) node;
+            int childIndex = index == branch.size() ? branch.count - 1 : branch.childIndexFor(index);
+            Node child = editable((Node) branch.entries[childIndex]);
+            branch.entries[childIndex] = child;
+            insertIn(child, index - branch.startOf(childIndex), item);
+            if (child.count > MAX_NODE_SIZE) {
+                splitChild(branch, childIndex);
+            } else {
+                branch.onEntriesChanged(childIndex);
+            }
+        }
+
+        private Object removeIn(Node node, int index) {
+            if (node instanceof Leaf) {
+                return node.removeEntry(index);
+            }
+            Branch branch = (Branch) node;
+            int childIndex = branch.childIndexFor(index);
+            Node child = editable((Node) branch.entries[childIndex]);
+            branch.entries[childIndex] = child;
+            Object removed = removeIn(child, index - branch.startOf(childIndex));
+            if (child.count < MIN_NODE_SIZE && branch.count > 1) {
+                rebalance(branch, childIndex);
+            } else {
+                branch.onEntriesChanged(childIndex);
+            }
+            return removed;
+        }
+
+        private void splitChild(Branch branch, int childIndex) {
+            Node left = (Node) branch.entries[childIndex];
+            Node right = left.newEmpty(owner);
+            moveEntries(left, left.count / 2, right);
+            branch.insertEntry(childIndex + 1, right);
+            branch.onEntriesChanged(childIndex);
+        }
+
+        /**
+         * Merges the child with a neighbour, or if they won't fit in one node, shares the
+         * entries out evenly between the two
+         */
+        private void rebalance(Branch branch, int childIndex) {
+            int leftIndex = childIndex > 0 ? childIndex - 1 : childIndex;
+            Node left = editable((Node) branch.entries[leftIndex]);
+            Node right = editable((Node) branch.entries[leftIndex + 1]);
+            branch.entries[leftIndex] = left;
+            branch.entries[leftIndex + 1] = right;
+
+            int total = left.count + right.count;
+            if (total <= MAX_NODE_SIZE) {
+                System.arraycopy(right.entries, 0, left.entries, left.count, right.count);
+                left.count = total;
+                left.onEntriesChanged(0);
+                branch.removeEntry(leftIndex + 1);
+            } else {
+                int leftTarget = total / 2;
+                if (left.count > leftTarget) {
+                    int moving = left.count - leftTarget;
+                    System.arraycopy(right.entries, 0, right.entries, moving, right.count);
+                    System.arraycopy(left.entries, leftTarget, right.entries, 0, moving);
+                    Arrays.fill(left.entries, leftTarget, left.count, null);
+                } else {
+                    int moving = leftTarget - left.count;
+                    System.arraycopy(right.entries, 0, left.entries, left.count, moving);
+                    System.arraycopy(right.entries, moving, right.entries, 0, right.count - moving);
+                    Arrays.fill(right.entries, right.count - moving, right.count, null);
+                }
+                left.count = leftTarget;
+                right.count = total - leftTarget;
+                left.onEntriesChanged(0);
+                right.onEntriesChanged(0);
+            }
+            branch.onEntriesChanged(leftIndex);
+        }
+
+        /**
+         * moves the entries of source from fromIndex onwards, on to the end of destination
+         */
+        private static void moveEntries(Node source, int fromIndex, Node destination) {
+            int moving = source.count - fromIndex;
+            System.arraycopy(source.entries, fromIndex, destination.entries, destination.count, moving);
+            Arrays.fill(source.entries, fromIndex, source.count, null);
+            destination.count += moving;
+            source.count = fromIndex;
+            source.onEntriesChanged(0);
+            destination.onEntriesChanged(0);
+        }
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(Node node, int index) {
+        while (node instanceof Branch) {
+            Branch branch = (Branch) node;
+            int childIndex = branch.childIndexFor(index);
+            index -= branch.startOf(childIndex);
+            node = (Node) branch.entries[childIndex];
+        }
+        return (T) node.entries[index];
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size);
+        }
+    }
+
+    /**
+     * Nodes created by a Transient are owned by it and can be changed in place by that
+     * Transient, all other nodes are immutable
+     */
+    private abstract static class Node {
+
+        final Object owner;
+        // one spare slot so a node can briefly overflow before its parent splits it
+        final Object[] entries = new Object[MAX_NODE_SIZE + 1];
+        int count;
+
+        Node(Object owner) {
+            this.owner = owner;
+        }
+
+        abstract int size();
+
+        abstract Node newEmpty(Object owner);
+
+        void onEntriesChanged(int fromIndex) {
+        }
+
+        Node copy(Object owner) {
+            Node node = newEmpty(owner);
+            System.arraycopy(entries, 0, node.entries, 0, count);
+            node.count = count;
+            node.onEntriesChanged(0);
+            return node;
+        }
+
+        void insertEntry(int index, Object entry) {
+            System.arraycopy(entries, index, entries, index + 1, count - index);
+            entries[index] = entry;
+            count++;
+        }
+
+        Object removeEntry(int index) {
+            Object removed = entries[index];
+            System.arraycopy(entries, index + 1, entries, index, count - index - 1);
+            entries[--count] = null;
+            return removed;
+        }
+    }
+
+    private static final class Leaf extends Node {
+
+        Leaf(Object owner) {
+            super(owner);
+        }
+
+        @Override
+        int size() {
+            return count;
+        }
+
+        @Override
+        Node newEmpty(Object owner) {
+            return new Leaf(owner);
+        }
+    }
+
+    private static final class Branch extends Node {
+
+        // ends[i] is the number of items under children 0..i
+        final int[] ends = new int[MAX_NODE_SIZE + 1];
+
+        Branch(Object owner) {
+            super(owner);
+        }
+
+        @Override
+        int size() {
+            return count == 0 ? 0 : ends[count - 1];
+        }
+
+        @Override
+        Node newEmpty(Object owner) {
+            return new Branch(owner);
+        }
+
+        @Override
+        void onEntriesChanged(int fromIndex) {
+            for (int ii = fromIndex; ii < count; ii++) {
+                ends[ii] = startOf(ii) + ((Node) entries[ii]).size();
+            }
+        }
+
+        int startOf(int childIndex) {
+            return childIndex == 0 ? 0 : ends[childIndex - 1];
+        }
+
+        int childIndexFor(int index) {
+            int low = 0;
+            int high = count - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ends[mid] <= index) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
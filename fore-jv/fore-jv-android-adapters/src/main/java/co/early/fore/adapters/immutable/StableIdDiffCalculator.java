@@ -0,0 +1,303 @@
+package co.early.fore.adapters.immutable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.threading.CancellationToken;
+
+/**
+ * An alternative to {@link DiffCalculator} for large lists (tens of thousands of rows) whose
+ * items each have a stable id: a key which is equal for two items exactly when itemsTheSame()
+ * would return true.
+ * <p>
+ * DiffUtil has to compare items pairwise to find out which ones match. Here the ids are hashed
+ * instead, which makes the match up linear. Items that haven't moved relative to each other
+ * are found with a longest increasing subsequence, everything else matched is a move, the rest
+ * are inserts and removes. The total cost is O(N log N) regardless of how many changes there
+ * are, where DiffUtil is O(N + D^2) (D being the number of changes). The unchanged runs at the
+ * start and end of the list, which for most updates is nearly all of it, only cost an id
+ * comparison per row.
+ * <p>
+ * The same warnings about the lists being changed by other threads during the calculation
+ * apply here as for DiffCalculator.
+ * <p>
+ * If two items in the same list share an id, only the first one is matched up, the others are
+ * treated as removed from the old list / inserted in to the new list
+ * <p>
+ * For lists so large that even this takes too long, see {@link ParallelStableIdDiffCalculator}
+ * <p>
+ * A diff can be abandoned part way through by cancelling the CancellationToken passed to
+ * {@link #createListDiff(List, List, CancellationToken)}, the token is checked between each
+ * stage of the calculation
+ */
+public class StableIdDiffCalculator<T extends DiffComparator<T>> {
+
+    public interface IdExtractor<T> {
+        /**
+         * @return the item's stable id, ids must implement equals() and hashCode()
+         */
+        Object idOf(T item);
+    }
+
+    /**
+     * how many rows are compared between checks of the CancellationToken
+     */
+    private static final int ROWS_PER_CHECKPOINT = 4096;
+
+    private final IdExtractor<T> idExtractor;
+
+    public StableIdDiffCalculator(IdExtractor<T> idExtractor) {
+        this.idExtractor = Affirm.notNull(idExtractor);
+    }
+
+    /**
+     * @param oldList the list about to be replaced (no null items)
+     * @param newList the new list (no null items)
+     * @return the operations that turn oldList in to newList
+     */
+    public ListDiff createListDiff(List<T> oldList, List<T> newList) {
+        return createListDiff(oldList, newList, new CancellationToken());
+    }
+
+    /**
+     * @param oldList the list about to be replaced (no null items)
+     * @param newList the new list (no null items)
+     * @param cancellationToken checked as the diff goes
+     * @return the operations that turn oldList in to newList
+     * @throws java.util.concurrent.CancellationException if the token is cancelled before the
+     * diff is complete
+     */
+    public ListDiff createListDiff(List<T> oldList, List<T> newList, CancellationToken cancellationToken) {
+
+        final int oldSize = oldList.size();
+        final int newSize = newList.size();
+
+        // unchanged runs at the start and the end
+        int start = 0;
+        while (start < oldSize && start < newSize && sameId(oldList.get(start), newList.get(start))) {
+            start++;
+        }
+        int oldEnd = oldSize;
+        int newEnd = newSize;
+        while (oldEnd > start && newEnd > start && sameId(oldList.get(oldEnd - 1), newList.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+        }
+        cancellationToken.throwIfCancelled();
+
+        final ListDiff.Builder builder = new ListDiff.Builder();
+        final int[] newToOld = diffWindow(oldList, newList, start, oldEnd, newEnd, builder, cancellationToken);
+
+        // content changes, reported at their final positions once the structure is in place
+        for (int newIndex = 0; newIndex < newSize; newIndex++) {
+            if (newIndex % ROWS_PER_CHECKPOINT == 0) {
+                cancellationToken.throwIfCancelled();
+            }
+            int oldIndex;
+            if (newIndex < start) {
+                oldIndex = newIndex;
+            } else if (newIndex >= newEnd) {
+                oldIndex = newIndex - newEnd + oldEnd;
+            } else {
+                oldIndex = newToOld[newIndex - start];
+                if (oldIndex == -1) {
+                    continue;
+                }
+                oldIndex += start;
+            }
+            T oldItem = oldList.get(oldIndex);
+            T newItem = newList.get(newIndex);
+            if (!oldItem.itemsLookTheSame(newItem)) {
+                builder.changed(newIndex, 1, oldItem.getChangePayload(newItem));
+            }
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Adds the removes, moves and inserts needed for the part of the list between the
+     * unchanged runs.
+     *
+     * @return for each new item in the window, the (window relative) index of the matching
+     * old item, or -1 if it is an insert
+     */
+    private int[] diffWindow(List<T> oldList, List<T> newList, int start, int oldEnd, int newEnd,
+                             ListDiff.Builder builder, CancellationToken cancellationToken) {
+
+        final int oldCount = oldEnd - start;
+        final int newCount = newEnd - start;
+
+        // match the items up by id
+        final HashMap<Object, Integer> newIndexById = new HashMap<>(newCount * 4 / 3 + 1);
+        for (int jj = newCount - 1; jj >= 0; jj--) {
+            newIndexById.put(idExtractor.idOf(newList.get(start + jj)), jj); // first occurrence wins
+        }
+        final int[] oldToNew = new int[oldCount];
+        final int[] newToOld = new int[newCount];
+        Arrays.fill(newToOld, -1);
+        for (int ii = 0; ii < oldCount; ii++) {
+            Integer jj = newIndexById.get(idExtractor.idOf(oldList.get(start + ii)));
+            if (jj != null && newToOld[jj] == -1) {
+                oldToNew[ii] = jj;
+                newToOld[jj] = ii;
+            } else {
+                oldToNew[ii] = -1;
+            }
+        }
+        cancellationToken.throwIfCancelled();
+
+        // removes, from the end backwards so the positions stay valid
+        for (int ii = oldCount - 1; ii >= 0; ii--) {
+            if (oldToNew[ii] == -1) {
+                builder.removed(start + ii, 1);
+            }
+        }
+
+        // the matched items which keep their relative order (the longest increasing
+        // subsequence of new positions, taken in old order) don't need to move
+        final boolean[] anchor = longestIncreasingSubsequence(oldToNew);
+        cancellationToken.throwIfCancelled();
+
+        // Every matched item gets a slot in one ordering that holds both its old position and
+        // (if it moves) its new position. Between two anchors: the new slots of the items moving
+        // there, in new order, then the old slots of the items leaving from there, in old order.
+        // An item's current position is then the number of occupied slots before its own slot,
+        // whichever order the moves are done in
+        final int[] oldSlot = new int[oldCount];
+        final int[] newSlot = new int[newCount];
+        int slot = 0;
+        int ii = 0;
+        int jj = 0;
+        while (true) {
+            while (jj < newCount && !(newToOld[jj] != -1 && anchor[newToOld[jj]])) {
+                if (newToOld[jj] != -1) {
+                    newSlot[jj] = slot++;
+                }
+                jj++;
+            }
+            while (ii < oldCount && !(oldToNew[ii] != -1 && anchor[ii])) {
+                if (oldToNew[ii] != -1) {
+                    oldSlot[ii] = slot++;
+                }
+                ii++;
+            }
+            if (jj == newCount) {
+                break;
+            }
+            oldSlot[ii++] = slot;
+            newSlot[jj++] = slot;
+            slot++;
+        }
+
+        final OccupiedSlots occupied = new OccupiedSlots(slot);
+        for (ii = 0; ii < oldCount; ii++) {
+            if (oldToNew[ii] != -1) {
+                occupied.add(oldSlot[ii]);
+            }
+        }
+
+        cancellationToken.throwIfCancelled();
+
+        // moves, in new order
+        for (jj = 0; jj < newCount; jj++) {
+            ii = newToOld[jj];
+            if (ii != -1 && !anchor[ii]) {
+                int from = occupied.countBefore(oldSlot[ii]);
+                occupied.remove(oldSlot[ii]);
+                int to = occupied.countBefore(newSlot[jj]);
+                occupied.add(newSlot[jj]);
+                if (from != to) {
+                    builder.moved(start + from, start + to);
+                }
+            }
+        }
+
+        // inserts, from the start forwards: everything before each one is now in its final place
+        for (jj = 0; jj < newCount; jj++) {
+            if (newToOld[jj] == -1) {
+                builder.inserted(start + jj, 1);
+            }
+        }
+
+        return newToOld;
+    }
+
+    private boolean sameId(T oldItem, T newItem) {
+        return idExtractor.idOf(oldItem).equals(idExtractor.idOf(newItem));
+    }
+
+    /**
+     * @param values -1 entries are ignored
+     * @return true for each index that is part of a longest strictly increasing subsequence
+     */
+    static boolean[] longestIncreasingSubsequence(int[] values) {
+
+        // tails[k] = index of the smallest value ending an increasing subsequence of length k+1
+        final int[] tails = new int[values.length];
+        final int[] previous = new int[values.length];
+        int length = 0;
+
+        for (int ii = 0; ii < values.length; ii++) {
+            if (values[ii] == -1) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[ii]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[ii] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = ii;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        final boolean[] inSubsequence = new boolean[values.length];
+        for (int ii = length > 0 ? tails[length - 1] : -1; ii != -1; ii = previous[ii]) {
+            inSubsequence[ii] = true;
+        }
+        return inSubsequence;
+    }
+
+    /**
+     * A Fenwick tree over the slots: occupy / free a slot, and count the occupied
+     * slots before a given one, each in O(log N)
+     */
+    private static class OccupiedSlots {
+
+        private final int[] tree;
+
+        OccupiedSlots(int size) {
+            tree = new int[size + 1];
+        }
+
+        void add(int slot) {
+            for (int ii = slot + 1; ii < tree.length; ii += ii & -ii) {
+                tree[ii]++;
+            }
+        }
+
+        void remove(int slot) {
+            for (int ii = slot + 1; ii < tree.length; ii += ii & -ii) {
+                tree[ii]--;
+            }
+        }
+
+        int countBefore(int slot) {
+            int count = 0;
+            for (int ii = slot; ii > 0; ii -= ii & -ii) {
+                count += tree[ii];
+            }
+            return count;
+        }
+    }
+}
@@ -5,9 +5,9 @@ import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.function.UnaryOperator;
 
-import co.early.fore.core.Affirm;
 import co.early.fore.core.time.SystemTimeWrapper;
 
 /**
@@ -46,77 +46,106 @@ import co.early.fore.core.time.SystemTimeWrapper;
  *
  * </code>
  *
- * <p>This class only supports one type of change at a time (you can't handle a cell update;
+ * <p>By default this class only supports one type of change at a time (you can't handle a cell update;
  * two removals; and three inserts, all in the same notify round trip - each has to be handled one at a time)
  *
+ * <p>Construct it with batchUpdates = true and it will instead keep a log of every change made
+ * between notifications (adjacent changes are merged in to ranges), the resulting UpdateSpec
+ * is of type BATCHED and its changes can be passed straight to an adapter:
+ *
+ * <code>
+ *
+ *  case BATCHED:
+ *      updateSpec.changes.dispatchUpdatesTo(listDiffCallback);
+ *      break;
+ *
+ * </code>
+ *
+ * <p>NotifyableImp already does this. If more than {@link #MAX_BATCHED_OPERATIONS} separate
+ * operations build up before the next notification, the batch falls back to a FULL_UPDATE.
+ *
  */
 public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAwareList<T>, Updateable {
 
-    private final SystemTimeWrapper systemTimeWrapper;
-    private UpdateSpec updateSpec;
+    public static final int MAX_BATCHED_OPERATIONS = 100;
+
+    private final ChangeRecorder changeRecorder;
 
     public ChangeAwareArrayList(SystemTimeWrapper systemTimeWrapper) {
-        super();
-        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
-        updateSpec = createFullUpdateSpec(systemTimeWrapper);
+        this(systemTimeWrapper, false);
     }
 
     public ChangeAwareArrayList(int capacity, SystemTimeWrapper systemTimeWrapper) {
-        super(capacity);
-        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
-        updateSpec = createFullUpdateSpec(systemTimeWrapper);
+        this(capacity, systemTimeWrapper, false);
     }
 
     public ChangeAwareArrayList(@NonNull Collection<? extends T> c, SystemTimeWrapper systemTimeWrapper) {
         super(c);
-        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
-        updateSpec = createFullUpdateSpec(systemTimeWrapper);
+        this.changeRecorder = new ChangeRecorder(systemTimeWrapper, false, MAX_BATCHED_OPERATIONS);
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareArrayList(SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        super();
+        this.changeRecorder = new ChangeRecorder(systemTimeWrapper, batchUpdates, MAX_BATCHED_OPERATIONS);
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareArrayList(int capacity, SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        super(capacity);
+        this.changeRecorder = new ChangeRecorder(systemTimeWrapper, batchUpdates, MAX_BATCHED_OPERATIONS);
     }
 
     @Override
     public boolean add(T object) {
         boolean temp = super.add(object);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_INSERTED, size() - 1, 1, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, size() - 1, 1);
         return temp;
     }
 
     @Override
     public void add(int index, T object) {
         super.add(index, object);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_INSERTED, index, 1, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, 1);
     }
 
     @Override
     public T set(int index, T object) {
         T temp = super.set(index, object);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_CHANGED, index, 1, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, index, 1);
         return temp;
     }
 
     @Override
     public T remove(int index) {
         T temp = super.remove(index);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1);
         return temp;
     }
 
     @Override
     public void clear() {
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_REMOVED, 0, size(), systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, 0, size());
         super.clear();
     }
 
     @Override
     public boolean addAll(Collection collection) {
         boolean temp = super.addAll(collection);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_INSERTED, size() - 1, collection.size(), systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, size() - collection.size(), collection.size());
         return temp;
     }
 
     @Override
     public boolean addAll(int index, Collection collection) {
         boolean temp = super.addAll(index, collection);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_INSERTED, index, collection.size(), systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, collection.size());
         return temp;
     }
 
@@ -131,7 +160,7 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
     @Override
     public void removeRange(int fromIndex, int toIndex) {
         super.removeRange(fromIndex, toIndex);
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_REMOVED, fromIndex, toIndex - fromIndex, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, fromIndex, toIndex - fromIndex);
     }
 
     @Override
@@ -139,7 +168,7 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
         int index = super.indexOf(object);
         if (index != -1){
             boolean temp = super.remove(object);
-            updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1, systemTimeWrapper);
+            recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1);
             return temp;
         }else{
             return false;
@@ -148,9 +177,26 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
 
     @Override
     public boolean removeAll(Collection collection) {
+
+        if (!changeRecorder.isBatching()) {
+            boolean temp = super.removeAll(collection);
+            if (temp){
+                changeRecorder.recordFullUpdate();
+            }
+            return temp;
+        }
+
+        int[] removedRows = new int[size()];
+        int removedCount = 0;
+        for (int ii = 0; ii < size(); ii++) {
+            if (collection.contains(get(ii))) {
+                removedRows[removedCount++] = ii;
+            }
+        }
         boolean temp = super.removeAll(collection);
-        if (temp){
-            updateSpec = createFullUpdateSpec(systemTimeWrapper);
+        //from the end backwards, so that each position is still correct when it's applied
+        for (int ii = removedCount - 1; ii >= 0; ii--) {
+            recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, removedRows[ii], 1);
         }
         return temp;
     }
@@ -159,7 +205,7 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
     public void replaceAll(UnaryOperator<T> operator) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
             super.replaceAll(operator);
-            updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_CHANGED, 0, size(), systemTimeWrapper);
+            recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, 0, size());
         } else {
             throw new UnsupportedOperationException("Not supported by this class");
         }
@@ -177,7 +223,7 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
      * @param rowIndex index of the row that had its data changed
      */
     public void makeAwareOfDataChange(int rowIndex){
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_CHANGED, rowIndex, 1, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, rowIndex, 1);
     }
 
     /**
@@ -193,7 +239,39 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
      * @param rowsAffected how many rows have been affected
      */
     public void makeAwareOfDataChange(int rowStartIndex, int rowsAffected){
-        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_CHANGED, rowStartIndex, rowsAffected, systemTimeWrapper);
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, rowStartIndex, rowsAffected);
+    }
+
+    /**
+     * Moves a row, the way drag to reorder would
+     *
+     * @param fromIndex current index of the row
+     * @param toIndex index of the row once it has moved
+     */
+    public void move(int fromIndex, int toIndex){
+        moveRange(fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Moves a block of adjacent rows, keeping them in the same order
+     *
+     * @param fromIndex current index of the first row in the block
+     * @param toIndex index of the first row in the block once it has moved
+     * @param rowsAffected how many rows are in the block
+     */
+    public void moveRange(int fromIndex, int toIndex, int rowsAffected){
+        if (rowsAffected < 0 || fromIndex < 0 || fromIndex + rowsAffected > size()
+                || toIndex < 0 || toIndex + rowsAffected > size()) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex
+                    + " rowsAffected:" + rowsAffected + " size:" + size());
+        }
+        if (fromIndex == toIndex || rowsAffected == 0) {
+            return;
+        }
+        List<T> rows = new ArrayList<>(subList(fromIndex, fromIndex + rowsAffected));
+        super.removeRange(fromIndex, fromIndex + rowsAffected);
+        super.addAll(toIndex, rows);
+        recordChange(UpdateSpec.UpdateType.ITEM_MOVED, fromIndex, toIndex, rowsAffected);
     }
 
 
@@ -217,19 +295,15 @@ public class ChangeAwareArrayList<T> extends ArrayList<T> implements ChangeAware
      * @return the latest update spec for the list
      */
     public UpdateSpec getAndClearLatestUpdateSpec(long maxAgeMs){
+        return changeRecorder.getAndClearLatestUpdateSpec(maxAgeMs);
+    }
 
-        UpdateSpec latestUpdateSpecAvailable = updateSpec;
-        updateSpec = createFullUpdateSpec(systemTimeWrapper);
-
-        if (systemTimeWrapper.currentTimeMillis() - latestUpdateSpecAvailable.timeStamp < maxAgeMs) {
-            return latestUpdateSpecAvailable;
-        }else{
-            return updateSpec;
-        }
+    private void recordChange(UpdateSpec.UpdateType type, int rowPosition, int rowsEffected) {
+        changeRecorder.recordChange(type, rowPosition, rowsEffected);
     }
 
-    private UpdateSpec createFullUpdateSpec(SystemTimeWrapper stw){
-        return new UpdateSpec(UpdateSpec.UpdateType.FULL_UPDATE, 0, 0, stw);
+    private void recordChange(UpdateSpec.UpdateType type, int rowPosition, int toRowPosition, int rowsEffected) {
+        changeRecorder.recordChange(type, rowPosition, toRowPosition, rowsEffected);
     }
 
 }
@@ -0,0 +1,144 @@
+package co.early.fore.adapters.mutable;
+
+import java.util.Arrays;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * <p>A growable list of doubles (chart values for example) which keeps track of how it has
+ * changed, in the same way as {@link ChangeAwareArrayList}, so it can be handed straight to
+ * a {@link co.early.fore.adapters.NotifyableImp}.
+ *
+ * <p>The values are never boxed, get() returns a plain double.
+ */
+public class ChangeAwareDoubleList extends ChangeAwarePrimitiveList {
+
+    private double[] values;
+
+    public ChangeAwareDoubleList(SystemTimeWrapper systemTimeWrapper) {
+        this(DEFAULT_CAPACITY, systemTimeWrapper, false);
+    }
+
+    public ChangeAwareDoubleList(int capacity, SystemTimeWrapper systemTimeWrapper) {
+        this(capacity, systemTimeWrapper, false);
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareDoubleList(SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        this(DEFAULT_CAPACITY, systemTimeWrapper, batchUpdates);
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareDoubleList(int capacity, SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        super(systemTimeWrapper, batchUpdates);
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative, not:" + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    public double get(int index) {
+        checkIndex(index, size);
+        return values[index];
+    }
+
+    /**
+     * @return the value previously at index
+     */
+    public double set(int index, double value) {
+        checkIndex(index, size);
+        double previous = values[index];
+        values[index] = value;
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, index, 1);
+        return previous;
+    }
+
+    public void add(double value) {
+        add(size, value);
+    }
+
+    public void add(int index, double value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size);
+        }
+        openGap(index, 1);
+        values[index] = value;
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, 1);
+    }
+
+    public void addAll(double[] newValues) {
+        addAll(size, newValues);
+    }
+
+    public void addAll(int index, double[] newValues) {
+        Affirm.notNull(newValues);
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size);
+        }
+        openGap(index, newValues.length);
+        System.arraycopy(newValues, 0, values, index, newValues.length);
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, newValues.length);
+    }
+
+    /**
+     * @return the value that was removed
+     */
+    public double remove(int index) {
+        checkIndex(index, size);
+        double removed = values[index];
+        closeGap(index, 1);
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1);
+        return removed;
+    }
+
+    /**
+     * Values are compared the way Double.equals() compares them, so NaN can be found
+     * and 0.0 is not the same as -0.0
+     */
+    public int indexOf(double value) {
+        for (int ii = 0; ii < size; ii++) {
+            if (Double.doubleToLongBits(values[ii]) == Double.doubleToLongBits(value)) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(double value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return a copy of the values in the list
+     */
+    public double[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    Object values() {
+        return values;
+    }
+
+    @Override
+    void grow(int minCapacity) {
+        values = Arrays.copyOf(values, minCapacity);
+    }
+
+    @Override
+    Object newArray(int capacity) {
+        return new double[capacity];
+    }
+
+    @Override
+    int capacity() {
+        return values.length;
+    }
+}
@@ -3,8 +3,10 @@ package co.early.fore.adapters.mutable;
 import android.os.Build;
 import androidx.annotation.NonNull;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.function.UnaryOperator;
 
 import co.early.fore.core.Affirm;
@@ -49,6 +51,9 @@ import co.early.fore.core.time.SystemTimeWrapper;
  * <p>This class only supports one type of change at a time (you can't handle a cell update;
  * two removals; and three inserts, all in the same notify round trip - each has to be handled one at a time)
  *
+ * <p>get(index) on a linked list is O(n), and adapters call it for every row they bind. For long
+ * lists with lots of inserts in the middle, {@link ChangeAwareTreeList} is usually a better fit.
+ *
  */
 public class ChangeAwareLinkedList<T> extends LinkedList<T> implements ChangeAwareList<T>, Updateable {
 
@@ -190,6 +195,38 @@ public class ChangeAwareLinkedList<T> extends LinkedList<T> implements ChangeAwa
         updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_CHANGED, rowStartIndex, rowsAffected, systemTimeWrapper);
     }
 
+    /**
+     * Moves a row, the way drag to reorder would
+     *
+     * @param fromIndex current index of the row
+     * @param toIndex index of the row once it has moved
+     */
+    public void move(int fromIndex, int toIndex){
+        moveRange(fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Moves a block of adjacent rows, keeping them in the same order
+     *
+     * @param fromIndex current index of the first row in the block
+     * @param toIndex index of the first row in the block once it has moved
+     * @param rowsAffected how many rows are in the block
+     */
+    public void moveRange(int fromIndex, int toIndex, int rowsAffected){
+        if (rowsAffected < 0 || fromIndex < 0 || fromIndex + rowsAffected > size()
+                || toIndex < 0 || toIndex + rowsAffected > size()) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex
+                    + " rowsAffected:" + rowsAffected + " size:" + size());
+        }
+        if (fromIndex == toIndex || rowsAffected == 0) {
+            return;
+        }
+        List<T> rows = new ArrayList<>(subList(fromIndex, fromIndex + rowsAffected));
+        super.removeRange(fromIndex, fromIndex + rowsAffected);
+        super.addAll(toIndex, rows);
+        updateSpec = new UpdateSpec(UpdateSpec.UpdateType.ITEM_MOVED, fromIndex, toIndex, rowsAffected, systemTimeWrapper);
+    }
+
 
     /**
      * Make sure you understand the limitations of this method!
@@ -1,5 +1,6 @@
 package co.early.fore.adapters.mutable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public interface ChangeAwareList<E> extends List<E>, Updateable {
@@ -42,4 +43,43 @@ public interface ChangeAwareList<E> extends List<E>, Updateable {
      * @param toIndex index after last element to be removed
      */
     void removeRange(int fromIndex, int toIndex);
+
+    /**
+     * Moves a row, the way drag to reorder would
+     *
+     * @param fromIndex current index of the row
+     * @param toIndex index of the row once it has moved
+     */
+    default void move(int fromIndex, int toIndex) {
+        moveRange(fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Moves a block of adjacent rows, keeping them in the same order
+     * <p>
+     * The fore lists override this to record a single ITEM_MOVED. This default (for
+     * implementations written before moves were supported) removes the rows and adds them
+     * back, then marks every row between the old and new positions as changed, so that the
+     * updateSpec is correct even when only the last change is kept - you just get change
+     * animations rather than move animations
+     *
+     * @param fromIndex current index of the first row in the block
+     * @param toIndex index of the first row in the block once it has moved
+     * @param rowsAffected how many rows are in the block
+     */
+    default void moveRange(int fromIndex, int toIndex, int rowsAffected) {
+        if (rowsAffected < 0 || fromIndex < 0 || fromIndex + rowsAffected > size()
+                || toIndex < 0 || toIndex + rowsAffected > size()) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex
+                    + " rowsAffected:" + rowsAffected + " size:" + size());
+        }
+        if (fromIndex == toIndex || rowsAffected == 0) {
+            return;
+        }
+        List<E> rows = new ArrayList<>(subList(fromIndex, fromIndex + rowsAffected));
+        removeRange(fromIndex, fromIndex + rowsAffected);
+        addAll(toIndex, rows);
+        int firstRow = Math.min(fromIndex, toIndex);
+        makeAwareOfDataChange(firstRow, Math.max(fromIndex, toIndex) + rowsAffected - firstRow);
+    }
 }
@@ -0,0 +1,140 @@
+package co.early.fore.adapters.mutable;
+
+import java.util.Arrays;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * <p>A growable list of longs (timestamps for example) which keeps track of how it has
+ * changed, in the same way as {@link ChangeAwareArrayList}, so it can be handed straight to
+ * a {@link co.early.fore.adapters.NotifyableImp}.
+ *
+ * <p>The values are never boxed, get() returns a plain long.
+ */
+public class ChangeAwareLongList extends ChangeAwarePrimitiveList {
+
+    private long[] values;
+
+    public ChangeAwareLongList(SystemTimeWrapper systemTimeWrapper) {
+        this(DEFAULT_CAPACITY, systemTimeWrapper, false);
+    }
+
+    public ChangeAwareLongList(int capacity, SystemTimeWrapper systemTimeWrapper) {
+        this(capacity, systemTimeWrapper, false);
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareLongList(SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        this(DEFAULT_CAPACITY, systemTimeWrapper, batchUpdates);
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareLongList(int capacity, SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        super(systemTimeWrapper, batchUpdates);
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative, not:" + capacity);
+        }
+        this.values = new long[capacity];
+    }
+
+    public long get(int index) {
+        checkIndex(index, size);
+        return values[index];
+    }
+
+    /**
+     * @return the value previously at index
+     */
+    public long set(int index, long value) {
+        checkIndex(index, size);
+        long previous = values[index];
+        values[index] = value;
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, index, 1);
+        return previous;
+    }
+
+    public void add(long value) {
+        add(size, value);
+    }
+
+    public void add(int index, long value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size);
+        }
+        openGap(index, 1);
+        values[index] = value;
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, 1);
+    }
+
+    public void addAll(long[] newValues) {
+        addAll(size, newValues);
+    }
+
+    public void addAll(int index, long[] newValues) {
+        Affirm.notNull(newValues);
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size);
+        }
+        openGap(index, newValues.length);
+        System.arraycopy(newValues, 0, values, index, newValues.length);
+        recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, newValues.length);
+    }
+
+    /**
+     * @return the value that was removed
+     */
+    public long remove(int index) {
+        checkIndex(index, size);
+        long removed = values[index];
+        closeGap(index, 1);
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1);
+        return removed;
+    }
+
+    public int indexOf(long value) {
+        for (int ii = 0; ii < size; ii++) {
+            if (values[ii] == value) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(long value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * @return a copy of the values in the list
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    Object values() {
+        return values;
+    }
+
+    @Override
+    void grow(int minCapacity) {
+        values = Arrays.copyOf(values, minCapacity);
+    }
+
+    @Override
+    Object newArray(int capacity) {
+        return new long[capacity];
+    }
+
+    @Override
+    int capacity() {
+        return values.length;
+    }
+}
@@ -0,0 +1,179 @@
+package co.early.fore.adapters.mutable;
+
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * <p>Base class for the change aware lists of primitives ({@link ChangeAwareLongList},
+ * {@link ChangeAwareDoubleList}). The values are kept in a primitive array rather than boxed,
+ * which for long lists of numbers (chart data for instance) uses a fraction of the memory,
+ * and reading a row from onBindViewHolder() doesn't create any garbage.
+ *
+ * <p>Apart from that they behave the same way as {@link ChangeAwareArrayList}: each change
+ * made to the list generates an {@link UpdateSpec}, and constructed with batchUpdates = true
+ * they keep a log of every change made between notifications instead.
+ *
+ * <p>These aren't java.util.List implementations (that would mean boxing the values again).
+ * Subclasses supply the typed array, this class looks after the size, the row shuffling
+ * and the update specs.
+ */
+public abstract class ChangeAwarePrimitiveList implements Updateable {
+
+    public static final int MAX_BATCHED_OPERATIONS = ChangeAwareArrayList.MAX_BATCHED_OPERATIONS;
+
+    static final int DEFAULT_CAPACITY = 10;
+
+    private final ChangeRecorder changeRecorder;
+
+    int size;
+
+    ChangeAwarePrimitiveList(SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        this.changeRecorder = new ChangeRecorder(systemTimeWrapper, batchUpdates, MAX_BATCHED_OPERATIONS);
+    }
+
+    /**
+     * @return the array the values are kept in, which may be longer than size()
+     */
+    abstract Object values();
+
+    /**
+     * replace the array the values are kept in with a copy that has room for at least
+     * minCapacity values
+     */
+    abstract void grow(int minCapacity);
+
+    abstract Object newArray(int capacity);
+
+    abstract int capacity();
+
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, 0, size);
+        size = 0;
+    }
+
+    /**
+     * Removes the rows from fromIndex, inclusive, to toIndex, exclusive
+     *
+     * @param fromIndex index of first row to be removed
+     * @param toIndex index after last row to be removed
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex + " size:" + size);
+        }
+        closeGap(fromIndex, toIndex - fromIndex);
+        recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * Inform the list that the content of one of its rows has
+     * changed.
+     *
+     * Values set with set() are already tracked, this is for when
+     * something else that the row displays has changed
+     *
+     * @param rowIndex index of the row that had its data changed
+     */
+    public void makeAwareOfDataChange(int rowIndex){
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, rowIndex, 1);
+    }
+
+    /**
+     * Inform the list that the content of a range of its rows has
+     * changed.
+     *
+     * @param rowStartIndex index of the row that had its data changed
+     * @param rowsAffected how many rows have been affected
+     */
+    public void makeAwareOfDataChange(int rowStartIndex, int rowsAffected){
+        recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, rowStartIndex, rowsAffected);
+    }
+
+    /**
+     * Moves a row, the way drag to reorder would
+     *
+     * @param fromIndex current index of the row
+     * @param toIndex index of the row once it has moved
+     */
+    public void move(int fromIndex, int toIndex){
+        moveRange(fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Moves a block of adjacent rows, keeping them in the same order
+     *
+     * @param fromIndex current index of the first row in the block
+     * @param toIndex index of the first row in the block once it has moved
+     * @param rowsAffected how many rows are in the block
+     */
+    public void moveRange(int fromIndex, int toIndex, int rowsAffected){
+        if (rowsAffected < 0 || fromIndex < 0 || fromIndex + rowsAffected > size
+                || toIndex < 0 || toIndex + rowsAffected > size) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex
+                    + " rowsAffected:" + rowsAffected + " size:" + size);
+        }
+        if (fromIndex == toIndex || rowsAffected == 0) {
+            return;
+        }
+        Object values = values();
+        Object rows = newArray(rowsAffected);
+        System.arraycopy(values, fromIndex, rows, 0, rowsAffected);
+        if (fromIndex < toIndex) {
+            System.arraycopy(values, fromIndex + rowsAffected, values, fromIndex, toIndex - fromIndex);
+        } else {
+            System.arraycopy(values, toIndex, values, toIndex + rowsAffected, fromIndex - toIndex);
+        }
+        System.arraycopy(rows, 0, values, toIndex, rowsAffected);
+        recordChange(UpdateSpec.UpdateType.ITEM_MOVED, fromIndex, toIndex, rowsAffected);
+    }
+
+    /**
+     * See {@link ChangeAwareArrayList#getAndClearLatestUpdateSpec(long)}, the same
+     * limitations apply
+     *
+     * @return the latest update spec for the list
+     */
+    public UpdateSpec getAndClearLatestUpdateSpec(long maxAgeMs){
+        return changeRecorder.getAndClearLatestUpdateSpec(maxAgeMs);
+    }
+
+    /**
+     * Makes room for count rows at index, the new rows' values are whatever was there before
+     */
+    void openGap(int index, int count) {
+        if (size + count > capacity()) {
+            grow(Math.max(size + count, capacity() + (capacity() >> 1)));
+        }
+        Object values = values();
+        System.arraycopy(values, index, values, index + count, size - index);
+        size += count;
+    }
+
+    void closeGap(int index, int count) {
+        Object values = values();
+        System.arraycopy(values, index + count, values, index, size - index - count);
+        size -= count;
+    }
+
+    void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size);
+        }
+    }
+
+    void recordChange(UpdateSpec.UpdateType type, int rowPosition, int rowsEffected) {
+        changeRecorder.recordChange(type, rowPosition, rowsEffected);
+    }
+
+    private void recordChange(UpdateSpec.UpdateType type, int rowPosition, int toRowPosition, int rowsEffected) {
+        changeRecorder.recordChange(type, rowPosition, toRowPosition, rowsEffected);
+    }
+}
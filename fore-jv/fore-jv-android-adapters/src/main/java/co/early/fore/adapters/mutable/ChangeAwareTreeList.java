@@ -0,0 +1,240 @@
+package co.early.fore.adapters.mutable;
+
+import androidx.annotation.NonNull;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
+
+import co.early.fore.adapters.immutable.PersistentList;
+import co.early.fore.core.Affirm;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * <p>A change aware list for long lists that get a lot of inserts and removes in the middle,
+ * which is what {@link ChangeAwareLinkedList} is usually picked for. The trouble with a
+ * LinkedList is that an adapter calls get(position) for every row it binds, and on a
+ * LinkedList that walks the list, so scrolling through a 10k row list does millions of
+ * node hops.
+ *
+ * <p>This list keeps its items in a B+ tree (the same one that {@link PersistentList} uses)
+ * so get(), set(), add(index, item) and remove(index) are all O(log n), wherever they happen
+ * in the list.
+ *
+ * <p>Change tracking works exactly as it does for {@link ChangeAwareArrayList}, including
+ * the batchUpdates option.
+ */
+public class ChangeAwareTreeList<T> extends AbstractList<T> implements ChangeAwareList<T>, RandomAccess, Updateable {
+
+    public static final int MAX_BATCHED_OPERATIONS = ChangeAwareArrayList.MAX_BATCHED_OPERATIONS;
+
+    private final PersistentList.Transient<T> items = PersistentList.<T>empty().asTransient();
+    private final ChangeRecorder changeRecorder;
+
+    public ChangeAwareTreeList(SystemTimeWrapper systemTimeWrapper) {
+        this(systemTimeWrapper, false);
+    }
+
+    public ChangeAwareTreeList(@NonNull Collection<? extends T> c, SystemTimeWrapper systemTimeWrapper) {
+        this.changeRecorder = new ChangeRecorder(systemTimeWrapper, false, MAX_BATCHED_OPERATIONS);
+        items.addAll(Affirm.notNull(c));
+    }
+
+    /**
+     * @param batchUpdates true to record every change made between notifications rather than
+     *                     just the most recent one
+     */
+    public ChangeAwareTreeList(SystemTimeWrapper systemTimeWrapper, boolean batchUpdates) {
+        this.changeRecorder = new ChangeRecorder(systemTimeWrapper, batchUpdates, MAX_BATCHED_OPERATIONS);
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public T set(int index, T object) {
+        T temp = items.set(index, object);
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, index, 1);
+        return temp;
+    }
+
+    @Override
+    public void add(int index, T object) {
+        items.add(index, object);
+        modCount++;
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, 1);
+    }
+
+    @Override
+    public T remove(int index) {
+        T temp = items.remove(index);
+        modCount++;
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, index, 1);
+        return temp;
+    }
+
+    @Override
+    public void clear() {
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, 0, size());
+        items.clear();
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends T> collection) {
+        return addAll(size(), collection);
+    }
+
+    @Override
+    public boolean addAll(int index, Collection<? extends T> collection) {
+        if (index < 0 || index > size()) {
+            throw new IndexOutOfBoundsException("index:" + index + " size:" + size());
+        }
+        int position = index;
+        for (T item : collection) {
+            items.add(position++, item);
+        }
+        modCount++;
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_INSERTED, index, collection.size());
+        return !collection.isEmpty();
+    }
+
+    /**
+     * Standard AbstractList and ArrayList have this method protected as you
+     * are supposed to remove a range by doing this:
+     * list.subList(start, end).clear();
+     * (clear() ends up calling removeRange() behind the scenes).
+     * This won't work for these change aware lists (plus it's a ball ache),
+     * so this gets made public
+     */
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex + " size:" + size());
+        }
+        for (int ii = toIndex - 1; ii >= fromIndex; ii--) {
+            items.remove(ii);
+        }
+        modCount++;
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, fromIndex, toIndex - fromIndex);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> collection) {
+        boolean removed = false;
+        //from the end backwards, so that each position is still correct when it's applied
+        for (int ii = size() - 1; ii >= 0; ii--) {
+            if (collection.contains(items.get(ii))) {
+                items.remove(ii);
+                removed = true;
+                if (changeRecorder.isBatching()) {
+                    changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_REMOVED, ii, 1);
+                }
+            }
+        }
+        if (removed) {
+            modCount++;
+            if (!changeRecorder.isBatching()) {
+                changeRecorder.recordFullUpdate();
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<T> operator) {
+        Affirm.notNull(operator);
+        for (int ii = 0; ii < size(); ii++) {
+            items.set(ii, operator.apply(items.get(ii)));
+        }
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, 0, size());
+    }
+
+    /**
+     * Inform the list that the content of one of its rows has
+     * changed.
+     *
+     * Without calling this, the list may not be aware of
+     * any changes made to this row and the updateSpec will
+     * be incorrect as a result (you won't get default
+     * animations on your recyclerview)
+     *
+     * @param rowIndex index of the row that had its data changed
+     */
+    public void makeAwareOfDataChange(int rowIndex){
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, rowIndex, 1);
+    }
+
+    /**
+     * Inform the list that the content of a range of its rows has
+     * changed.
+     *
+     * Without calling this, the list will not be aware of
+     * any changes made to these rows and the updateSpec will
+     * be incorrect as a result (you won't get default
+     * animations on your recyclerview)
+     *
+     * @param rowStartIndex index of the row that had its data changed
+     * @param rowsAffected how many rows have been affected
+     */
+    public void makeAwareOfDataChange(int rowStartIndex, int rowsAffected){
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_CHANGED, rowStartIndex, rowsAffected);
+    }
+
+    /**
+     * Moves a row, the way drag to reorder would
+     *
+     * @param fromIndex current index of the row
+     * @param toIndex index of the row once it has moved
+     */
+    public void move(int fromIndex, int toIndex){
+        moveRange(fromIndex, toIndex, 1);
+    }
+
+    /**
+     * Moves a block of adjacent rows, keeping them in the same order
+     *
+     * @param fromIndex current index of the first row in the block
+     * @param toIndex index of the first row in the block once it has moved
+     * @param rowsAffected how many rows are in the block
+     */
+    public void moveRange(int fromIndex, int toIndex, int rowsAffected){
+        if (rowsAffected < 0 || fromIndex < 0 || fromIndex + rowsAffected > size()
+                || toIndex < 0 || toIndex + rowsAffected > size()) {
+            throw new IndexOutOfBoundsException("fromIndex:" + fromIndex + " toIndex:" + toIndex
+                    + " rowsAffected:" + rowsAffected + " size:" + size());
+        }
+        if (fromIndex == toIndex || rowsAffected == 0) {
+            return;
+        }
+        List<T> rows = new ArrayList<>(rowsAffected);
+        for (int ii = 0; ii < rowsAffected; ii++) {
+            rows.add(items.remove(fromIndex));
+        }
+        for (int ii = 0; ii < rowsAffected; ii++) {
+            items.add(toIndex + ii, rows.get(ii));
+        }
+        modCount++;
+        changeRecorder.recordChange(UpdateSpec.UpdateType.ITEM_MOVED, fromIndex, toIndex, rowsAffected);
+    }
+
+    /**
+     * See {@link ChangeAwareArrayList#getAndClearLatestUpdateSpec(long)}, the same
+     * limitations apply
+     *
+     * @return the latest update spec for the list
+     */
+    public UpdateSpec getAndClearLatestUpdateSpec(long maxAgeMs){
+        return changeRecorder.getAndClearLatestUpdateSpec(maxAgeMs);
+    }
+}
@@ -0,0 +1,119 @@
+package co.early.fore.adapters.mutable;
+
+import co.early.fore.adapters.immutable.ListDiff;
+import co.early.fore.core.Affirm;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * Keeps track of the changes made to one of the ChangeAware* lists and turns them in to
+ * {@link UpdateSpec}s, either just the most recent change, or with batchUpdates on, every
+ * change made since the last time {@link #getAndClearLatestUpdateSpec(long)} was called
+ */
+class ChangeRecorder {
+
+    private final SystemTimeWrapper systemTimeWrapper;
+    private final boolean batchUpdates;
+    private final int maxBatchedOperations;
+    private UpdateSpec updateSpec;
+    private ListDiff.Builder batchedChanges;
+    private long batchedChangesTimeStamp;
+    private boolean fullUpdatePending;
+
+    ChangeRecorder(SystemTimeWrapper systemTimeWrapper, boolean batchUpdates, int maxBatchedOperations) {
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+        this.batchUpdates = batchUpdates;
+        this.maxBatchedOperations = maxBatchedOperations;
+        updateSpec = createFullUpdateSpec();
+    }
+
+    boolean isBatching() {
+        return batchUpdates;
+    }
+
+    void recordChange(UpdateSpec.UpdateType type, int rowPosition, int rowsEffected) {
+        recordChange(type, rowPosition, rowPosition, rowsEffected);
+    }
+
+    void recordChange(UpdateSpec.UpdateType type, int rowPosition, int toRowPosition, int rowsEffected) {
+
+        if (!batchUpdates) {
+            updateSpec = new UpdateSpec(type, rowPosition, toRowPosition, rowsEffected, systemTimeWrapper);
+            return;
+        }
+
+        batchedChangesTimeStamp = systemTimeWrapper.currentTimeMillis();
+        if (fullUpdatePending) {
+            return;
+        }
+        if (batchedChanges == null) {
+            batchedChanges = new ListDiff.Builder();
+        }
+
+        if (rowsEffected == 0 || batchedChanges.getOperationCount() > maxBatchedOperations) {
+            return;
+        }
+
+        switch (type) {
+            case ITEM_CHANGED:
+                batchedChanges.changed(rowPosition, rowsEffected);
+                break;
+            case ITEM_INSERTED:
+                batchedChanges.inserted(rowPosition, rowsEffected);
+                break;
+            case ITEM_REMOVED:
+                batchedChanges.removed(rowPosition, rowsEffected);
+                break;
+            case ITEM_MOVED:
+                batchedChanges.moved(rowPosition, toRowPosition, rowsEffected);
+                break;
+        }
+    }
+
+    /**
+     * the next update spec will be a FULL_UPDATE, whatever has been recorded so far
+     */
+    void recordFullUpdate() {
+        if (batchUpdates) {
+            fullUpdatePending = true;
+            batchedChanges = null;
+            batchedChangesTimeStamp = systemTimeWrapper.currentTimeMillis();
+        } else {
+            updateSpec = createFullUpdateSpec();
+        }
+    }
+
+    UpdateSpec getAndClearLatestUpdateSpec(long maxAgeMs){
+
+        if (batchUpdates) {
+            return getAndClearBatchedUpdateSpec(maxAgeMs);
+        }
+
+        UpdateSpec latestUpdateSpecAvailable = updateSpec;
+        updateSpec = createFullUpdateSpec();
+
+        if (systemTimeWrapper.currentTimeMillis() - latestUpdateSpecAvailable.timeStamp < maxAgeMs) {
+            return latestUpdateSpecAvailable;
+        }else{
+            return updateSpec;
+        }
+    }
+
+    private UpdateSpec getAndClearBatchedUpdateSpec(long maxAgeMs){
+
+        ListDiff.Builder changes = batchedChanges;
+        batchedChanges = null;
+        fullUpdatePending = false;
+
+        if (changes == null
+                || changes.getOperationCount() > maxBatchedOperations
+                || systemTimeWrapper.currentTimeMillis() - batchedChangesTimeStamp >= maxAgeMs) {
+            return createFullUpdateSpec();
+        } else {
+            return new UpdateSpec(changes.build(), batchedChangesTimeStamp);
+        }
+    }
+
+    private UpdateSpec createFullUpdateSpec(){
+        return new UpdateSpec(UpdateSpec.UpdateType.FULL_UPDATE, 0, 0, systemTimeWrapper);
+    }
+}
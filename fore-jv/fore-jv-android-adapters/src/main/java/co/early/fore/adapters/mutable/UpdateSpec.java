@@ -1,11 +1,12 @@
 package co.early.fore.adapters.mutable;
 
+import co.early.fore.adapters.immutable.ListDiff;
 import co.early.fore.core.time.SystemTimeWrapper;
 
 /**
- * Indicates what was the most recent change in a list, helps the ChangeAware* classes
- * call the correct notify* method for android adapters to take advantage of built in
- * list animations
+ * Indicates what was the most recent change in a list (or with batching turned on, all the
+ * changes since the last update), helps the ChangeAware* classes call the correct notify*
+ * method for android adapters to take advantage of built in list animations
  */
 public class UpdateSpec {
 
@@ -13,19 +14,44 @@ public class UpdateSpec {
         FULL_UPDATE,
         ITEM_CHANGED,
         ITEM_INSERTED,
-        ITEM_REMOVED
+        ITEM_REMOVED,
+        ITEM_MOVED,
+        BATCHED
     }
 
     public final UpdateType type;
     public final int rowPosition;
     public final int rowsEffected;
+    /**
+     * only meaningful for ITEM_MOVED updates: where rowPosition has moved to
+     */
+    public final int toRowPosition;
     public final long timeStamp;
+    /**
+     * only set for BATCHED updates: all the changes made since the last update, in order
+     */
+    public final ListDiff changes;
 
     public UpdateSpec(UpdateType type, int rowPosition, int rowsEffected, SystemTimeWrapper systemTimeWrapper) {
+        this(type, rowPosition, rowPosition, rowsEffected, systemTimeWrapper);
+    }
+
+    public UpdateSpec(UpdateType type, int rowPosition, int toRowPosition, int rowsEffected, SystemTimeWrapper systemTimeWrapper) {
         this.type = notNull(type);
         this.rowPosition = rowPosition;
+        this.toRowPosition = toRowPosition;
         this.rowsEffected = rowsEffected;
         this.timeStamp = notNull(systemTimeWrapper).currentTimeMillis();
+        this.changes = null;
+    }
+
+    public UpdateSpec(ListDiff changes, long timeStamp) {
+        this.type = UpdateType.BATCHED;
+        this.rowPosition = 0;
+        this.toRowPosition = 0;
+        this.rowsEffected = 0;
+        this.timeStamp = timeStamp;
+        this.changes = notNull(changes);
     }
 
     private <T> T notNull(T param) {
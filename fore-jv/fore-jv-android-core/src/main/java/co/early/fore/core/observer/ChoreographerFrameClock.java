@@ -0,0 +1,57 @@
+package co.early.fore.core.observer;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+/**
+ * Drives a {@link FrameScheduler} from the UI thread's Choreographer, so that
+ * frame callbacks line up with vsync
+ */
+public class ChoreographerFrameClock implements FrameScheduler.FrameClock {
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    // a FrameScheduler passes the same onFrame every time, so in practice this is only
+    // created once rather than once per frame
+    private volatile BoundFrameCallback boundFrameCallback;
+
+    @Override
+    public void postFrameCallback(Runnable onFrame) {
+
+        BoundFrameCallback callback = boundFrameCallback;
+        if (callback == null || callback.onFrame != onFrame) {
+            callback = new BoundFrameCallback(onFrame);
+            boundFrameCallback = callback;
+        }
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            callback.run();
+        } else {
+            // Choreographer instances are per looper, we always want the UI thread's one
+            handler.post(callback);
+        }
+    }
+
+    private static final class BoundFrameCallback implements Choreographer.FrameCallback, Runnable {
+
+        private final Runnable onFrame;
+
+        BoundFrameCallback(Runnable onFrame) {
+            this.onFrame = onFrame;
+        }
+
+        /**
+         * posts this to the Choreographer, must be run on the UI thread
+         */
+        @Override
+        public void run() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onFrame.run();
+        }
+    }
+}
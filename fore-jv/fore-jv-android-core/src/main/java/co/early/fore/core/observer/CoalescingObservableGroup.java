@@ -0,0 +1,95 @@
+package co.early.fore.core.observer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.logging.Logger;
+
+/**
+ * Like ObservableGroupImp, except that observers added here are not added to each of the
+ * observables in the group. Instead the group registers a single observer of its own with each
+ * observable and marks itself dirty whenever one of them changes. Observers of the group are
+ * then notified once (on the UI thread) for the whole wave of changes, however many of the
+ * observables changed before the UI thread got around to it.
+ * <p>
+ * The group only observes its observables while it has observers itself.
+ * <p>
+ * If the group is constructed with SYNCHRONOUS, its observers are notified directly each time
+ * any of the observables changes (as with ObservableGroupImp), which is usually what you want
+ * for tests.
+ */
+public class CoalescingObservableGroup implements ObservableGroup {
+
+    private final List<Observable> observablesList;
+    private final ObservableImp groupObservable;
+    private final Observer memberObserver;
+    private final Object registrationLock = new Object();
+
+    /**
+     * @param workMode        ASYNCHRONOUS for app code, SYNCHRONOUS for tests
+     * @param logger          for warnings
+     * @param observablesList the observables to be treated as one
+     */
+    public CoalescingObservableGroup(WorkMode workMode, Logger logger, Observable... observablesList) {
+        this(new ObservableImp(workMode, logger, DispatchMode.COALESCED), observablesList);
+    }
+
+    /**
+     * As above, but the group's observers will be notified at the start of the frame after
+     * the observables changed, see {@link DispatchMode#FRAME_ALIGNED}
+     */
+    public CoalescingObservableGroup(WorkMode workMode, Logger logger, FrameScheduler frameScheduler, Observable... observablesList) {
+        this(new ObservableImp(workMode, logger, frameScheduler), observablesList);
+    }
+
+    private CoalescingObservableGroup(ObservableImp groupObservable, Observable... observablesList) {
+        this.observablesList = Arrays.asList(Affirm.notNull(observablesList));
+        this.groupObservable = groupObservable;
+        this.memberObserver = groupObservable::notifyObservers;
+        checkObservables();
+    }
+
+    @Override
+    public void addObserver(Observer observer) {
+        synchronized (registrationLock) {
+            boolean firstObserver = !groupObservable.hasObservers();
+            groupObservable.addObserver(observer);
+            if (firstObserver) {
+                for (Observable observable : observablesList) {
+                    observable.addObserver(memberObserver);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeObserver(Observer observer) {
+        synchronized (registrationLock) {
+            boolean hadObservers = groupObservable.hasObservers();
+            groupObservable.removeObserver(observer);
+            if (hadObservers && !groupObservable.hasObservers()) {
+                for (Observable observable : observablesList) {
+                    observable.removeObserver(memberObserver);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return how many changes to the observables were absorbed by an already pending
+     * notification of this group's observers
+     */
+    public long getCoalescedNotificationCount() {
+        return groupObservable.getCoalescedNotificationCount();
+    }
+
+    private void checkObservables() {
+        for (Observable observable : observablesList) {
+            if (observable == null) {
+                throw new RuntimeException("ObservableGroup has been instantiated with at least one null observable");
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package co.early.fore.core.observer;
+
+/**
+ * How an ASYNCHRONOUS {@link ObservableImp} delivers its notifications to the UI thread.
+ * (SYNCHRONOUS observables always notify directly, on the calling thread, whatever is set here)
+ */
+public enum DispatchMode {
+
+    /**
+     * The default: if notifyObservers() is called on the UI thread the observers are called
+     * immediately, otherwise each observer is posted to the UI thread, once per call
+     */
+    IMMEDIATE,
+
+    /**
+     * Every call to notifyObservers() made before the UI thread gets around to running the
+     * pending notification is collapsed in to that one pending notification. Observers are
+     * always called on a later pass of the UI thread, even when notifyObservers() was called
+     * on the UI thread, so don't use this for observables that back android adapters
+     */
+    COALESCED,
+
+    /**
+     * Like COALESCED, but the pending notification is held back until the start of the next
+     * frame, at which point every FRAME_ALIGNED observable that has something pending is
+     * notified in the same pass. An observer that is registered with more than one of those
+     * observables (via an ObservableGroup for example) is only called once in that pass, so a
+     * screen driven by many observables is synced at most once per frame. Also not for
+     * observables that back android adapters
+     */
+    FRAME_ALIGNED
+}
@@ -3,11 +3,16 @@ package co.early.fore.core.observer;
 import android.os.Handler;
 import android.os.Looper;
 
-import java.util.ArrayList;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import co.early.fore.core.Affirm;
 import co.early.fore.core.WorkMode;
 import co.early.fore.core.logging.Logger;
+import co.early.fore.core.threading.CancellationToken;
 
 public class ObservableImp implements Observable{
 
@@ -16,6 +21,21 @@ public class ObservableImp implements Observable{
     private final WorkMode notificationMode;
     private final Logger logger;
     private final Handler handler;
+    private final DispatchMode dispatchMode;
+    private final FrameScheduler frameScheduler;
+    private final boolean weakObservers;
+
+    // only used with DispatchMode.COALESCED and FRAME_ALIGNED
+    private final AtomicBoolean dispatchPending = new AtomicBoolean(false);
+    private final Runnable pendingDispatch = this::dispatchPendingNotification;
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    // only used with weakObservers
+    private final AtomicLong purgedCount = new AtomicLong();
+
+    // only used once cancelledWhenUnobserved() has been called
+    private final AtomicReference<CancellationToken> unobservedToken = new AtomicReference<>();
 
 
     /**
@@ -34,6 +54,9 @@ public class ObservableImp implements Observable{
         this.notificationMode = Affirm.notNull(notificationMode);
         this.logger = null;
         this.handler = handler(notificationMode);
+        this.dispatchMode = DispatchMode.IMMEDIATE;
+        this.frameScheduler = null;
+        this.weakObservers = false;
     }
 
 
@@ -52,24 +75,100 @@ public class ObservableImp implements Observable{
      * @param logger           If you want to be told about warnings, pass an implementation of Logger here (recommended)
      */
     public ObservableImp(WorkMode notificationMode, Logger logger) {
+        this(notificationMode, logger, DispatchMode.IMMEDIATE);
+    }
+
+
+    /**
+     * @param notificationMode see {@link #ObservableImp(WorkMode, Logger)}
+     *
+     * @param logger           If you want to be told about warnings, pass an implementation of Logger here (recommended)
+     *
+     * @param dispatchMode     How notifications are delivered to the UI thread when notificationMode is
+     *                         ASYNCHRONOUS. COALESCED will collapse a burst of notifyObservers() calls in to
+     *                         a single notification, FRAME_ALIGNED will also wait for the next frame,
+     *                         see {@link DispatchMode}
+     */
+    public ObservableImp(WorkMode notificationMode, Logger logger, DispatchMode dispatchMode) {
+        this(notificationMode, logger, dispatchMode, false);
+    }
+
+
+    /**
+     * @param notificationMode see {@link #ObservableImp(WorkMode, Logger)}
+     *
+     * @param logger           If you want to be told about warnings, pass an implementation of Logger here (recommended)
+     *
+     * @param dispatchMode     see {@link #ObservableImp(WorkMode, Logger, DispatchMode)}
+     *
+     * @param weakObservers    If true, observers are only weakly referenced by this Observable. An
+     *                         observer that was never removed is then dropped once it has been garbage
+     *                         collected, rather than leaking and being notified forever. Whatever added
+     *                         the observer must keep its own reference to it (e.g. as a field) for as long
+     *                         as it wants notifications: an observer lambda that is only referenced by
+     *                         this Observable can be collected at any time.
+     *                         See {@link #getPurgedObserverCount()}
+     */
+    public ObservableImp(WorkMode notificationMode, Logger logger, DispatchMode dispatchMode, boolean weakObservers) {
+        this.notificationMode = Affirm.notNull(notificationMode);
+        this.logger = Affirm.notNull(logger);
+        this.handler = handler(notificationMode);
+        this.dispatchMode = Affirm.notNull(dispatchMode);
+        this.frameScheduler = frameScheduler(notificationMode, dispatchMode);
+        this.weakObservers = weakObservers;
+    }
+
+
+    /**
+     * DispatchMode.FRAME_ALIGNED, but with frames driven by the frameScheduler passed in here
+     * rather than by the UI thread's Choreographer (mainly useful for tests)
+     *
+     * @param notificationMode see {@link #ObservableImp(WorkMode, Logger)}
+     *
+     * @param logger           If you want to be told about warnings, pass an implementation of Logger here (recommended)
+     *
+     * @param frameScheduler   Observables which share a frameScheduler will all be notified in the same frame pass
+     */
+    public ObservableImp(WorkMode notificationMode, Logger logger, FrameScheduler frameScheduler) {
         this.notificationMode = Affirm.notNull(notificationMode);
         this.logger = Affirm.notNull(logger);
         this.handler = handler(notificationMode);
+        this.dispatchMode = DispatchMode.FRAME_ALIGNED;
+        this.frameScheduler = Affirm.notNull(frameScheduler);
+        this.weakObservers = false;
     }
 
 
-    private final ArrayList<Observer> observerList = new ArrayList<Observer>();
+    private static final ObserverEntry[] NO_OBSERVERS = new ObserverEntry[0];
+
+    // copy-on-write: add/remove publish a brand new array, notifyObservers() just iterates
+    // whichever array was current when it started, so notifications never take a lock.
+    // Each entry is created once (in addObserver) and doubles as the Runnable that gets posted
+    // to the UI thread, so notifying allocates nothing while the observers stay the same
+    private final AtomicReference<ObserverEntry[]> observers = new AtomicReference<>(NO_OBSERVERS);
 
     /**
      * Take the observer and add it to the list of registered observers that
      * want to be notified when the model data changes.
      */
-    public synchronized void addObserver(Observer observer) {
+    public void addObserver(Observer observer) {
+
+        final ObserverEntry entry = new ObserverEntry(Affirm.notNull(observer), weakObservers);
 
-        observerList.add(Affirm.notNull(observer));
+        ObserverEntry[] current;
+        ObserverEntry[] updated;
+        do {
+            current = observers.get();
+            updated = copyLiveEntries(current, 1);
+            updated[updated.length - 1] = entry;
+        } while (!observers.compareAndSet(current, updated));
+
+        if (updated.length < current.length + 1) {
+            purgedCount.addAndGet(current.length + 1 - updated.length);
+        }
 
-        if (observerList.size() > 2 && logger != null) {
-            logger.w(TAG, "There are now:" + observerList.size() + " Observers added to this Observable, that's quite a lot.\n" +
+        if (updated.length > 2 && logger != null) {
+            logger.w(TAG, "There are now:" + updated.length + " Observers added to this Observable, that's quite a lot.\n" +
                     "It's sometimes indicative of code which is not removing observers when it should\n" +
                     "(forgetting to remove observers in an onPause() or onDetachedFromWindow() method for example)\n" +
                     "Failing to remove observers when you no longer need them will cause memory leaks");
@@ -80,12 +179,31 @@ public class ObservableImp implements Observable{
     /**
      * Remove the observer from the list of registered observers, you should do this
      * from android lifecycle methods like onPause() to prevent memory leaks
+     * <p>
+     * A notification that is already in progress on another thread may still reach
+     * this observer one last time
      *
      * @param observer the observer that is no longer interested in receiving updates
      *                 from the model when its data changes
      */
-    public synchronized void removeObserver(Observer observer) {
-        observerList.remove(Affirm.notNull(observer));
+    public void removeObserver(Observer observer) {
+
+        Affirm.notNull(observer);
+
+        ObserverEntry[] current;
+        ObserverEntry[] updated;
+        do {
+            current = observers.get();
+            int index = indexOf(current, observer);
+            if (index == -1) {
+                return;
+            }
+            updated = new ObserverEntry[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!observers.compareAndSet(current, updated));
+
+        cancelIfUnobserved();
     }
 
 
@@ -107,26 +225,172 @@ public class ObservableImp implements Observable{
      * WorkMode.
      * Synchronizing any list updates is not enough, Android will call Adapter.count() and
      * Adapter.get() on the UI thread and you cannot change the adapter's size between these calls.
+     * <p>
+     * If the Observable has been constructed with DispatchMode.COALESCED (and ASYNCHRONOUS) then
+     * the observers will always be called later on the UI thread, and only once however many times
+     * this method gets called before that happens. DispatchMode.FRAME_ALIGNED is the same except
+     * that the notification happens at the start of the next frame
      */
-    public synchronized void notifyObservers() {
+    public void notifyObservers() {
 
-        for (final Observer observer : observerList) {
+        final NotificationTiming timing = NotificationTiming.installed();
+        if (timing != null) {
+            timing.notified(this);
+        }
 
-            //don't post to UI thread if we are already on it as this can cause problems with android adapters
-            if (notificationMode == WorkMode.SYNCHRONOUS || Looper.myLooper() == Looper.getMainLooper()) {
-                doNotification(observer);
+        if (dispatchMode != DispatchMode.IMMEDIATE && notificationMode == WorkMode.ASYNCHRONOUS) {
+            if (dispatchPending.compareAndSet(false, true)) {
+                if (dispatchMode == DispatchMode.FRAME_ALIGNED) {
+                    frameScheduler.schedule(pendingDispatch);
+                } else {
+                    handler.post(pendingDispatch);
+                }
             } else {
-                // post notifications to UI thread (so that no special work needs to be done by observers to update UI)
-                handler.post(() -> doNotification(observer));
+                coalescedCount.incrementAndGet();
+            }
+            return;
+        }
+
+        final ObserverEntry[] snapshot = observers.get();
+        boolean clearedFound = false;
+
+        //don't post to UI thread if we are already on it as this can cause problems with android adapters
+        if (notificationMode == WorkMode.SYNCHRONOUS || Looper.myLooper() == Looper.getMainLooper()) {
+            for (int ii = 0; ii < snapshot.length; ii++) {
+                Observer observer = snapshot[ii].get();
+                if (observer != null) {
+                    doNotification(observer);
+                } else {
+                    clearedFound = true;
+                }
+            }
+        } else {
+            // post notifications to UI thread (so that no special work needs to be done by observers to update UI)
+            for (int ii = 0; ii < snapshot.length; ii++) {
+                if (snapshot[ii].get() != null) {
+                    handler.post(snapshot[ii]);
+                } else {
+                    clearedFound = true;
+                }
             }
         }
+
+        if (clearedFound) {
+            purgeClearedEntries();
+        }
     }
 
     public boolean hasObservers(){
-        return (observerList.size()>0);
+        final ObserverEntry[] snapshot = observers.get();
+        for (int ii = 0; ii < snapshot.length; ii++) {
+            if (snapshot[ii].get() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * For work that is only worth finishing while something is observing this Observable
+     * (e.g. loading data for a screen): pass the token to the work (see
+     * {@link co.early.fore.core.threading.AsyncBuilder#cancellationToken(CancellationToken)}) and
+     * it will be cancelled as soon as the last observer is removed, e.g. when the user navigates
+     * away from the screen before the data has arrived.
+     * <p>
+     * The same token is returned until that happens, after which a new one is created. If there
+     * are no observers when this is called, the token is cancelled after the next observer to be
+     * added has been removed again
+     *
+     * @return a token that will be cancelled once this Observable has no observers
+     */
+    public CancellationToken cancelledWhenUnobserved() {
+        CancellationToken token = unobservedToken.get();
+        while (token == null) {
+            unobservedToken.compareAndSet(null, new CancellationToken());
+            token = unobservedToken.get();
+        }
+        return token;
+    }
+
+    /**
+     * @return how many notifications have actually been delivered to the observers by
+     * a DispatchMode.COALESCED or FRAME_ALIGNED observable
+     */
+    public long getDispatchedNotificationCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * @return how many calls to notifyObservers() were absorbed by an already pending
+     * notification (always 0 for DispatchMode.IMMEDIATE)
+     */
+    public long getCoalescedNotificationCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return how many weakly held observers have been garbage collected without ever being
+     * removed, and were dropped by this Observable as a result (always 0 unless constructed
+     * with weakObservers). Anything above 0 means some code is forgetting to call removeObserver()
+     */
+    public long getPurgedObserverCount() {
+        return purgedCount.get();
+    }
+
+    private void dispatchPendingNotification() {
+
+        // cleared first, so that anything calling notifyObservers() from now on
+        // (including the observers themselves) gets a fresh dispatch
+        dispatchPending.set(false);
+        dispatchedCount.incrementAndGet();
+
+        final ObserverEntry[] snapshot = observers.get();
+        boolean clearedFound = false;
+
+        for (int ii = 0; ii < snapshot.length; ii++) {
+            Observer observer = snapshot[ii].get();
+            if (observer == null) {
+                clearedFound = true;
+            } else if (frameScheduler == null || frameScheduler.markNotifiedThisFrame(observer)) {
+                doNotification(observer);
+            }
+        }
+
+        if (clearedFound) {
+            purgeClearedEntries();
+        }
+    }
+
+    private void purgeClearedEntries() {
+
+        ObserverEntry[] current;
+        ObserverEntry[] updated;
+        do {
+            current = observers.get();
+            updated = copyLiveEntries(current, 0);
+            if (updated == current) {
+                return;
+            }
+        } while (!observers.compareAndSet(current, updated));
+
+        purgedCount.addAndGet(current.length - updated.length);
+        cancelIfUnobserved();
+    }
+
+    private void cancelIfUnobserved() {
+        if (unobservedToken.get() != null && !hasObservers()) {
+            CancellationToken token = unobservedToken.getAndSet(null);
+            if (token != null) {
+                token.cancel();
+            }
+        }
     }
 
     private void doNotification(Observer observer) {
+
+        final NotificationTiming timing = NotificationTiming.installed();
+        final long startNanos = (timing != null) ? timing.startTiming() : 0;
+
         try {
             observer.somethingChanged();
         } catch (Exception e) {
@@ -152,9 +416,83 @@ public class ObservableImp implements Observable{
 
             throw e;
         }
+
+        if (timing != null) {
+            timing.stopTiming(this, observer, startNanos);
+        }
+    }
+
+    private static int indexOf(ObserverEntry[] observerArray, Observer observer) {
+        for (int ii = 0; ii < observerArray.length; ii++) {
+            if (observer.equals(observerArray[ii].get())) {
+                return ii;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a copy of entries without any that have been garbage collected, with extraSlots
+     * empty slots on the end (or entries itself, when there are no extra slots and nothing to drop)
+     */
+    private static ObserverEntry[] copyLiveEntries(ObserverEntry[] entries, int extraSlots) {
+
+        ObserverEntry[] copy = new ObserverEntry[entries.length + extraSlots];
+        int liveCount = 0;
+        for (int ii = 0; ii < entries.length; ii++) {
+            if (entries[ii].get() != null) {
+                copy[liveCount++] = entries[ii];
+            }
+        }
+
+        if (liveCount == entries.length) {
+            return extraSlots == 0 ? entries : copy;
+        } else {
+            return Arrays.copyOf(copy, liveCount + extraSlots);
+        }
     }
 
     private Handler handler(WorkMode workMode){
         return (workMode == WorkMode.ASYNCHRONOUS) ? new Handler(Looper.getMainLooper()) : null;
     }
+
+    /**
+     * Only ASYNCHRONOUS notifications are frame aligned, so SYNCHRONOUS observables (e.g. in
+     * unit tests) never touch the Choreographer or the main Looper
+     */
+    private FrameScheduler frameScheduler(WorkMode workMode, DispatchMode dispatchMode){
+        return (workMode == WorkMode.ASYNCHRONOUS && dispatchMode == DispatchMode.FRAME_ALIGNED) ? MainFrameScheduler.INSTANCE : null;
+    }
+
+    private final class ObserverEntry implements Runnable {
+
+        // exactly one of these is set
+        private final Observer observer;
+        private final WeakReference<Observer> weakObserver;
+
+        ObserverEntry(Observer observer, boolean weak) {
+            this.observer = weak ? null : observer;
+            this.weakObserver = weak ? new WeakReference<>(observer) : null;
+        }
+
+        /**
+         * @return the observer, or null if it was weakly held and has since been garbage collected
+         */
+        Observer get() {
+            return observer != null ? observer : weakObserver.get();
+        }
+
+        @Override
+        public void run() {
+            Observer current = get();
+            if (current != null) {
+                doNotification(current);
+            }
+        }
+    }
+
+    // lazily created, the first time a FRAME_ALIGNED observable is constructed
+    private static class MainFrameScheduler {
+        static final FrameScheduler INSTANCE = new FrameScheduler(new ChoreographerFrameClock());
+    }
 }
@@ -1,6 +1,14 @@
 package co.early.fore.core.threading;
 
 import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import co.early.fore.core.Affirm;
 import co.early.fore.core.WorkMode;
@@ -9,6 +17,17 @@ import co.early.fore.core.WorkMode;
 public abstract class Async<Input, Progress, Result> extends AsyncTask<Input, Progress, Result> {
 
     protected final WorkMode workMode;
+    private final Executor executor;
+    private final CancellationToken cancellationToken;
+    private long timeoutMs = 0;
+
+    // only used once throttleProgress() has been called
+    private long progressIntervalMs = -1;
+    private Handler progressHandler;
+    private final AtomicReference<Progress[]> latestProgress = new AtomicReference<>();
+    private final AtomicBoolean progressPending = new AtomicBoolean(false);
+    private final Runnable deliverProgress = this::deliverLatestProgress;
+    private volatile long lastProgressDeliveredAt;
 
     /**
      * In all cases you need to use the executeTask() method rather than
@@ -32,27 +51,162 @@ public abstract class Async<Input, Progress, Result> extends AsyncTask<Input, Pr
      * a network and fail when it's not available.
      * <p>
      * if ASYNCHRONOUS, a regular AsyncTask will be used to perform the execute
-     * method as expected (but using a THREAD_POOL_EXECUTOR in all versions of android)
+     * method as expected, but with doInBackground() run on {@link TaskExecutors#io()} rather
+     * than on AsyncTask's own (process wide) THREAD_POOL_EXECUTOR
      *
      */
     public Async(WorkMode workMode) {
+        this(workMode, TaskExecutors.io());
+    }
+
+    /**
+     * @param workMode see {@link #Async(WorkMode)}
+     * @param executor when ASYNCHRONOUS, doInBackground() will be run on this. Use
+     * {@link TaskExecutors#cpu()} for cpu bound work, or any other Executor you like.
+     * When SYNCHRONOUS it is never used
+     */
+    public Async(WorkMode workMode, Executor executor) {
+        this(workMode, executor, null);
+    }
+
+    /**
+     * @param workMode see {@link #Async(WorkMode)}
+     * @param executor see {@link #Async(WorkMode, Executor)}
+     * @param parentToken if not null, this task will be cancelled whenever parentToken is
+     * (e.g. a token that is cancelled when a screen goes away, or
+     * {@link co.early.fore.core.observer.ObservableImp#cancelledWhenUnobserved()})
+     */
+    public Async(WorkMode workMode, Executor executor, CancellationToken parentToken) {
         this.workMode = Affirm.notNull(workMode);
+        this.executor = Affirm.notNull(executor);
+        this.cancellationToken = (parentToken == null) ? new CancellationToken() : new CancellationToken(parentToken);
+        this.cancellationToken.addOnCancelledListener(this::onTokenCancelled);
     }
 
+    /**
+     * if SYNCHRONOUS, onCancelled() is called instead of onPostExecute() when the task was
+     * cancelled by the time doInBackground() returned, as happens with AsyncTask (and
+     * doInBackground() is not called at all if it was cancelled before the task started)
+     */
     public void executeTask(Input... params) {
         if (workMode == WorkMode.SYNCHRONOUS) {
             onPreExecute();
-            onPostExecute(doInBackground(params));
+            Result result = cancellationToken.isCancelled() ? null : doInBackground(params);
+            cancellationToken.release();
+            if (cancellationToken.isCancelled()) {
+                onCancelled(result);
+            } else {
+                onPostExecute(result);
+            }
         } else {
-            super.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR, params);
+            if (timeoutMs > 0) {
+                cancellationToken.cancelAfter(timeoutMs, TimeUnit.MILLISECONDS);
+            }
+            // AsyncTask runs the whole task as one Runnable, so once that's done the token
+            // is released, whether it finished or never started because it was cancelled
+            super.executeOnExecutor(command -> executor.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    cancellationToken.release();
+                }
+            }), params);
+        }
+    }
+
+    /**
+     * Must be called before executeTask(). Once the timeout has passed, the task is cancelled
+     * as if {@link #cancelTask()} had been called. Has no effect when SYNCHRONOUS, where the task
+     * will always have completed by the time executeTask() returns
+     */
+    public Async<Input, Progress, Result> withTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMs = Affirm.notNull(unit).toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Must be called before executeTask(). From then on, publishProgressTask() no longer posts
+     * every value it's given to the UI thread: the latest value is kept, and at most one
+     * progress update is ever waiting to be delivered. Values published while one is waiting
+     * just replace the one it will deliver, and onProgressUpdate() is called no more often than
+     * every minInterval. Progress that hasn't been delivered by the time the task finishes is
+     * delivered straight away, just before onPostExecute() or onCancelled() (an onPostExecute()
+     * override needs to call super.onPostExecute() first for that), it never arrives after them.
+     * <p>
+     * Has no effect when SYNCHRONOUS, where every value is still passed straight to
+     * onProgressUpdate()
+     *
+     * @param minInterval the minimum time between onProgressUpdate() calls, 0 for no minimum
+     *                    (values published faster than the UI thread handles them are still
+     *                    dropped)
+     */
+    public Async<Input, Progress, Result> throttleProgress(long minInterval, TimeUnit unit) {
+        this.progressIntervalMs = Affirm.notNull(unit).toMillis(minInterval);
+        if (progressHandler == null && workMode == WorkMode.ASYNCHRONOUS) {
+            progressHandler = new Handler(Looper.getMainLooper());
+        }
+        return this;
+    }
+
+    /**
+     * Cancels the task's token, see {@link #getCancellationToken()}.
+     * <p>
+     * if ASYNCHRONOUS this also calls cancel(true): the background thread is interrupted and
+     * onCancelled() will be called on the UI thread instead of onPostExecute()
+     */
+    public void cancelTask() {
+        cancellationToken.cancel();
+    }
+
+    /**
+     * @return this task's token, it's cancelled by {@link #cancelTask()}, a timeout, or the
+     * parentToken being cancelled. Long running doInBackground() implementations should check it
+     * regularly and stop early once it's cancelled (the result will be ignored anyway)
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    private void onTokenCancelled() {
+        if (workMode == WorkMode.ASYNCHRONOUS) {
+            cancel(true);
         }
     }
 
     protected void publishProgressTask(Progress... values) {
         if (workMode == WorkMode.SYNCHRONOUS) {
             onProgressUpdate(values);
-        } else {
+        } else if (progressIntervalMs < 0) {
             super.publishProgress(values);
+        } else if (!isCancelled()) {
+            // as AsyncTask.publishProgress(), nothing published once cancelled is delivered
+            latestProgress.set(values);
+            if (progressPending.compareAndSet(false, true)) {
+                progressHandler.postAtTime(deliverProgress, Math.max(SystemClock.uptimeMillis(), lastProgressDeliveredAt + progressIntervalMs));
+            }
+        }
+    }
+
+    private void deliverLatestProgress() {
+
+        // cleared first, so that anything published from now on gets a fresh delivery
+        progressPending.set(false);
+        Progress[] values = latestProgress.getAndSet(null);
+        lastProgressDeliveredAt = SystemClock.uptimeMillis();
+
+        // FINISHED is set straight after onPostExecute() / onCancelled(), on this thread
+        if (values != null && getStatus() != Status.FINISHED) {
+            onProgressUpdate(values);
+        }
+    }
+
+    /**
+     * UI thread only, doInBackground() has returned by now so nothing more will be published
+     */
+    private void flushProgress() {
+        if (progressHandler != null && progressPending.get()) {
+            progressHandler.removeCallbacks(deliverProgress);
+            deliverLatestProgress();
         }
     }
 
@@ -65,9 +219,24 @@ public abstract class Async<Input, Progress, Result> extends AsyncTask<Input, Pr
         //no opp
     }
 
+    /**
+     * If you override this and use {@link #throttleProgress(long, TimeUnit)}, call
+     * super.onPostExecute() first so that any progress that is still waiting is delivered before
+     * your code runs
+     */
     @Override
     protected void onPostExecute(Result result) {
-        //no opp
+        flushProgress();
+    }
+
+    /**
+     * Delivers any progress that is still waiting (see {@link #throttleProgress(long, TimeUnit)})
+     * then calls onCancelled()
+     */
+    @Override
+    protected void onCancelled(Result result) {
+        flushProgress();
+        super.onCancelled(result);
     }
 
     @Override
@@ -2,6 +2,9 @@ package co.early.fore.core.threading;
 
 import android.annotation.SuppressLint;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 import co.early.fore.core.Affirm;
 import co.early.fore.core.WorkMode;
 import co.early.fore.core.callbacks.DoThisCallback;
@@ -10,22 +13,50 @@ import co.early.fore.core.callbacks.DoThisWithPayloadCallback;
 /**
  * Note that this class while a lot less verbose than Async, doesn't support progress updates,
  * for that you need to use Async directly
+ * <p>
+ * A task can be cancelled via the Async returned from execute() (see {@link Async#cancelTask()}),
+ * by the token passed to {@link #cancellationToken(CancellationToken)} being cancelled, or by
+ * the {@link #timeout(long, TimeUnit)} passing. A cancelled task calls onCancelled() instead of
+ * onPostExecute(), and anything thrown by doInBackground() once it has been cancelled is ignored
  */
 public class AsyncBuilder<Input, Result>{
 
     private final WorkMode workMode;
+    private final Executor executor;
 
-    private DoInBackgroundCallback<Input, Result> doInBackground;
+    private DoInBackgroundCancellableCallback<Input, Result> doInBackground;
     private DoThisCallback onPreExecute;
     private DoThisWithPayloadCallback<Result> onPostExecute;
+    private DoThisCallback onCancelled;
+    private CancellationToken parentToken;
+    private long timeoutMs = 0;
 
     private Async<Input, Void, Result> async = null;
 
     public AsyncBuilder(WorkMode workMode) {
+        this(workMode, TaskExecutors.io());
+    }
+
+    /**
+     * @param executor doInBackground() will be run on this when ASYNCHRONOUS, see
+     * {@link TaskExecutors} for the defaults
+     */
+    public AsyncBuilder(WorkMode workMode, Executor executor) {
         this.workMode = Affirm.notNull(workMode);
+        this.executor = Affirm.notNull(executor);
     }
 
     public AsyncBuilder<Input, Result> doInBackground(DoInBackgroundCallback<Input, Result> doInBackground){
+        Affirm.notNull(doInBackground);
+        this.doInBackground = (cancellationToken, inputs) -> doInBackground.doThisAndReturn(inputs);
+        return this;
+    }
+
+    /**
+     * As doInBackground(), but the callback is also given the task's CancellationToken to
+     * check as it goes
+     */
+    public AsyncBuilder<Input, Result> doInBackgroundCancellable(DoInBackgroundCancellableCallback<Input, Result> doInBackground){
         this.doInBackground = Affirm.notNull(doInBackground);
         return this;
     }
@@ -40,6 +71,32 @@ public class AsyncBuilder<Input, Result>{
         return this;
     }
 
+    /**
+     * Called on the UI thread (instead of onPostExecute) if the task is cancelled
+     */
+    public AsyncBuilder<Input, Result> onCancelled(DoThisCallback onCancelled){
+        this.onCancelled = Affirm.notNull(onCancelled);
+        return this;
+    }
+
+    /**
+     * @param parentToken the task will be cancelled whenever this is, e.g. a token cancelled
+     *                    when a screen goes away, or {@link co.early.fore.core.observer.ObservableImp#cancelledWhenUnobserved()}
+     */
+    public AsyncBuilder<Input, Result> cancellationToken(CancellationToken parentToken){
+        this.parentToken = Affirm.notNull(parentToken);
+        return this;
+    }
+
+    /**
+     * The task will be cancelled if it hasn't finished by the time this has passed, see
+     * {@link Async#withTimeout(long, TimeUnit)}
+     */
+    public AsyncBuilder<Input, Result> timeout(long timeout, TimeUnit unit){
+        this.timeoutMs = Affirm.notNull(unit).toMillis(timeout);
+        return this;
+    }
+
     @SuppressLint("StaticFieldLeak")
     public Async<Input, Void, Result> execute(Input... inputs){
 
@@ -51,7 +108,7 @@ public class AsyncBuilder<Input, Result>{
             throw new IllegalStateException("You must call at least doInBackground() before calling execute");
         }
 
-        async = new Async<Input, Void, Result>(workMode) {
+        async = new Async<Input, Void, Result>(workMode, executor, parentToken) {
 
             @Override
             protected void onPreExecute() {
@@ -62,7 +119,16 @@ public class AsyncBuilder<Input, Result>{
 
             @Override
             protected Result doInBackground(Input... inputs) {
-                return doInBackground.doThisAndReturn(inputs);
+                try {
+                    return doInBackground.doThisAndReturn(getCancellationToken(), inputs);
+                } catch (RuntimeException e) {
+                    // e.g. a CancellationException from throwIfCancelled(), or whatever
+                    // the interrupted io threw. The result would be discarded anyway
+                    if (getCancellationToken().isCancelled()) {
+                        return null;
+                    }
+                    throw e;
+                }
             }
 
             @Override
@@ -71,8 +137,18 @@ public class AsyncBuilder<Input, Result>{
                     onPostExecute.doThis(result);
                 }
             }
+
+            @Override
+            protected void onCancelled(Result result) {
+                if (onCancelled != null) {
+                    onCancelled.doThis();
+                }
+            }
         };
 
+        if (timeoutMs > 0) {
+            async.withTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+        }
         async.executeTask(inputs);
 
         return async;
@@ -81,4 +157,8 @@ public class AsyncBuilder<Input, Result>{
     public interface DoInBackgroundCallback<Input, Result> {
         Result doThisAndReturn(Input... inputs);
     }
+
+    public interface DoInBackgroundCancellableCallback<Input, Result> {
+        Result doThisAndReturn(CancellationToken cancellationToken, Input... inputs);
+    }
 }
@@ -0,0 +1,298 @@
+package co.early.fore.core.threading;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.callbacks.DoThisCallback;
+import co.early.fore.core.callbacks.DoThisWithPayloadCallback;
+
+/**
+ * Runs several independent pieces of background work in parallel, and calls back once on the
+ * UI thread when all of them are done, so a screen waits for the slowest of them rather than
+ * for all of them one after another.
+ * <p>
+ * <pre>
+ * AsyncGroup group = new AsyncGroup(workMode);
+ * AsyncGroup.Task&lt;Integer&gt; rowCount = group.add(() -&gt; dao.getRowCount());
+ * AsyncGroup.Task&lt;List&lt;Item&gt;&gt; items = group.add(() -&gt; dao.getAllItems());
+ * group.onSuccess(() -&gt; show(rowCount.get(), items.get()))
+ *         .onFailure(throwable -&gt; showError(throwable))
+ *         .execute();
+ * </pre>
+ * <p>
+ * If one of the tasks throws, the group's CancellationToken is cancelled straight away: tasks
+ * that haven't started yet are skipped, running ones are interrupted, and (as with
+ * AsyncBuilder) anything they throw after that is ignored. Once they have all stopped, onFailure()
+ * is called with the first failure. With no onFailure() set, the failure is thrown on the UI
+ * thread instead, as an exception in AsyncTask.doInBackground() would be. If the executor
+ * rejects a task, that counts as a failure too (the RejectedExecutionException is passed to
+ * onFailure() and no more tasks are submitted).
+ * <p>
+ * If the group is cancelled (via {@link #cancellationToken(CancellationToken)}, {@link #timeout(long, TimeUnit)}
+ * or {@link #cancel()}) onCancelled() is called instead of onSuccess().
+ * <p>
+ * if SYNCHRONOUS, the tasks are run one after another on the calling thread and the callbacks
+ * are called before execute() returns (a failure stops the remaining tasks from running at all)
+ */
+public class AsyncGroup {
+
+    private final WorkMode workMode;
+    private final Executor executor;
+    private final List<Task<?>> tasks = new ArrayList<>();
+
+    private DoThisCallback onSuccess;
+    private DoThisWithPayloadCallback<Throwable> onFailure;
+    private DoThisCallback onCancelled;
+    private CancellationToken parentToken;
+    private long timeoutMs = 0;
+
+    private CancellationToken cancellationToken = null;
+    private final AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+    private final AtomicInteger remainingTasks = new AtomicInteger();
+
+    public AsyncGroup(WorkMode workMode) {
+        this(workMode, TaskExecutors.io());
+    }
+
+    /**
+     * @param executor the tasks will be run on this when ASYNCHRONOUS, it needs to be able to
+     *                 run them in parallel to be of any use, see {@link TaskExecutors}
+     */
+    public AsyncGroup(WorkMode workMode, Executor executor) {
+        this.workMode = Affirm.notNull(workMode);
+        this.executor = Affirm.notNull(executor);
+    }
+
+    public <T> Task<T> add(TaskCallback<T> work) {
+        Affirm.notNull(work);
+        return addCancellable(cancellationToken -> work.doThisAndReturn());
+    }
+
+    /**
+     * As add(), but the work is also given the group's CancellationToken to check as it goes
+     */
+    public <T> Task<T> addCancellable(CancellableTaskCallback<T> work) {
+        checkNotExecuted();
+        Task<T> task = new Task<>(Affirm.notNull(work));
+        tasks.add(task);
+        return task;
+    }
+
+    /**
+     * Called on the UI thread once every task has completed, their results are available from
+     * the Tasks returned by add()
+     */
+    public AsyncGroup onSuccess(DoThisCallback onSuccess) {
+        this.onSuccess = Affirm.notNull(onSuccess);
+        return this;
+    }
+
+    /**
+     * Called on the UI thread with the first failure, once all the tasks have stopped
+     */
+    public AsyncGroup onFailure(DoThisWithPayloadCallback<Throwable> onFailure) {
+        this.onFailure = Affirm.notNull(onFailure);
+        return this;
+    }
+
+    public AsyncGroup onCancelled(DoThisCallback onCancelled) {
+        this.onCancelled = Affirm.notNull(onCancelled);
+        return this;
+    }
+
+    /**
+     * @param parentToken the group will be cancelled whenever this is, see
+     *                    {@link AsyncBuilder#cancellationToken(CancellationToken)}
+     */
+    public AsyncGroup cancellationToken(CancellationToken parentToken) {
+        this.parentToken = Affirm.notNull(parentToken);
+        return this;
+    }
+
+    /**
+     * The group will be cancelled if all its tasks haven't finished by the time this has
+     * passed. Has no effect when SYNCHRONOUS
+     */
+    public AsyncGroup timeout(long timeout, TimeUnit unit) {
+        this.timeoutMs = Affirm.notNull(unit).toMillis(timeout);
+        return this;
+    }
+
+    public void execute() {
+
+        checkNotExecuted();
+        if (tasks.isEmpty()) {
+            throw new IllegalStateException("You must add() at least one task before calling execute");
+        }
+
+        cancellationToken = (parentToken == null) ? new CancellationToken() : new CancellationToken(parentToken);
+
+        if (workMode == WorkMode.SYNCHRONOUS) {
+            for (Task<?> task : tasks) {
+                task.run();
+                if (cancellationToken.isCancelled()) {
+                    break;
+                }
+            }
+            finish();
+        } else {
+            if (timeoutMs > 0) {
+                cancellationToken.cancelAfter(timeoutMs, TimeUnit.MILLISECONDS);
+            }
+            cancellationToken.addOnCancelledListener(this::interruptRunningTasks);
+            final Handler handler = new Handler(Looper.getMainLooper());
+            remainingTasks.set(tasks.size());
+            for (int ii = 0; ii < tasks.size(); ii++) {
+                final Task<?> task = tasks.get(ii);
+                try {
+                    executor.execute(() -> {
+                        task.run();
+                        if (remainingTasks.decrementAndGet() == 0) {
+                            handler.post(this::finish);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    if (!cancellationToken.isCancelled() && firstFailure.compareAndSet(null, e)) {
+                        cancellationToken.cancel();
+                    }
+                    // this task and the ones after it will never run, so won't count themselves down
+                    if (remainingTasks.addAndGet(ii - tasks.size()) == 0) {
+                        handler.post(this::finish);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels the group (once it has been executed), see {@link #getCancellationToken()}
+     */
+    public void cancel() {
+        if (cancellationToken != null) {
+            cancellationToken.cancel();
+        }
+    }
+
+    /**
+     * @return the token given to each of the tasks, null until execute() has been called
+     */
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    private void finish() {
+
+        cancellationToken.release();
+
+        Throwable failure = firstFailure.get();
+        if (failure != null) {
+            if (onFailure != null) {
+                onFailure.doThis(failure);
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else {
+                // tasks can only throw RuntimeExceptions or Errors
+                throw (RuntimeException) failure;
+            }
+        } else if (cancellationToken.isCancelled()) {
+            if (onCancelled != null) {
+                onCancelled.doThis();
+            }
+        } else if (onSuccess != null) {
+            onSuccess.doThis();
+        }
+    }
+
+    private void interruptRunningTasks() {
+        for (Task<?> task : tasks) {
+            task.interrupt();
+        }
+    }
+
+    private void checkNotExecuted() {
+        if (cancellationToken != null) {
+            throw new IllegalStateException("Please construct a new AsyncGroup, these instances can only be executed once");
+        }
+    }
+
+
+    public class Task<T> {
+
+        private final CancellableTaskCallback<T> work;
+        private final Object runnerLock = new Object();
+        private Thread runner;
+        private volatile boolean completed = false;
+        private T result;
+
+        private Task(CancellableTaskCallback<T> work) {
+            this.work = work;
+        }
+
+        /**
+         * @return the result of this task, only available once the group has succeeded
+         * (e.g. from the onSuccess() callback)
+         */
+        public T get() {
+            if (!completed) {
+                throw new IllegalStateException("This task hasn't completed, results are only available once the group has succeeded");
+            }
+            return result;
+        }
+
+        private void run() {
+
+            if (cancellationToken.isCancelled()) {
+                return;
+            }
+
+            synchronized (runnerLock) {
+                runner = Thread.currentThread();
+            }
+
+            try {
+                result = work.doThisAndReturn(cancellationToken);
+                completed = true;
+            } catch (RuntimeException | Error e) {
+                if (!cancellationToken.isCancelled() && firstFailure.compareAndSet(null, e)) {
+                    cancellationToken.cancel();
+                }
+            } finally {
+                synchronized (runnerLock) {
+                    runner = null;
+                    // so that an interrupt meant for this task doesn't reach whatever
+                    // the executor runs on this thread next
+                    if (workMode == WorkMode.ASYNCHRONOUS) {
+                        Thread.interrupted();
+                    }
+                }
+            }
+        }
+
+        private void interrupt() {
+            synchronized (runnerLock) {
+                if (runner != null && runner != Thread.currentThread()) {
+                    runner.interrupt();
+                }
+            }
+        }
+    }
+
+    public interface TaskCallback<T> {
+        T doThisAndReturn();
+    }
+
+    public interface CancellableTaskCallback<T> {
+        T doThisAndReturn(CancellationToken cancellationToken);
+    }
+}
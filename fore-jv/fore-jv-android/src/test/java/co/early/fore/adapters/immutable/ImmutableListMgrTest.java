@@ -0,0 +1,357 @@
+package co.early.fore.adapters.immutable;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.logging.Logger;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ImmutableListMgrTest {
+
+    @Mock
+    private Logger mockLogger;
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+    private final StableIdDiffCalculator<Row> stableIdDiffCalculator = new StableIdDiffCalculator<>(row -> row.id);
+
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    public void whenListChanged_withStructuralSharing_untouchedItemsAreShared() {
+
+        //arrange
+        ImmutableListMgr<Row> listMgr = createListMgr(true);
+        listMgr.replaceList(() -> rows(100));
+        Row untouchedBefore = listMgr.getItem(99);
+        Row touchedBefore = listMgr.getItem(50);
+
+        //act
+        listMgr.changeList(listCopy -> listCopy.get(50).label = "changed");
+
+        //assert
+        Assert.assertSame(untouchedBefore, listMgr.getItem(99));
+        Assert.assertNotSame(touchedBefore, listMgr.getItem(50));
+        Assert.assertEquals("changed", listMgr.getItem(50).label);
+        Assert.assertEquals("50", touchedBefore.label);
+        Assert.assertEquals(100, listMgr.getItemCount());
+    }
+
+    @Test
+    public void whenItemsAddedAndRemoved_withStructuralSharing_listIsUpdated() {
+
+        //arrange
+        ImmutableListMgr<Row> listMgr = createListMgr(true);
+        listMgr.replaceList(() -> rows(100));
+
+        //act
+        listMgr.changeList(listCopy -> {
+            listCopy.remove(0);
+            listCopy.add(new Row(1000));
+        });
+        listMgr.changeList(listCopy -> listCopy.add(0, new Row(2000)));
+
+        //assert
+        Assert.assertEquals(101, listMgr.getItemCount());
+        Assert.assertEquals(2000, listMgr.getItem(0).id);
+        Assert.assertEquals(1, listMgr.getItem(1).id);
+        Assert.assertEquals(1000, listMgr.getItem(100).id);
+        Assert.assertEquals(1, listMgr.getAndClearLatestDiffSpec(Long.MAX_VALUE).listDiff.getOperationCount());
+    }
+
+    @Test
+    public void whenItemFoundWithIndexOfFirst_withStructuralSharing_onlyTheChangedItemIsCopied() {
+
+        //arrange
+        ImmutableListMgr<Row> listMgr = createListMgr(true);
+        listMgr.replaceList(() -> rows(100));
+        Row searchedBefore = listMgr.getItem(10);
+        Row changedBefore = listMgr.getItem(50);
+
+        //act
+        listMgr.editList(listCopy -> {
+            int index = listCopy.indexOfFirst(row -> row.id == 50);
+            listCopy.get(index).label = "changed";
+        });
+
+        //assert
+        Assert.assertSame(searchedBefore, listMgr.getItem(10));
+        Assert.assertNotSame(changedBefore, listMgr.getItem(50));
+        Assert.assertEquals("changed", listMgr.getItem(50).label);
+        Assert.assertEquals("50", changedBefore.label);
+    }
+
+    @Test
+    public void whenItemFoundWithIndexOfFirst_withoutStructuralSharing_listIsUpdated() {
+
+        //arrange
+        ImmutableListMgr<Row> listMgr = createListMgr(false);
+        listMgr.replaceList(() -> rows(100));
+
+        //act
+        listMgr.editList(listCopy -> {
+            int index = listCopy.indexOfFirst(row -> row.id == 50);
+            listCopy.set(index, new Row(50, "changed"));
+            Assert.assertEquals(-1, listCopy.indexOfFirst(row -> row.id == 1000));
+        });
+
+        //assert
+        Assert.assertEquals("changed", listMgr.getItem(50).label);
+        Assert.assertEquals(100, listMgr.getItemCount());
+    }
+
+    @Test
+    public void whenListChanged_withoutStructuralSharing_everyItemIsCopied() {
+
+        //arrange
+        ImmutableListMgr<Row> listMgr = createListMgr(false);
+        listMgr.replaceList(() -> rows(100));
+        Row untouchedBefore = listMgr.getItem(99);
+
+        //act
+        listMgr.changeList(listCopy -> listCopy.get(50).label = "changed");
+
+        //assert
+        Assert.assertNotSame(untouchedBefore, listMgr.getItem(99));
+        Assert.assertEquals("changed", listMgr.getItem(50).label);
+    }
+
+    @Test
+    public void whenUpdatesArriveDuringADiff_diffCancelledAndOnlyTheLatestIsDiffed() {
+        whenUpdatesArriveDuringADiff_diffCancelledAndOnlyTheLatestIsDiffed(false);
+    }
+
+    @Test
+    public void whenUpdatesArriveDuringADiff_withStructuralSharing_diffCancelledAndOnlyTheLatestIsDiffed() {
+        whenUpdatesArriveDuringADiff_diffCancelledAndOnlyTheLatestIsDiffed(true);
+    }
+
+    private void whenUpdatesArriveDuringADiff_diffCancelledAndOnlyTheLatestIsDiffed(boolean structuralSharing) {
+
+        //arrange
+        final boolean[] sendUpdatesDuringDiff = {false};
+        final List<ImmutableListMgr<Row>> listMgrHolder = new ArrayList<>();
+        StableIdDiffCalculator<Row> calculator = new StableIdDiffCalculator<>(row -> {
+            // the id extractor runs part way through the diff, so these updates arrive while
+            // the diff is in progress
+            if (sendUpdatesDuringDiff[0]) {
+                sendUpdatesDuringDiff[0] = false;
+                for (int ii = 1; ii <= 3; ii++) {
+                    final int id = 100 + ii;
+                    listMgrHolder.get(0).changeList(listCopy -> listCopy.add(new Row(id)));
+                }
+            }
+            return row.id;
+        });
+        ImmutableListMgr<Row> listMgr = new ImmutableListMgr<>(systemTimeWrapper, WorkMode.SYNCHRONOUS,
+                mockLogger, calculator, structuralSharing);
+        listMgrHolder.add(listMgr);
+        listMgr.replaceList(() -> rows(10));
+        AtomicInteger notifications = new AtomicInteger();
+        listMgr.addObserver(notifications::incrementAndGet);
+
+        //act
+        sendUpdatesDuringDiff[0] = true;
+        listMgr.changeList(listCopy -> listCopy.add(new Row(99)));
+
+        //assert
+        // the diff that was running and the first two updates, only the last update is shown
+        Assert.assertEquals(3, listMgr.getSkippedDiffCount());
+        Assert.assertEquals(1, notifications.get());
+        Assert.assertEquals(14, listMgr.getItemCount());
+        Assert.assertEquals(99, listMgr.getItem(10).id);
+        Assert.assertEquals(103, listMgr.getItem(13).id);
+    }
+
+    @Test
+    public void whenUpdateArrivesDuringADiffThatReplacedACancelledOne_diffIsNotCancelled() {
+
+        //arrange
+        final Map<Integer, Integer> sendUpdateWhenDiffing = new HashMap<>();
+        final List<ImmutableListMgr<Row>> listMgrHolder = new ArrayList<>();
+        StableIdDiffCalculator<Row> calculator = new StableIdDiffCalculator<>(row -> {
+            // row 101 arrives during the first diff (of row 99), and row 102 during the diff
+            // that replaces it (of row 101)
+            final Integer id = sendUpdateWhenDiffing.remove(row.id);
+            if (id != null) {
+                listMgrHolder.get(0).changeList(listCopy -> listCopy.add(new Row(id)));
+            }
+            return row.id;
+        });
+        ImmutableListMgr<Row> listMgr = new ImmutableListMgr<>(systemTimeWrapper, WorkMode.SYNCHRONOUS,
+                mockLogger, calculator, true);
+        listMgrHolder.add(listMgr);
+        listMgr.replaceList(() -> rows(10));
+        AtomicInteger notifications = new AtomicInteger();
+        listMgr.addObserver(notifications::incrementAndGet);
+
+        //act
+        sendUpdateWhenDiffing.put(99, 101);
+        sendUpdateWhenDiffing.put(101, 102);
+        listMgr.changeList(listCopy -> listCopy.add(new Row(99)));
+
+        //assert
+        Assert.assertEquals(1, listMgr.getSkippedDiffCount());
+        Assert.assertEquals(2, notifications.get());
+        Assert.assertEquals(13, listMgr.getItemCount());
+        Assert.assertEquals(99, listMgr.getItem(10).id);
+        Assert.assertEquals(101, listMgr.getItem(11).id);
+        Assert.assertEquals(102, listMgr.getItem(12).id);
+    }
+
+    @Test
+    public void whenListChangedOnAnotherThread_duringASlowDiff_latestListIsShown() throws Exception {
+        whenListChangedOnAnotherThread_duringASlowDiff_latestListIsShown(false);
+    }
+
+    @Test
+    public void whenListChangedOnAnotherThread_duringASlowDiff_withStructuralSharing_latestListIsShown() throws Exception {
+        whenListChangedOnAnotherThread_duringASlowDiff_latestListIsShown(true);
+    }
+
+    private void whenListChangedOnAnotherThread_duringASlowDiff_latestListIsShown(boolean structuralSharing) throws Exception {
+
+        //arrange
+        final AtomicBoolean slowDiff = new AtomicBoolean(false);
+        final CountDownLatch diffStarted = new CountDownLatch(1);
+        final CountDownLatch listChanged = new CountDownLatch(1);
+        StableIdDiffCalculator<Row> calculator = new StableIdDiffCalculator<>(row -> {
+            if (slowDiff.compareAndSet(true, false)) {
+                diffStarted.countDown();
+                try {
+                    listChanged.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return row.id;
+        });
+        final ImmutableListMgr<Row> listMgr = new ImmutableListMgr<>(systemTimeWrapper, WorkMode.SYNCHRONOUS,
+                mockLogger, calculator, structuralSharing);
+        listMgr.replaceList(() -> rows(10));
+        AtomicInteger notifications = new AtomicInteger();
+        listMgr.addObserver(notifications::incrementAndGet);
+        slowDiff.set(true);
+        Thread diffThread = new Thread(() -> listMgr.changeList(listCopy -> listCopy.add(new Row(99))));
+
+        //act
+        diffThread.start();
+        Assert.assertTrue(diffStarted.await(10, TimeUnit.SECONDS));
+        listMgr.changeList(listCopy -> listCopy.add(new Row(100)));
+        listChanged.countDown();
+        diffThread.join(10000);
+        listMgr.changeList(listCopy -> listCopy.add(new Row(101)));
+
+        //assert
+        Assert.assertFalse(diffThread.isAlive());
+        Assert.assertEquals(1, listMgr.getSkippedDiffCount());
+        Assert.assertEquals(2, notifications.get());
+        Assert.assertEquals(13, listMgr.getItemCount());
+        Assert.assertEquals(99, listMgr.getItem(10).id);
+        Assert.assertEquals(100, listMgr.getItem(11).id);
+        Assert.assertEquals(101, listMgr.getItem(12).id);
+    }
+
+    @Test
+    public void whenListEditedDuringAReplaceListDiff_withStructuralSharing_laterEditsBuildOnTheEdit() throws Exception {
+
+        //arrange
+        final AtomicBoolean slowDiff = new AtomicBoolean(false);
+        final CountDownLatch diffStarted = new CountDownLatch(1);
+        final CountDownLatch listEdited = new CountDownLatch(1);
+        StableIdDiffCalculator<Row> calculator = new StableIdDiffCalculator<>(row -> {
+            if (slowDiff.compareAndSet(true, false)) {
+                diffStarted.countDown();
+                try {
+                    listEdited.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return row.id;
+        });
+        final ImmutableListMgr<Row> listMgr = new ImmutableListMgr<>(systemTimeWrapper, WorkMode.SYNCHRONOUS,
+                mockLogger, calculator, true);
+        listMgr.replaceList(() -> rows(10));
+        slowDiff.set(true);
+        Thread diffThread = new Thread(() -> listMgr.replaceList(() -> rows(20)));
+
+        //act
+        diffThread.start();
+        Assert.assertTrue(diffStarted.await(10, TimeUnit.SECONDS));
+        listMgr.changeList(listCopy -> listCopy.add(new Row(100)));
+        listEdited.countDown();
+        diffThread.join(10000);
+        listMgr.changeList(listCopy -> listCopy.add(new Row(101)));
+
+        //assert
+        Assert.assertFalse(diffThread.isAlive());
+        Assert.assertEquals(12, listMgr.getItemCount());
+        Assert.assertEquals(100, listMgr.getItem(10).id);
+        Assert.assertEquals(101, listMgr.getItem(11).id);
+    }
+
+    private ImmutableListMgr<Row> createListMgr(boolean structuralSharing) {
+        return new ImmutableListMgr<>(systemTimeWrapper, WorkMode.SYNCHRONOUS, mockLogger,
+                stableIdDiffCalculator, structuralSharing);
+    }
+
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>();
+        for (int ii = 0; ii < count; ii++) {
+            rows.add(new Row(ii));
+        }
+        return rows;
+    }
+
+    private static class Row implements DeepCopyable<Row>, DiffComparator<Row> {
+
+        final int id;
+        String label;
+
+        Row(int id) {
+            this(id, String.valueOf(id));
+        }
+
+        Row(int id, String label) {
+            this.id = id;
+            this.label = label;
+        }
+
+        @Override
+        public Row deepCopy() {
+            return new Row(id, label);
+        }
+
+        @Override
+        public boolean itemsTheSame(Row other) {
+            return id == other.id;
+        }
+
+        @Override
+        public boolean itemsLookTheSame(Row other) {
+            return label.equals(other.label);
+        }
+    }
+}
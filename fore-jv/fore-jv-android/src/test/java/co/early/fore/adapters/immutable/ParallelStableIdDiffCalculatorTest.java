@@ -0,0 +1,208 @@
+package co.early.fore.adapters.immutable;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static co.early.fore.adapters.immutable.StableIdDiffCalculatorTest.Item;
+import static co.early.fore.adapters.immutable.StableIdDiffCalculatorTest.assertTransforms;
+import static co.early.fore.adapters.immutable.StableIdDiffCalculatorTest.items;
+import static co.early.fore.adapters.immutable.StableIdDiffCalculatorTest.randomList;
+
+public class ParallelStableIdDiffCalculatorTest {
+
+    private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    private final ParallelStableIdDiffCalculator<Item> calculator =
+            new ParallelStableIdDiffCalculator<>(item -> item.id, executorService, 4);
+
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void whenListIsSmall_sameResultAsStableIdDiffCalculator() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "C", "D", "E");
+        List<Item> newList = items("B", "C", "D", "E", "A");
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        Assert.assertEquals(1, listDiff.getOperationCount());
+        assertTransforms(oldList, newList, listDiff);
+    }
+
+    @Test
+    public void whenLargeListHasScatteredEdits_operationsTurnOldListInToNewList() {
+        Random random = new Random(3);
+        for (int run = 0; run < 20; run++) {
+
+            //arrange
+            List<Item> oldList = randomList(random, 20000 + random.nextInt(10000));
+            List<Item> newList = new ArrayList<>(oldList);
+            int moves = 0;
+            for (int ii = 0; ii < 200; ii++) {
+                int choice = random.nextInt(4);
+                if (choice == 0) {
+                    newList.remove(random.nextInt(newList.size()));
+                } else if (choice == 1) {
+                    newList.add(random.nextInt(newList.size()), new Item("new" + ii, 0));
+                } else if (choice == 2) {
+                    moves++;
+                    newList.add(random.nextInt(newList.size()), newList.remove(random.nextInt(newList.size())));
+                } else {
+                    int index = random.nextInt(newList.size());
+                    newList.set(index, new Item(newList.get(index).id, newList.get(index).content + 1));
+                }
+            }
+
+            //act
+            ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+            //assert
+            StableIdDiffCalculatorTest.RecordingList recording = assertTransforms(oldList, newList, listDiff, true);
+            // only items that moved between chunks can come out as remove + insert
+            Assert.assertTrue(recording.reinserted + " > " + moves, recording.reinserted <= moves);
+        }
+    }
+
+    @Test
+    public void whenLargeListIsShuffled_operationsTurnOldListInToNewList() {
+
+        //arrange
+        Random random = new Random(5);
+        List<Item> oldList = randomList(random, 20000);
+        List<Item> newList = new ArrayList<>(oldList);
+        Collections.shuffle(newList, random);
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        assertTransforms(oldList, newList, listDiff, true);
+    }
+
+    @Test
+    public void whenInterruptedWhileChunksAreRunning_chunksCancelled_andDiffAbandoned() throws Exception {
+
+        //arrange
+        List<Item> oldList = randomList(new Random(7), 20000);
+        List<Item> newList = new ArrayList<>(oldList);
+        newList.remove(10000);
+        ExecutorService chunkExecutor = Executors.newFixedThreadPool(4, runnable -> new Thread(runnable, "chunk"));
+        CountDownLatch chunksStarted = new CountDownLatch(3);
+        CountDownLatch chunksInterrupted = new CountDownLatch(3);
+        ParallelStableIdDiffCalculator<Item> blockingCalculator = new ParallelStableIdDiffCalculator<>(item -> {
+            // the chunks on the executor block until they are interrupted
+            if (Thread.currentThread().getName().equals("chunk") && !Thread.currentThread().isInterrupted()) {
+                chunksStarted.countDown();
+                try {
+                    new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    chunksInterrupted.countDown();
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return item.id;
+        }, chunkExecutor, 4);
+        AtomicReference<RuntimeException> thrown = new AtomicReference<>();
+        AtomicBoolean stillInterrupted = new AtomicBoolean();
+        Thread diffThread = new Thread(() -> {
+            try {
+                blockingCalculator.createListDiff(oldList, newList);
+            } catch (RuntimeException e) {
+                thrown.set(e);
+                stillInterrupted.set(Thread.currentThread().isInterrupted());
+            }
+        });
+
+        //act
+        diffThread.start();
+        Assert.assertTrue(chunksStarted.await(10, TimeUnit.SECONDS));
+        diffThread.interrupt();
+        diffThread.join(10000);
+        boolean allChunksInterrupted = chunksInterrupted.await(10, TimeUnit.SECONDS);
+        chunkExecutor.shutdownNow();
+
+        //assert
+        Assert.assertFalse(diffThread.isAlive());
+        Assert.assertTrue(thrown.get() instanceof CancellationException);
+        Assert.assertTrue(stillInterrupted.get());
+        Assert.assertTrue(allChunksInterrupted);
+    }
+
+    @Test
+    public void whenAChunkFails_otherChunksCancelled_andFailureThrown() throws Exception {
+
+        //arrange
+        List<Item> oldList = randomList(new Random(7), 20000);
+        List<Item> newList = new ArrayList<>(oldList);
+        newList.remove(10000);
+        final Object failingId = oldList.get(7000).id;
+        final Set<Object> blockingIds = new HashSet<>();
+        for (Item item : oldList.subList(10500, oldList.size())) {
+            blockingIds.add(item.id);
+        }
+        ExecutorService chunkExecutor = Executors.newFixedThreadPool(4, runnable -> new Thread(runnable, "chunk"));
+        CountDownLatch chunksStarted = new CountDownLatch(2);
+        CountDownLatch chunksInterrupted = new CountDownLatch(2);
+        ParallelStableIdDiffCalculator<Item> failingCalculator = new ParallelStableIdDiffCalculator<>(item -> {
+            if (Thread.currentThread().getName().equals("chunk") && !Thread.currentThread().isInterrupted()) {
+                if (item.id.equals(failingId)) {
+                    // the second chunk fails once the third and fourth are under way
+                    await(chunksStarted);
+                    throw new IllegalStateException("bad row");
+                } else if (blockingIds.contains(item.id)) {
+                    chunksStarted.countDown();
+                    try {
+                        new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        chunksInterrupted.countDown();
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            return item.id;
+        }, chunkExecutor, 4);
+        String failure = null;
+
+        //act
+        try {
+            failingCalculator.createListDiff(oldList, newList);
+        } catch (IllegalStateException e) {
+            failure = e.getMessage();
+        }
+        boolean otherChunksInterrupted = chunksInterrupted.await(10, TimeUnit.SECONDS);
+        chunkExecutor.shutdownNow();
+
+        //assert
+        Assert.assertEquals("bad row", failure);
+        Assert.assertTrue(otherChunksInterrupted);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package co.early.fore.adapters.immutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class PersistentListTest {
+
+    @Test
+    public void whenCreated_empty() {
+
+        //arrange
+        PersistentList<String> list = PersistentList.empty();
+
+        //act
+
+        //assert
+        Assert.assertEquals(0, list.size());
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void whenCopied_sameItemsInSameOrder() {
+
+        //arrange
+        List<Integer> source = numbers(1000);
+
+        //act
+        PersistentList<Integer> list = PersistentList.copyOf(source);
+
+        //assert
+        Assert.assertEquals(source, list);
+    }
+
+    @Test
+    public void whenTransientChanged_originalListIsUnchanged() {
+
+        //arrange
+        List<Integer> source = numbers(5000);
+        PersistentList<Integer> original = PersistentList.copyOf(source);
+
+        //act
+        PersistentList.Transient<Integer> editor = original.asTransient();
+        editor.set(10, -1);
+        editor.remove(2000);
+        editor.add(0, -2);
+        editor.add(-3);
+        PersistentList<Integer> changed = editor.persistent();
+
+        //assert
+        Assert.assertEquals(source, original);
+        Assert.assertEquals(5001, changed.size());
+        Assert.assertEquals(-2, (int) changed.get(0));
+        Assert.assertEquals(-1, (int) changed.get(11));
+        Assert.assertEquals(2001, (int) changed.get(2001));
+        Assert.assertEquals(-3, (int) changed.get(5000));
+    }
+
+    @Test
+    public void whenRandomlyChanged_behavesLikeAnArrayList() {
+
+        //arrange
+        Random random = new Random(11);
+        List<Integer> expected = new ArrayList<>();
+        PersistentList<Integer> list = PersistentList.empty();
+        List<PersistentList<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> expectedVersions = new ArrayList<>();
+
+        //act
+        for (int version = 0; version < 200; version++) {
+            PersistentList.Transient<Integer> editor = list.asTransient();
+            int changes = random.nextInt(200);
+            for (int ii = 0; ii < changes; ii++) {
+                int choice = random.nextInt(10);
+                if (choice < 5 || expected.isEmpty()) {
+                    int index = random.nextInt(expected.size() + 1);
+                    expected.add(index, ii);
+                    editor.add(index, ii);
+                } else if (choice < 8) {
+                    int index = random.nextInt(expected.size());
+                    Assert.assertEquals(expected.remove(index), editor.remove(index));
+                } else {
+                    int index = random.nextInt(expected.size());
+                    Assert.assertEquals(expected.set(index, -ii), editor.set(index, -ii));
+                }
+            }
+            list = editor.persistent();
+            versions.add(list);
+            expectedVersions.add(new ArrayList<>(expected));
+        }
+
+        //assert
+        for (int version = 0; version < versions.size(); version++) {
+            Assert.assertEquals(expectedVersions.get(version), versions.get(version));
+        }
+    }
+
+    @Test
+    public void whenAllItemsRemoved_empty() {
+
+        //arrange
+        PersistentList.Transient<Integer> editor = PersistentList.copyOf(numbers(3000)).asTransient();
+
+        //act
+        while (!editor.isEmpty()) {
+            editor.remove(editor.size() / 2);
+        }
+
+        //assert
+        Assert.assertEquals(0, editor.persistent().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenTransientUsedAfterPersistent_exceptionThrown() {
+
+        //arrange
+        PersistentList.Transient<Integer> editor = PersistentList.copyOf(numbers(10)).asTransient();
+        editor.persistent();
+
+        //act
+        editor.add(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void whenIndexOutOfRange_exceptionThrown() {
+
+        //arrange
+        PersistentList<Integer> list = PersistentList.copyOf(numbers(10));
+
+        //act
+        list.get(10);
+    }
+
+    private static List<Integer> numbers(int count) {
+        List<Integer> numbers = new ArrayList<>(count);
+        for (int ii = 0; ii < count; ii++) {
+            numbers.add(ii);
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,342 @@
+package co.early.fore.adapters.immutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+import co.early.fore.core.threading.CancellationToken;
+
+public class StableIdDiffCalculatorTest {
+
+    private final StableIdDiffCalculator<Item> calculator = new StableIdDiffCalculator<>(item -> item.id);
+
+
+    @Test
+    public void whenListsAreTheSame_noOperations() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "C");
+        List<Item> newList = items("A", "B", "C");
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        Assert.assertTrue(listDiff.isEmpty());
+    }
+
+    @Test
+    public void whenOneItemMovesToTheEnd_singleMove() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "C", "D", "E");
+        List<Item> newList = items("B", "C", "D", "E", "A");
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        Assert.assertEquals(1, listDiff.getOperationCount());
+        assertTransforms(oldList, newList, listDiff);
+    }
+
+    @Test
+    public void whenAdjacentItemsRemovedAndInserted_rangesAreMerged() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "C", "D", "E", "F");
+        List<Item> newList = items("A", "E", "X", "Y", "Z", "F");
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        Assert.assertEquals(2, listDiff.getOperationCount());
+        assertTransforms(oldList, newList, listDiff);
+    }
+
+    @Test
+    public void whenContentChanges_changesReportedAtNewPositions() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "C", "D");
+        List<Item> newList = items("X", "A", "B", "C", "D");
+        newList.set(2, new Item("B", 1));
+        newList.set(3, new Item("C", 1));
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+        RecordingList recording = assertTransforms(oldList, newList, listDiff);
+
+        //assert
+        Assert.assertEquals(new HashSet<>(Arrays.asList(2, 3)), recording.changedPositions());
+        Assert.assertEquals(2, listDiff.getOperationCount());
+    }
+
+    @Test
+    public void whenContentChanges_payloadsArePassedOn_andOnlyMatchingPayloadsMerged() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "C");
+        List<Item> newList = new ArrayList<>();
+        newList.add(new Item("A", 1));
+        newList.add(new Item("B", 1));
+        newList.add(new Item("C", 2));
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+        RecordingList recording = assertTransforms(oldList, newList, listDiff);
+
+        //assert
+        Assert.assertEquals(Arrays.asList("0,2:1", "2,1:2"), recording.changes);
+    }
+
+    @Test
+    public void whenIdsAreDuplicated_extraCopiesAreRemovedAndInserted() {
+
+        //arrange
+        List<Item> oldList = items("A", "B", "A", "C");
+        List<Item> newList = items("C", "A", "A", "B", "A");
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        assertTransforms(oldList, newList, listDiff);
+    }
+
+    @Test
+    public void whenRandomlyEdited_operationsTurnOldListInToNewList() {
+        Random random = new Random(42);
+        for (int run = 0; run < 500; run++) {
+
+            //arrange
+            List<Item> oldList = randomList(random, random.nextInt(60));
+            List<Item> newList = randomEdit(random, oldList);
+
+            //act
+            ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+            //assert
+            assertTransforms(oldList, newList, listDiff);
+        }
+    }
+
+    @Test
+    public void whenLargeListHasAFewChanges_operationsTurnOldListInToNewList() {
+
+        //arrange
+        Random random = new Random(7);
+        List<Item> oldList = randomList(random, 50000);
+        List<Item> newList = new ArrayList<>(oldList);
+        for (int ii = 0; ii < 20; ii++) {
+            newList.add(random.nextInt(newList.size()), newList.remove(random.nextInt(newList.size())));
+            newList.remove(random.nextInt(newList.size()));
+            newList.add(random.nextInt(newList.size()), new Item("new" + ii, 0));
+        }
+
+        //act
+        ListDiff listDiff = calculator.createListDiff(oldList, newList);
+
+        //assert
+        Assert.assertTrue(listDiff.getOperationCount() <= 60);
+        assertTransforms(oldList, newList, listDiff);
+    }
+
+
+    @Test
+    public void whenTokenCancelledPartWayThrough_diffIsAbandoned() {
+
+        //arrange
+        final CancellationToken cancellationToken = new CancellationToken();
+        final int[] idsExtracted = {0};
+        StableIdDiffCalculator<Item> cancellingCalculator = new StableIdDiffCalculator<>(item -> {
+            if (++idsExtracted[0] == 3) {
+                cancellationToken.cancel();
+            }
+            return item.id;
+        });
+        List<Item> oldList = items("A", "B", "C", "D", "E");
+        List<Item> newList = items("E", "D", "C", "B", "A");
+
+        //act
+        boolean exceptionThrown = false;
+        try {
+            cancellingCalculator.createListDiff(oldList, newList, cancellationToken);
+        } catch (CancellationException e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+        Assert.assertTrue(idsExtracted[0] < oldList.size() + newList.size());
+    }
+
+    static List<Item> items(String... ids) {
+        List<Item> items = new ArrayList<>();
+        for (String id : ids) {
+            items.add(new Item(id, 0));
+        }
+        return items;
+    }
+
+    static List<Item> randomList(Random random, int size) {
+        List<Item> items = new ArrayList<>();
+        for (int ii = 0; ii < size; ii++) {
+            items.add(new Item("id" + ii, random.nextInt(3)));
+        }
+        return items;
+    }
+
+    private static List<Item> randomEdit(Random random, List<Item> oldList) {
+        List<Item> newList = new ArrayList<>(oldList);
+        int edits = random.nextInt(10);
+        for (int ii = 0; ii < edits; ii++) {
+            int choice = random.nextInt(5);
+            if (choice == 0 && !newList.isEmpty()) {
+                newList.remove(random.nextInt(newList.size()));
+            } else if (choice == 1) {
+                newList.add(random.nextInt(newList.size() + 1), new Item("new" + ii, 0));
+            } else if (choice == 2 && !newList.isEmpty()) {
+                newList.add(random.nextInt(newList.size()), newList.remove(random.nextInt(newList.size())));
+            } else if (choice == 3 && !newList.isEmpty()) {
+                int index = random.nextInt(newList.size());
+                newList.set(index, new Item(newList.get(index).id, newList.get(index).content + 1));
+            } else if (choice == 4) {
+                Collections.shuffle(newList, random);
+            }
+        }
+        return newList;
+    }
+
+    /**
+     * Applies the operations to a copy of oldList the way an adapter would see them, and
+     * checks that the result lines up with newList
+     */
+    static RecordingList assertTransforms(List<Item> oldList, List<Item> newList, ListDiff listDiff) {
+        return assertTransforms(oldList, newList, listDiff, false);
+    }
+
+    /**
+     * @param movesMayBeReinserts true if an item which is in both lists is allowed to have been
+     *                            removed and inserted again, rather than moved
+     */
+    static RecordingList assertTransforms(List<Item> oldList, List<Item> newList, ListDiff listDiff, boolean movesMayBeReinserts) {
+
+        RecordingList recording = new RecordingList(oldList);
+        listDiff.dispatchUpdatesTo(recording);
+
+        Assert.assertEquals(newList.size(), recording.items.size());
+
+        Set<String> oldIds = new HashSet<>();
+        for (Item item : oldList) {
+            oldIds.add(item.id);
+        }
+        Set<Integer> changedPositions = recording.changedPositions();
+        Set<String> matchedIds = new HashSet<>();
+        for (int ii = 0; ii < newList.size(); ii++) {
+            Item expected = newList.get(ii);
+            Item actual = recording.items.get(ii);
+            boolean expectMatch = oldIds.contains(expected.id) && matchedIds.add(expected.id);
+            if (expectMatch && movesMayBeReinserts && actual == RecordingList.INSERTED) {
+                recording.reinserted++;
+            } else if (expectMatch) {
+                Assert.assertEquals("position " + ii, expected.id, actual.id);
+                Assert.assertEquals("position " + ii, expected.content != actual.content, changedPositions.contains(ii));
+            } else {
+                Assert.assertSame("position " + ii, RecordingList.INSERTED, actual);
+            }
+        }
+        return recording;
+    }
+
+    static class RecordingList implements ListDiff.Callback {
+
+        static final Item INSERTED = new Item("inserted", 0);
+
+        final List<Item> items;
+        // follows the items around as they move
+        final List<Boolean> changedFlags = new ArrayList<>();
+        final List<String> changes = new ArrayList<>();
+        int reinserted = 0;
+
+        RecordingList(List<Item> oldList) {
+            items = new ArrayList<>(oldList);
+            changedFlags.addAll(Collections.nCopies(oldList.size(), false));
+        }
+
+        @Override
+        public void onInserted(int position, int count) {
+            for (int ii = 0; ii < count; ii++) {
+                items.add(position, INSERTED);
+                changedFlags.add(position, false);
+            }
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            for (int ii = 0; ii < count; ii++) {
+                items.remove(position);
+                changedFlags.remove(position);
+            }
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            items.add(toPosition, items.remove(fromPosition));
+            changedFlags.add(toPosition, changedFlags.remove(fromPosition));
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            changes.add(position + "," + count + ":" + payload);
+            for (int ii = position; ii < position + count; ii++) {
+                changedFlags.set(ii, true);
+            }
+        }
+
+        Set<Integer> changedPositions() {
+            Set<Integer> changedPositions = new HashSet<>();
+            for (int ii = 0; ii < changedFlags.size(); ii++) {
+                if (changedFlags.get(ii)) {
+                    changedPositions.add(ii);
+                }
+            }
+            return changedPositions;
+        }
+    }
+
+    static class Item implements DiffComparator<Item> {
+
+        final String id;
+        final int content;
+
+        Item(String id, int content) {
+            this.id = id;
+            this.content = content;
+        }
+
+        @Override
+        public boolean itemsTheSame(Item other) {
+            return id.equals(other.id);
+        }
+
+        @Override
+        public boolean itemsLookTheSame(Item other) {
+            return content == other.content;
+        }
+
+        @Override
+        public Object getChangePayload(Item other) {
+            return other.content;
+        }
+    }
+}
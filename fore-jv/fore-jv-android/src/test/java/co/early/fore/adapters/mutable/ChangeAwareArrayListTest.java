@@ -0,0 +1,330 @@
+package co.early.fore.adapters.mutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import co.early.fore.adapters.immutable.ListDiff;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ChangeAwareArrayListTest {
+
+    private static final long MAX_AGE_MS = 50;
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+
+
+    @Test
+    public void whenSeveralChangesMade_withoutBatching_onlyTheLastIsReported() {
+
+        //arrange
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper);
+
+        //act
+        list.add("a");
+        list.add("b");
+        list.set(0, "c");
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_CHANGED, updateSpec.type);
+        Assert.assertEquals(0, updateSpec.rowPosition);
+        Assert.assertNull(updateSpec.changes);
+    }
+
+    @Test
+    public void whenSeveralChangesMade_withBatching_allAreReportedInOrder() {
+
+        //arrange
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper, true);
+
+        //act
+        list.add("a");
+        list.add("b");
+        list.add(0, "c");
+        list.set(2, "d");
+        list.makeAwareOfDataChange(1);
+        list.remove(0);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(UpdateSpec.UpdateType.BATCHED, updateSpec.type);
+        Assert.assertEquals(Arrays.asList(
+                "inserted 0 3",
+                "changed 1 2",
+                "removed 0 1"), recorded(updateSpec.changes));
+    }
+
+    @Test
+    public void whenRowsRemoved_withBatching_adjacentRowsAreMergedInToRanges() {
+
+        //arrange
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper, true);
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e", "f", "g"));
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+
+        //act
+        list.removeAll(Arrays.asList("b", "c", "d", "f"));
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(Arrays.asList("a", "e", "g"), list);
+        Assert.assertEquals(Arrays.asList(
+                "removed 5 1",
+                "removed 1 3"), recorded(updateSpec.changes));
+    }
+
+    @Test
+    public void whenTooManySeparateChanges_withBatching_fullUpdate() {
+
+        //arrange
+        ChangeAwareArrayList<Integer> list = new ChangeAwareArrayList<>(systemTimeWrapper, true);
+        for (int ii = 0; ii < ChangeAwareArrayList.MAX_BATCHED_OPERATIONS * 3; ii++) {
+            list.add(ii);
+        }
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+
+        //act
+        for (int ii = 0; ii <= ChangeAwareArrayList.MAX_BATCHED_OPERATIONS; ii++) {
+            list.makeAwareOfDataChange(ii * 2);
+        }
+
+        //assert
+        Assert.assertEquals(UpdateSpec.UpdateType.FULL_UPDATE, list.getAndClearLatestUpdateSpec(MAX_AGE_MS).type);
+    }
+
+    @Test
+    public void whenUpdateSpecCleared_withBatching_nextUpdateSpecIsFull() {
+
+        //arrange
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper, true);
+        list.add("a");
+
+        //act
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+
+        //assert
+        Assert.assertEquals(UpdateSpec.UpdateType.FULL_UPDATE, list.getAndClearLatestUpdateSpec(MAX_AGE_MS).type);
+    }
+
+    @Test
+    public void whenRowMoved_withoutBatching_itemMovedReported() {
+
+        //arrange
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper);
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+
+        //act
+        list.move(0, 2);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(Arrays.asList("b", "c", "a", "d"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_MOVED, updateSpec.type);
+        Assert.assertEquals(0, updateSpec.rowPosition);
+        Assert.assertEquals(2, updateSpec.toRowPosition);
+        Assert.assertEquals(1, updateSpec.rowsEffected);
+    }
+
+    @Test
+    public void whenRangeMoved_withBatching_replayedMovesGiveTheSameOrder() {
+
+        //arrange
+        List<String> rows = Arrays.asList("a", "b", "c", "d", "e", "f", "g");
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper, true);
+        list.addAll(rows);
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        final List<String> adapterRows = new ArrayList<>(rows);
+
+        //act
+        list.moveRange(1, 4, 3);
+        list.moveRange(5, 0, 2);
+
+        //assert
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS).changes.dispatchUpdatesTo(new ListDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+                Assert.fail();
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                Assert.fail();
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                adapterRows.add(toPosition, adapterRows.remove(fromPosition));
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                Assert.fail();
+            }
+        });
+        Assert.assertEquals(Arrays.asList("c", "d", "a", "e", "f", "g", "b"), list);
+        Assert.assertEquals(list, adapterRows);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void whenRangeMovedPastTheEnd_exceptionThrown() {
+
+        //arrange
+        ChangeAwareArrayList<String> list = new ChangeAwareArrayList<>(systemTimeWrapper);
+        list.addAll(Arrays.asList("a", "b", "c"));
+
+        //act
+        list.moveRange(0, 2, 2);
+    }
+
+    @Test
+    public void whenRangeMoved_withListThatDoesNotOverrideMove_affectedRowsReportedAsChanged() {
+
+        //arrange
+        ListWithoutMove<String> list = new ListWithoutMove<>(new ChangeAwareArrayList<>(systemTimeWrapper, true));
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e", "f"));
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        final List<String> adapterRows = new ArrayList<>(list);
+
+        //act
+        list.moveRange(4, 1, 2);
+
+        //assert
+        list.getAndClearLatestUpdateSpec(MAX_AGE_MS).changes.dispatchUpdatesTo(new ListDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+                adapterRows.addAll(position, list.subList(position, position + count));
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                adapterRows.subList(position, position + count).clear();
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                Assert.fail();
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                for (int ii = position; ii < position + count; ii++) {
+                    adapterRows.set(ii, list.get(ii));
+                }
+            }
+        });
+        Assert.assertEquals(Arrays.asList("a", "e", "f", "b", "c", "d"), list);
+        Assert.assertEquals(list, adapterRows);
+    }
+
+    @Test
+    public void whenRowMoved_withListThatDoesNotOverrideMove_withoutBatching_itemChangedReported() {
+
+        //arrange
+        ListWithoutMove<String> list = new ListWithoutMove<>(new ChangeAwareArrayList<>(systemTimeWrapper));
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+
+        //act
+        list.move(0, 2);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(Arrays.asList("b", "c", "a", "d"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_CHANGED, updateSpec.type);
+        Assert.assertEquals(0, updateSpec.rowPosition);
+        Assert.assertEquals(3, updateSpec.rowsEffected);
+    }
+
+    private static List<String> recorded(ListDiff changes) {
+        final List<String> recorded = new ArrayList<>();
+        changes.dispatchUpdatesTo(new ListDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+                recorded.add("inserted " + position + " " + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                recorded.add("removed " + position + " " + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                recorded.add("moved " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                recorded.add("changed " + position + " " + count);
+            }
+        });
+        return recorded;
+    }
+
+    /**
+     * A ChangeAwareList written before move() and moveRange() existed, so it gets the
+     * interface's default implementations
+     */
+    private static class ListWithoutMove<T> extends AbstractList<T> implements ChangeAwareList<T> {
+
+        private final ChangeAwareArrayList<T> list;
+
+        ListWithoutMove(ChangeAwareArrayList<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public T get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public T set(int index, T element) {
+            return list.set(index, element);
+        }
+
+        @Override
+        public void add(int index, T element) {
+            list.add(index, element);
+        }
+
+        @Override
+        public T remove(int index) {
+            return list.remove(index);
+        }
+
+        @Override
+        public void removeRange(int fromIndex, int toIndex) {
+            list.removeRange(fromIndex, toIndex);
+        }
+
+        @Override
+        public void makeAwareOfDataChange(int rowIndex) {
+            list.makeAwareOfDataChange(rowIndex);
+        }
+
+        @Override
+        public void makeAwareOfDataChange(int rowStartIndex, int rowsAffected) {
+            list.makeAwareOfDataChange(rowStartIndex, rowsAffected);
+        }
+
+        @Override
+        public UpdateSpec getAndClearLatestUpdateSpec(long maxAgeMs) {
+            return list.getAndClearLatestUpdateSpec(maxAgeMs);
+        }
+    }
+}
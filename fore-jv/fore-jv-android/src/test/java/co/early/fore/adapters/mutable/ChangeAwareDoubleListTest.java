@@ -0,0 +1,49 @@
+package co.early.fore.adapters.mutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import co.early.fore.core.time.SystemTimeWrapper;
+
+public class ChangeAwareDoubleListTest {
+
+    private static final long MAX_AGE_MS = 50;
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+
+
+    @Test
+    public void whenValuesAddedAndRemoved_remainingValuesStayInOrder() {
+
+        //arrange
+        ChangeAwareDoubleList list = new ChangeAwareDoubleList(1, systemTimeWrapper);
+
+        //act
+        list.addAll(new double[]{0.5, 1.5, 2.5});
+        list.add(1, 1.0);
+        double removed = list.remove(0);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(0.5, removed, 0);
+        Assert.assertArrayEquals(new double[]{1.0, 1.5, 2.5}, list.toArray(), 0);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_REMOVED, updateSpec.type);
+        Assert.assertEquals(0, updateSpec.rowPosition);
+    }
+
+    @Test
+    public void whenSearchingForNaN_itIsFound() {
+
+        //arrange
+        ChangeAwareDoubleList list = new ChangeAwareDoubleList(systemTimeWrapper);
+        list.addAll(new double[]{1.0, Double.NaN, 0.0});
+
+        //act
+        int nanIndex = list.indexOf(Double.NaN);
+        int negativeZeroIndex = list.indexOf(-0.0);
+
+        //assert
+        Assert.assertEquals(1, nanIndex);
+        Assert.assertEquals(-1, negativeZeroIndex);
+    }
+}
@@ -0,0 +1,54 @@
+package co.early.fore.adapters.mutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import co.early.fore.core.time.SystemTimeWrapper;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ChangeAwareLinkedListTest {
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+
+
+    @Test
+    public void whenRangeMoved_itemMovedReported() {
+
+        //arrange
+        ChangeAwareLinkedList<String> list = new ChangeAwareLinkedList<>(systemTimeWrapper);
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e"));
+
+        //act
+        list.moveRange(3, 0, 2);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(50);
+        Assert.assertEquals(Arrays.asList("d", "e", "a", "b", "c"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_MOVED, updateSpec.type);
+        Assert.assertEquals(3, updateSpec.rowPosition);
+        Assert.assertEquals(0, updateSpec.toRowPosition);
+        Assert.assertEquals(2, updateSpec.rowsEffected);
+    }
+
+    @Test
+    public void whenMovedToSamePosition_nothingChanges() {
+
+        //arrange
+        ChangeAwareLinkedList<String> list = new ChangeAwareLinkedList<>(systemTimeWrapper);
+        list.addAll(Arrays.asList("a", "b", "c"));
+        list.getAndClearLatestUpdateSpec(50);
+
+        //act
+        list.move(1, 1);
+
+        //assert
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.FULL_UPDATE, list.getAndClearLatestUpdateSpec(50).type);
+    }
+}
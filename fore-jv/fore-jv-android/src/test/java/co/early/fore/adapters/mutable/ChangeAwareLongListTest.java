@@ -0,0 +1,174 @@
+package co.early.fore.adapters.mutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import co.early.fore.adapters.immutable.ListDiff;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+public class ChangeAwareLongListTest {
+
+    private static final long MAX_AGE_MS = 50;
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+
+
+    @Test
+    public void whenValuesAddedPastCapacity_listGrows() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(2, systemTimeWrapper);
+
+        //act
+        for (long ii = 0; ii < 1000; ii++) {
+            list.add(ii * 10);
+        }
+
+        //assert
+        Assert.assertEquals(1000, list.size());
+        Assert.assertEquals(0, list.get(0));
+        Assert.assertEquals(9990, list.get(999));
+    }
+
+    @Test
+    public void whenValuesInsertedAndRemoved_remainingValuesStayInOrder() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(systemTimeWrapper);
+        list.addAll(new long[]{1, 2, 3, 4, 5});
+
+        //act
+        list.add(0, 0);
+        list.addAll(3, new long[]{20, 21});
+        long removed = list.remove(6);
+        list.removeRange(0, 3);
+
+        //assert
+        Assert.assertEquals(4, removed);
+        Assert.assertArrayEquals(new long[]{20, 21, 3, 5}, list.toArray());
+        Assert.assertEquals(2, list.indexOf(3));
+        Assert.assertFalse(list.contains(4));
+    }
+
+    @Test
+    public void whenRangeMoved_valuesAreMovedAndMoveIsReported() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(systemTimeWrapper);
+        list.addAll(new long[]{0, 1, 2, 3, 4, 5});
+
+        //act
+        list.moveRange(1, 3, 2);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertArrayEquals(new long[]{0, 3, 4, 1, 2, 5}, list.toArray());
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_MOVED, updateSpec.type);
+        Assert.assertEquals(1, updateSpec.rowPosition);
+        Assert.assertEquals(3, updateSpec.toRowPosition);
+        Assert.assertEquals(2, updateSpec.rowsEffected);
+    }
+
+    @Test
+    public void whenSeveralChangesMade_withoutBatching_onlyTheLastIsReported() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(systemTimeWrapper);
+
+        //act
+        list.add(1);
+        list.add(2);
+        long previous = list.set(0, 3);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(1, previous);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_CHANGED, updateSpec.type);
+        Assert.assertEquals(0, updateSpec.rowPosition);
+        Assert.assertEquals(UpdateSpec.UpdateType.FULL_UPDATE, list.getAndClearLatestUpdateSpec(MAX_AGE_MS).type);
+    }
+
+    @Test
+    public void whenSeveralChangesMade_withBatching_allAreReportedInOrder() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(systemTimeWrapper, true);
+
+        //act
+        list.add(1);
+        list.add(2);
+        list.add(0, 3);
+        list.set(2, 4);
+        list.makeAwareOfDataChange(1);
+        list.move(0, 2);
+        list.remove(0);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(UpdateSpec.UpdateType.BATCHED, updateSpec.type);
+        Assert.assertEquals(Arrays.asList(
+                "inserted 0 3",
+                "changed 1 2",
+                "moved 0 2",
+                "removed 0 1"), recorded(updateSpec.changes));
+    }
+
+    @Test
+    public void whenCleared_removalOfAllRowsIsReported() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(systemTimeWrapper);
+        list.addAll(new long[]{1, 2, 3});
+
+        //act
+        list.clear();
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_REMOVED, updateSpec.type);
+        Assert.assertEquals(0, updateSpec.rowPosition);
+        Assert.assertEquals(3, updateSpec.rowsEffected);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void whenGettingPastTheEnd_exceptionThrown() {
+
+        //arrange
+        ChangeAwareLongList list = new ChangeAwareLongList(10, systemTimeWrapper);
+        list.add(1);
+
+        //act
+        list.get(1);
+    }
+
+    private static List<String> recorded(ListDiff changes) {
+        final List<String> recorded = new ArrayList<>();
+        changes.dispatchUpdatesTo(new ListDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+                recorded.add("inserted " + position + " " + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                recorded.add("removed " + position + " " + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                recorded.add("moved " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                recorded.add("changed " + position + " " + count);
+            }
+        });
+        return recorded;
+    }
+}
@@ -0,0 +1,151 @@
+package co.early.fore.adapters.mutable;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import co.early.fore.adapters.immutable.ListDiff;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+public class ChangeAwareTreeListTest {
+
+    private static final long MAX_AGE_MS = 50;
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+
+
+    @Test
+    public void whenRandomlyEdited_matchesArrayList() {
+
+        //arrange
+        Random random = new Random(7);
+        ChangeAwareTreeList<Integer> list = new ChangeAwareTreeList<>(systemTimeWrapper);
+        List<Integer> expected = new ArrayList<>();
+
+        //act
+        for (int ii = 0; ii < 20000; ii++) {
+            int choice = random.nextInt(5);
+            if (choice < 2 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                list.add(index, ii);
+                expected.add(index, ii);
+            } else if (choice == 2) {
+                int index = random.nextInt(expected.size());
+                Assert.assertEquals(expected.remove(index), list.remove(index));
+            } else if (choice == 3) {
+                int index = random.nextInt(expected.size());
+                Assert.assertEquals(expected.set(index, -ii), list.set(index, -ii));
+            } else {
+                int from = random.nextInt(expected.size());
+                int to = random.nextInt(expected.size());
+                list.move(from, to);
+                expected.add(to, expected.remove(from));
+            }
+        }
+
+        //assert
+        Assert.assertEquals(expected, list);
+    }
+
+    @Test
+    public void whenInsertedInTheMiddle_insertReported() {
+
+        //arrange
+        ChangeAwareTreeList<String> list = new ChangeAwareTreeList<>(Arrays.asList("a", "b", "d"), systemTimeWrapper);
+
+        //act
+        list.add(2, "c");
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_INSERTED, updateSpec.type);
+        Assert.assertEquals(2, updateSpec.rowPosition);
+        Assert.assertEquals(1, updateSpec.rowsEffected);
+    }
+
+    @Test
+    public void whenSubListCleared_removedRangeReported() {
+
+        //arrange
+        ChangeAwareTreeList<String> list = new ChangeAwareTreeList<>(Arrays.asList("a", "b", "c", "d", "e"), systemTimeWrapper);
+
+        //act
+        list.subList(1, 4).clear();
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(Arrays.asList("a", "e"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.ITEM_REMOVED, updateSpec.type);
+        Assert.assertEquals(1, updateSpec.rowPosition);
+        Assert.assertEquals(3, updateSpec.rowsEffected);
+    }
+
+    @Test
+    public void whenRowsRemoved_withoutBatching_fullUpdateReported() {
+
+        //arrange
+        ChangeAwareTreeList<String> list = new ChangeAwareTreeList<>(systemTimeWrapper);
+        list.addAll(Arrays.asList("a", "b", "c", "d"));
+
+        //act
+        list.removeAll(Arrays.asList("b", "d"));
+
+        //assert
+        Assert.assertEquals(Arrays.asList("a", "c"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.FULL_UPDATE, list.getAndClearLatestUpdateSpec(MAX_AGE_MS).type);
+    }
+
+    @Test
+    public void whenSeveralChangesMade_withBatching_allAreReportedInOrder() {
+
+        //arrange
+        ChangeAwareTreeList<String> list = new ChangeAwareTreeList<>(systemTimeWrapper, true);
+
+        //act
+        list.addAll(Arrays.asList("a", "b", "c", "d", "e", "f", "g"));
+        list.removeAll(Arrays.asList("b", "c", "d", "f"));
+        list.moveRange(1, 0, 2);
+
+        //assert
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(MAX_AGE_MS);
+        Assert.assertEquals(Arrays.asList("e", "g", "a"), list);
+        Assert.assertEquals(UpdateSpec.UpdateType.BATCHED, updateSpec.type);
+        Assert.assertEquals(Arrays.asList(
+                "inserted 0 7",
+                "removed 5 1",
+                "removed 1 3",
+                "moved 1 0",
+                "moved 2 1"), recorded(updateSpec.changes));
+    }
+
+    private static List<String> recorded(ListDiff changes) {
+        final List<String> recorded = new ArrayList<>();
+        changes.dispatchUpdatesTo(new ListDiff.Callback() {
+            @Override
+            public void onInserted(int position, int count) {
+                recorded.add("inserted " + position + " " + count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                recorded.add("removed " + position + " " + count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                recorded.add("moved " + fromPosition + " " + toPosition);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                recorded.add("changed " + position + " " + count);
+            }
+        });
+        return recorded;
+    }
+}
@@ -0,0 +1,139 @@
+package co.early.fore.core.observer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.logging.Logger;
+import co.early.fore.core.testhelpers.ManualFrameClock;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.robolectric.shadows.ShadowLooper.runUiThreadTasks;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class CoalescingObservableGroupTest {
+
+    @Mock
+    private Logger mockLogger;
+    @Mock
+    private Observer mockObserver1;
+    @Mock
+    private Observer mockObserver2;
+
+    private ObservableImp observable1;
+    private ObservableImp observable2;
+    private ObservableImp observable3;
+
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        observable1 = new ObservableImp(WorkMode.SYNCHRONOUS);
+        observable2 = new ObservableImp(WorkMode.SYNCHRONOUS);
+        observable3 = new ObservableImp(WorkMode.SYNCHRONOUS);
+    }
+
+    @Test
+    public void whenSeveralObservablesChange_observersNotifiedOnce() {
+
+        //arrange
+        CoalescingObservableGroup observableGroup = new CoalescingObservableGroup(
+                WorkMode.ASYNCHRONOUS, mockLogger, observable1, observable2, observable3);
+        observableGroup.addObserver(mockObserver1);
+        observableGroup.addObserver(mockObserver2);
+
+        //act
+        observable1.notifyObservers();
+        observable2.notifyObservers();
+        observable3.notifyObservers();
+        verifyZeroInteractions(mockObserver1);
+        runUiThreadTasks();
+
+        //assert
+        verify(mockObserver1, times(1)).somethingChanged();
+        verify(mockObserver2, times(1)).somethingChanged();
+        Assert.assertEquals(2, observableGroup.getCoalescedNotificationCount());
+    }
+
+    @Test
+    public void whenSeveralObservablesChange_withSynchronous_observersNotifiedEachTime() {
+
+        //arrange
+        CoalescingObservableGroup observableGroup = new CoalescingObservableGroup(
+                WorkMode.SYNCHRONOUS, mockLogger, observable1, observable2, observable3);
+        observableGroup.addObserver(mockObserver1);
+
+        //act
+        observable1.notifyObservers();
+        observable2.notifyObservers();
+        observable3.notifyObservers();
+
+        //assert
+        verify(mockObserver1, times(3)).somethingChanged();
+    }
+
+    @Test
+    public void whenSeveralObservablesChange_withFrameScheduler_observersNotifiedOnNextFrame() {
+
+        //arrange
+        ManualFrameClock frameClock = new ManualFrameClock();
+        CoalescingObservableGroup observableGroup = new CoalescingObservableGroup(
+                WorkMode.ASYNCHRONOUS, mockLogger, new FrameScheduler(frameClock), observable1, observable2);
+        observableGroup.addObserver(mockObserver1);
+
+        //act
+        observable1.notifyObservers();
+        observable2.notifyObservers();
+        verifyZeroInteractions(mockObserver1);
+        frameClock.nextFrame();
+
+        //assert
+        verify(mockObserver1, times(1)).somethingChanged();
+    }
+
+    @Test
+    public void whenObserversAddedAndRemoved_groupOnlyObservesObservablesWhileItHasObservers() {
+
+        //arrange
+        CoalescingObservableGroup observableGroup = new CoalescingObservableGroup(
+                WorkMode.SYNCHRONOUS, mockLogger, observable1, observable2);
+
+        //act, assert
+        Assert.assertFalse(observable1.hasObservers());
+        observableGroup.addObserver(mockObserver1);
+        observableGroup.addObserver(mockObserver2);
+        Assert.assertTrue(observable1.hasObservers());
+        Assert.assertTrue(observable2.hasObservers());
+        observableGroup.removeObserver(mockObserver1);
+        Assert.assertTrue(observable1.hasObservers());
+        observableGroup.removeObserver(mockObserver2);
+        Assert.assertFalse(observable1.hasObservers());
+        Assert.assertFalse(observable2.hasObservers());
+    }
+
+    @Test
+    public void whenInitialisedWithNullObservable_throwsException() {
+
+        //arrange
+        boolean exceptionThrown = false;
+
+        //act
+        try {
+            new CoalescingObservableGroup(WorkMode.SYNCHRONOUS, mockLogger, observable1, null);
+        } catch (Exception e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+    }
+}
@@ -0,0 +1,124 @@
+package co.early.fore.core.observer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.logging.SystemLogger;
+import co.early.fore.core.testhelpers.ManualFrameClock;
+
+public class FrameSchedulerTest {
+
+    private ManualFrameClock frameClock;
+    private FrameScheduler frameScheduler;
+    private List<String> flushed;
+
+    @Before
+    public void setUp() {
+        frameClock = new ManualFrameClock();
+        frameScheduler = new FrameScheduler(frameClock);
+        flushed = new ArrayList<>();
+    }
+
+    @Test
+    public void whenFlushesScheduled_nothingRunsUntilNextFrame() {
+
+        //arrange
+        frameScheduler.schedule(() -> flushed.add("a"));
+        frameScheduler.schedule(() -> flushed.add("b"));
+
+        //act
+        Assert.assertEquals(0, flushed.size());
+        frameClock.nextFrame();
+
+        //assert
+        Assert.assertEquals(2, flushed.size());
+        Assert.assertEquals("a", flushed.get(0));
+        Assert.assertEquals("b", flushed.get(1));
+        Assert.assertFalse(frameClock.isFrameRequested());
+    }
+
+    @Test
+    public void whenFlushScheduledDuringFrame_runsOnFollowingFrame() {
+
+        //arrange
+        frameScheduler.schedule(() -> {
+            flushed.add("a");
+            frameScheduler.schedule(() -> flushed.add("b"));
+        });
+
+        //act
+        frameClock.nextFrame();
+        Assert.assertEquals(1, flushed.size());
+        Assert.assertTrue(frameClock.isFrameRequested());
+        frameClock.nextFrame();
+
+        //assert
+        Assert.assertEquals(2, flushed.size());
+        Assert.assertEquals("b", flushed.get(1));
+    }
+
+    @Test
+    public void whenFlushThrows_remainingFlushesStillRun() {
+
+        //arrange
+        frameScheduler.schedule(() -> {
+            throw new RuntimeException("flush failed");
+        });
+        frameScheduler.schedule(() -> flushed.add("b"));
+
+        //act
+        boolean exceptionThrown = false;
+        try {
+            frameClock.nextFrame();
+        } catch (RuntimeException e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+        Assert.assertEquals(1, flushed.size());
+    }
+
+    @Test
+    public void whenSameObserverMarkedTwiceInOneFrame_onlyFirstMarkSucceeds() {
+
+        //arrange
+        Observer observer = () -> {};
+        boolean[] marks = new boolean[3];
+        frameScheduler.schedule(() -> marks[0] = frameScheduler.markNotifiedThisFrame(observer));
+        frameScheduler.schedule(() -> marks[1] = frameScheduler.markNotifiedThisFrame(observer));
+
+        //act
+        frameClock.nextFrame();
+        frameScheduler.schedule(() -> marks[2] = frameScheduler.markNotifiedThisFrame(observer));
+        frameClock.nextFrame();
+
+        //assert
+        Assert.assertTrue(marks[0]);
+        Assert.assertFalse(marks[1]);
+        Assert.assertTrue(marks[2]);
+    }
+
+    /**
+     * No Robolectric here, so this would blow up if a SYNCHRONOUS observable went anywhere
+     * near the main Looper or the Choreographer
+     */
+    @Test
+    public void whenSynchronousAndFrameAligned_observersNotifiedImmediately() {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, new SystemLogger(), DispatchMode.FRAME_ALIGNED);
+        observable.addObserver(() -> flushed.add("notified"));
+
+        //act
+        observable.notifyObservers();
+
+        //assert
+        Assert.assertEquals(1, flushed.size());
+    }
+}
@@ -0,0 +1,135 @@
+package co.early.fore.core.observer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.logging.Logger;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class NotificationTimingTest {
+
+    private static final long ONE_MS = 1_000_000L;
+
+    @Mock
+    private Logger mockLogger;
+    @Mock
+    private NotificationTimingSink mockSink;
+    @Mock
+    private SystemTimeWrapper mockSystemTimeWrapper;
+    @Mock
+    private Observer mockObserver1;
+    @Mock
+    private Observer mockObserver2;
+
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @After
+    public void tearDown() {
+        NotificationTiming.uninstall();
+    }
+
+    @Test
+    public void whenTimingInstalled_eachObserverCallIsTimed_andSlowObserverIsOverBudget() throws Exception {
+
+        //arrange
+        NotificationTiming.install(mockSink, 4, mockSystemTimeWrapper);
+        // notify, observer1 start/stop, observer2 start/stop
+        when(mockSystemTimeWrapper.nanoTime()).thenReturn(0L, 0L, ONE_MS, ONE_MS, 11 * ONE_MS);
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+        observable.addObserver(mockObserver1);
+        observable.addObserver(mockObserver2);
+
+        //act
+        observable.notifyObservers();
+
+        //assert
+        verify(mockSink, times(1)).onNotify(observable, 0L);
+        verify(mockSink, times(1)).onObserverCalled(observable, mockObserver1, ONE_MS, false);
+        verify(mockSink, times(1)).onObserverCalled(observable, mockObserver2, 10 * ONE_MS, true);
+    }
+
+    @Test
+    public void whenTimingUninstalled_sinkIsNotCalled() throws Exception {
+
+        //arrange
+        NotificationTiming.install(mockSink, 4, mockSystemTimeWrapper);
+        NotificationTiming.uninstall();
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+        observable.addObserver(mockObserver1);
+
+        //act
+        observable.notifyObservers();
+
+        //assert
+        verify(mockObserver1, times(1)).somethingChanged();
+        verifyZeroInteractions(mockSink);
+        verifyZeroInteractions(mockSystemTimeWrapper);
+    }
+
+    @Test
+    public void whenObserverOverBudget_withLoggingSink_warningLogged() throws Exception {
+
+        //arrange
+        LoggingNotificationTimingSink sink = new LoggingNotificationTimingSink(mockLogger);
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+
+        //act
+        sink.onObserverCalled(observable, mockObserver1, ONE_MS, false);
+        sink.onObserverCalled(observable, mockObserver2, 10 * ONE_MS, true);
+
+        //assert
+        verify(mockLogger, times(1)).w(anyString(), anyString());
+    }
+
+    @Test
+    public void whenNotifiedTooOften_withLoggingSink_warningLoggedOncePerSecond() throws Exception {
+
+        //arrange
+        LoggingNotificationTimingSink sink = new LoggingNotificationTimingSink(mockLogger, 10);
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+
+        //act
+        for (int ii = 0; ii < 30; ii++) {
+            sink.onNotify(observable, ii * ONE_MS);
+        }
+
+        //assert
+        verify(mockLogger, times(1)).w(eq("LoggingNotificationTimingSink"), anyString());
+    }
+
+    @Test
+    public void whenNotifiedSlowly_withLoggingSink_noWarningLogged() throws Exception {
+
+        //arrange
+        LoggingNotificationTimingSink sink = new LoggingNotificationTimingSink(mockLogger, 10);
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+
+        //act
+        for (int ii = 0; ii < 30; ii++) {
+            sink.onNotify(observable, ii * 200 * ONE_MS);
+        }
+
+        //assert
+        verifyZeroInteractions(mockLogger);
+    }
+}
@@ -0,0 +1,174 @@
+package co.early.fore.core.observer;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import co.early.fore.core.WorkMode;
+import co.early.fore.core.logging.SystemLogger;
+import co.early.fore.core.testhelpers.ManualFrameClock;
+
+import static android.os.Looper.getMainLooper;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Checks that once the observers have been added, notifying them allocates nothing at all
+ * (measured with the JVM's per thread allocation counter, so only runs on JVMs that have one)
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ObservableImpAllocationTest {
+
+    private static final int WARM_UP = 20000;
+    private static final int ITERATIONS = 100000;
+    // 3 posts per notification, so a batch fits in android's Message pool (50)
+    private static final int BATCH_SIZE = 10;
+
+    private final int[] notificationCount = new int[1];
+    private final Observer countingObserver1 = () -> notificationCount[0]++;
+    private final Observer countingObserver2 = () -> notificationCount[0]++;
+    private final Observer countingObserver3 = () -> notificationCount[0]++;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+
+
+    @Before
+    public void setUp() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        notificationCount[0] = 0;
+    }
+
+    @Test
+    public void whenNotifyingSynchronously_nothingIsAllocated() {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS);
+        addObservers(observable);
+        for (int ii = 0; ii < WARM_UP; ii++) {
+            observable.notifyObservers();
+        }
+
+        //act
+        long before = allocatedBytes();
+        for (int ii = 0; ii < ITERATIONS; ii++) {
+            observable.notifyObservers();
+        }
+        long allocated = allocatedBytes() - before;
+
+        //assert
+        Assert.assertEquals(3 * (WARM_UP + ITERATIONS), notificationCount[0]);
+        assertLessThanOneBytePerNotification(allocated);
+    }
+
+    @Test
+    public void whenNotifyingFrameAligned_nothingIsAllocated() {
+
+        //arrange
+        ManualFrameClock frameClock = new ManualFrameClock();
+        ObservableImp observable = new ObservableImp(WorkMode.ASYNCHRONOUS, new SystemLogger(), new FrameScheduler(frameClock));
+        addObservers(observable);
+        for (int ii = 0; ii < WARM_UP; ii++) {
+            observable.notifyObservers();
+            observable.notifyObservers();
+            frameClock.nextFrame();
+        }
+
+        //act
+        long before = allocatedBytes();
+        for (int ii = 0; ii < ITERATIONS; ii++) {
+            observable.notifyObservers();
+            observable.notifyObservers();
+            frameClock.nextFrame();
+        }
+        long allocated = allocatedBytes() - before;
+
+        //assert
+        Assert.assertEquals(3 * (WARM_UP + ITERATIONS), notificationCount[0]);
+        Assert.assertEquals(WARM_UP + ITERATIONS, observable.getCoalescedNotificationCount());
+        assertLessThanOneBytePerNotification(allocated);
+    }
+
+    /**
+     * Notifications from a background thread are posted to the UI thread, each observer's
+     * ObserverEntry is the Runnable that gets posted, so there is nothing to allocate per
+     * notification (the Messages come from android's pool, and go back to it once the looper
+     * has run them)
+     */
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenNotifyingAsynchronouslyFromABackgroundThread_nothingIsAllocated() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.ASYNCHRONOUS, new SystemLogger(), DispatchMode.IMMEDIATE);
+        addObservers(observable);
+        ExecutorService backgroundThread = Executors.newSingleThreadExecutor();
+
+        try {
+            notifyFromBackgroundThread(backgroundThread, observable, WARM_UP);
+
+            //act
+            long allocated = notifyFromBackgroundThread(backgroundThread, observable, ITERATIONS);
+
+            //assert
+            Assert.assertEquals(3 * (WARM_UP + ITERATIONS), notificationCount[0]);
+            assertLessThanOneBytePerNotification(allocated);
+        } finally {
+            backgroundThread.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the bytes allocated by the notifyObservers() calls themselves
+     */
+    private long notifyFromBackgroundThread(ExecutorService backgroundThread, ObservableImp observable,
+                                            int notifications) throws Exception {
+
+        final ShadowLooper mainLooper = shadowOf(getMainLooper());
+        final long[] allocated = new long[1];
+
+        for (int batch = 0; batch < notifications / BATCH_SIZE; batch++) {
+            backgroundThread.submit(() -> {
+                for (int ii = 0; ii < BATCH_SIZE; ii++) {
+                    long before = allocatedBytes();
+                    observable.notifyObservers();
+                    allocated[0] += allocatedBytes() - before;
+                }
+            }).get();
+            // nothing runs until the paused looper is idled
+            Assert.assertFalse(mainLooper.isIdle());
+            mainLooper.idle();
+        }
+
+        return allocated[0];
+    }
+
+    private void addObservers(ObservableImp observable) {
+        observable.addObserver(countingObserver1);
+        observable.addObserver(countingObserver2);
+        observable.addObserver(countingObserver3);
+    }
+
+    private long allocatedBytes() {
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private void assertLessThanOneBytePerNotification(long allocated) {
+        // the allocation counter itself allocates a few bytes, there is no way to get this to 0
+        Assert.assertTrue("allocated " + allocated + " bytes for " + ITERATIONS + " notifications", allocated < ITERATIONS);
+    }
+}
@@ -14,12 +14,18 @@ import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.lang.ref.WeakReference;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import co.early.fore.core.WorkMode;
 import co.early.fore.core.logging.Logger;
 import co.early.fore.core.logging.SystemLogger;
+import co.early.fore.core.testhelpers.ManualFrameClock;
+import co.early.fore.core.threading.CancellationToken;
 
 import static co.early.fore.core.testhelpers.CountDownLatchWrapper.runInBatch;
 import static org.mockito.Matchers.any;
@@ -458,6 +464,281 @@ public class ObserverTest {
         Assert.assertTrue(observable.hasObservers());
     }
 
+    @Test
+    public void whenObserverRemovesItselfDuringNotification_remainingObserversStillNotified() throws Exception {
+
+        //arrange
+        Observable observable = new ObservableImp(WorkMode.SYNCHRONOUS);
+        Observer selfRemovingObserver = new Observer() {
+            @Override
+            public void somethingChanged() {
+                observable.removeObserver(this);
+            }
+        };
+        observable.addObserver(selfRemovingObserver);
+        observable.addObserver(mockObserver1);
+
+        //act
+        observable.notifyObservers();
+        observable.notifyObservers();
+
+        //assert
+        verify(mockObserver1, times(2)).somethingChanged();
+        Assert.assertTrue(observable.hasObservers());
+    }
+
+    @Test
+    public void whenAddingAndRemovingObserversOnDifferentThreads_noObserversAreLost() throws Exception {
+
+        //arrange
+        Observable observable = new ObservableImp(WorkMode.SYNCHRONOUS);
+        int loop = 10000;
+        AtomicInteger counter = new AtomicInteger();
+        CountDownLatch countDownLatch = new CountDownLatch(loop);
+        ExecutorService executorService = Executors.newFixedThreadPool(10);
+
+        //act
+        for (int ii = 0; ii < loop; ii++) {
+            final boolean remove = ii % 2 == 0;
+            executorService.execute(() -> {
+                Observer observer = counter::incrementAndGet;
+                observable.addObserver(observer);
+                observable.notifyObservers();
+                if (remove) {
+                    observable.removeObserver(observer);
+                }
+                countDownLatch.countDown();
+            });
+        }
+        boolean allFinished = countDownLatch.await(10, TimeUnit.SECONDS);
+        executorService.shutdown();
+        counter.set(0);
+        observable.notifyObservers();
+
+        //assert
+        Assert.assertTrue(allFinished);
+        Assert.assertEquals(loop / 2, counter.get());
+    }
+
+    @Test
+    public void whenNotifiedManyTimes_withCoalescedDispatch_observersNotifiedOnce() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.ASYNCHRONOUS, mockLogger, DispatchMode.COALESCED);
+        observable.addObserver(mockObserver1);
+        observable.addObserver(mockObserver2);
+
+        //act
+        for (int ii = 0; ii < 200; ii++) {
+            observable.notifyObservers();
+        }
+        verifyZeroInteractions(mockObserver1);
+        runUiThreadTasks();
+
+        //assert
+        verify(mockObserver1, times(1)).somethingChanged();
+        verify(mockObserver2, times(1)).somethingChanged();
+        Assert.assertEquals(1, observable.getDispatchedNotificationCount());
+        Assert.assertEquals(199, observable.getCoalescedNotificationCount());
+    }
+
+    @Test
+    public void whenNotifiedAfterDispatch_withCoalescedDispatch_observersNotifiedAgain() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.ASYNCHRONOUS, mockLogger, DispatchMode.COALESCED);
+        observable.addObserver(mockObserver1);
+
+        //act
+        observable.notifyObservers();
+        observable.notifyObservers();
+        runUiThreadTasks();
+        observable.notifyObservers();
+        runUiThreadTasks();
+
+        //assert
+        verify(mockObserver1, times(2)).somethingChanged();
+        Assert.assertEquals(2, observable.getDispatchedNotificationCount());
+        Assert.assertEquals(1, observable.getCoalescedNotificationCount());
+    }
+
+    @Test
+    public void whenNotifiedManyTimes_withCoalescedDispatchButSynchronous_observersNotifiedEveryTime() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger, DispatchMode.COALESCED);
+        observable.addObserver(mockObserver1);
+
+        //act
+        observable.notifyObservers();
+        observable.notifyObservers();
+        observable.notifyObservers();
+
+        //assert
+        verify(mockObserver1, times(3)).somethingChanged();
+        Assert.assertEquals(0, observable.getCoalescedNotificationCount());
+    }
+
+    @Test
+    public void whenSeveralFrameAlignedObservablesNotified_sharedObserverNotifiedOncePerFrame() throws Exception {
+
+        //arrange
+        ManualFrameClock frameClock = new ManualFrameClock();
+        FrameScheduler frameScheduler = new FrameScheduler(frameClock);
+        ObservableImp observable1 = new ObservableImp(WorkMode.ASYNCHRONOUS, mockLogger, frameScheduler);
+        ObservableImp observable2 = new ObservableImp(WorkMode.ASYNCHRONOUS, mockLogger, frameScheduler);
+        ObservableGroup observableGroup = new ObservableGroupImp(observable1, observable2);
+        observableGroup.addObserver(mockObserver1);
+        observable2.addObserver(mockObserver2);
+
+        //act
+        observable1.notifyObservers();
+        observable2.notifyObservers();
+        observable1.notifyObservers();
+        verifyZeroInteractions(mockObserver1);
+        verifyZeroInteractions(mockObserver2);
+        frameClock.nextFrame();
+
+        //assert
+        verify(mockObserver1, times(1)).somethingChanged();
+        verify(mockObserver2, times(1)).somethingChanged();
+        Assert.assertEquals(1, observable1.getCoalescedNotificationCount());
+        Assert.assertFalse(frameClock.isFrameRequested());
+    }
+
+    @Test
+    public void whenNotifiedOnConsecutiveFrames_withFrameAlignedDispatch_observersNotifiedEachFrame() throws Exception {
+
+        //arrange
+        ManualFrameClock frameClock = new ManualFrameClock();
+        ObservableImp observable = new ObservableImp(WorkMode.ASYNCHRONOUS, mockLogger, new FrameScheduler(frameClock));
+        observable.addObserver(mockObserver1);
+
+        //act
+        observable.notifyObservers();
+        frameClock.nextFrame();
+        frameClock.nextFrame();
+        observable.notifyObservers();
+        frameClock.nextFrame();
+
+        //assert
+        verify(mockObserver1, times(2)).somethingChanged();
+        Assert.assertEquals(2, observable.getDispatchedNotificationCount());
+    }
+
+    @Test
+    public void whenWeakObserverIsGarbageCollected_withoutBeingRemoved_itIsPurged() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger, DispatchMode.IMMEDIATE, true);
+        AtomicInteger leakedObserverCount = new AtomicInteger();
+        observable.addObserver(mockObserver1);
+        WeakReference<Observer> leakedObserver = addUnreferencedObserver(observable, leakedObserverCount);
+        collectGarbage(leakedObserver);
+
+        //act
+        observable.notifyObservers();
+
+        //assert
+        Assert.assertNull(leakedObserver.get());
+        Assert.assertEquals(0, leakedObserverCount.get());
+        Assert.assertEquals(1, observable.getPurgedObserverCount());
+        verify(mockObserver1, times(1)).somethingChanged();
+        Assert.assertTrue(observable.hasObservers());
+    }
+
+    @Test
+    public void whenWeakObserverIsStillReferenced_itIsNotPurged() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger, DispatchMode.IMMEDIATE, true);
+        AtomicInteger count = new AtomicInteger();
+        Observer observer = count::incrementAndGet;
+        observable.addObserver(observer);
+        collectGarbage(new WeakReference<>(new Object()));
+
+        //act
+        observable.notifyObservers();
+
+        //assert
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(0, observable.getPurgedObserverCount());
+        observable.removeObserver(observer);
+        Assert.assertFalse(observable.hasObservers());
+    }
+
+    @Test
+    public void whenStrongObserverIsNoLongerReferencedElsewhere_itIsStillNotified() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+        AtomicInteger count = new AtomicInteger();
+        WeakReference<Observer> observer = addUnreferencedObserver(observable, count);
+        collectGarbage(new WeakReference<>(new Object()));
+
+        //act
+        observable.notifyObservers();
+
+        //assert
+        Assert.assertNotNull(observer.get());
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(0, observable.getPurgedObserverCount());
+    }
+
+    @Test
+    public void whenLastObserverRemoved_unobservedTokenIsCancelled() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+        Observer observer1 = () -> {};
+        Observer observer2 = () -> {};
+        observable.addObserver(observer1);
+        observable.addObserver(observer2);
+        CancellationToken token = observable.cancelledWhenUnobserved();
+
+        //act
+        observable.removeObserver(observer1);
+        boolean cancelledWithOneObserverLeft = token.isCancelled();
+        observable.removeObserver(observer2);
+
+        //assert
+        Assert.assertFalse(cancelledWithOneObserverLeft);
+        Assert.assertTrue(token.isCancelled());
+        Assert.assertNotSame(token, observable.cancelledWhenUnobserved());
+        Assert.assertFalse(observable.cancelledWhenUnobserved().isCancelled());
+    }
+
+    @Test
+    public void whenUnobservedTokenRequested_withNoObservers_cancelledAfterNextObserverLeaves() throws Exception {
+
+        //arrange
+        ObservableImp observable = new ObservableImp(WorkMode.SYNCHRONOUS, mockLogger);
+        Observer observer = () -> {};
+        CancellationToken token = observable.cancelledWhenUnobserved();
+
+        //act
+        observable.addObserver(observer);
+        boolean cancelledWhileObserved = token.isCancelled();
+        observable.removeObserver(observer);
+
+        //assert
+        Assert.assertFalse(cancelledWhileObserved);
+        Assert.assertTrue(token.isCancelled());
+    }
+
+    private static WeakReference<Observer> addUnreferencedObserver(Observable observable, AtomicInteger count) {
+        Observer observer = count::incrementAndGet;
+        observable.addObserver(observer);
+        return new WeakReference<>(observer);
+    }
+
+    private static void collectGarbage(WeakReference<?> reference) throws InterruptedException {
+        for (int ii = 0; ii < 50 && reference.get() != null; ii++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
 
     /**
      * The handling of threads and loopers in Robolectric is a bit basic unfortunately,
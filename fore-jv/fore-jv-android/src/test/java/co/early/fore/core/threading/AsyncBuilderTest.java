@@ -0,0 +1,131 @@
+package co.early.fore.core.threading;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import co.early.fore.core.WorkMode;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AsyncBuilderTest {
+
+    private final Executor failingExecutor = runnable -> Assert.fail("executor should not be used when SYNCHRONOUS");
+
+
+    @Test
+    public void whenExecuted_withSynchronousWorkMode_runsInOrderBeforeReturning() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+
+        //act
+        new AsyncBuilder<String, Integer>(WorkMode.SYNCHRONOUS, failingExecutor)
+                .onPreExecute(() -> calls.add("pre"))
+                .doInBackground(inputs -> {
+                    calls.add("background " + inputs[0]);
+                    return 7;
+                })
+                .onPostExecute(result -> calls.add("post " + result))
+                .execute("input");
+
+        //assert
+        Assert.assertEquals(3, calls.size());
+        Assert.assertEquals("pre", calls.get(0));
+        Assert.assertEquals("background input", calls.get(1));
+        Assert.assertEquals("post 7", calls.get(2));
+    }
+
+    @Test
+    public void whenCancelledDuringBackgroundWork_onCancelledCalledInsteadOfOnPostExecute() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+
+        //act
+        Async<Void, Void, Integer> async = new AsyncBuilder<Void, Integer>(WorkMode.SYNCHRONOUS)
+                .doInBackgroundCancellable((cancellationToken, inputs) -> {
+                    calls.add("background");
+                    cancellationToken.cancel();
+                    cancellationToken.throwIfCancelled();
+                    calls.add("not reached");
+                    return 1;
+                })
+                .onPostExecute(result -> calls.add("post"))
+                .onCancelled(() -> calls.add("cancelled"))
+                .execute();
+
+        //assert
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("background", calls.get(0));
+        Assert.assertEquals("cancelled", calls.get(1));
+        Assert.assertTrue(async.getCancellationToken().isCancelled());
+    }
+
+    @Test
+    public void whenParentTokenAlreadyCancelled_backgroundWorkIsSkipped() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+        CancellationToken screenToken = new CancellationToken();
+        screenToken.cancel();
+
+        //act
+        new AsyncBuilder<Void, Integer>(WorkMode.SYNCHRONOUS)
+                .cancellationToken(screenToken)
+                .doInBackground(inputs -> {
+                    calls.add("background");
+                    return 1;
+                })
+                .onPostExecute(result -> calls.add("post"))
+                .onCancelled(() -> calls.add("cancelled"))
+                .execute();
+
+        //assert
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("cancelled", calls.get(0));
+    }
+
+    @Test
+    public void whenParentTokenCancelled_afterTaskCompleted_taskTokenIsUnaffected() {
+
+        //arrange
+        CancellationToken screenToken = new CancellationToken();
+        Async<Void, Void, Integer> async = new AsyncBuilder<Void, Integer>(WorkMode.SYNCHRONOUS)
+                .cancellationToken(screenToken)
+                .doInBackground(inputs -> 1)
+                .execute();
+
+        //act
+        screenToken.cancel();
+
+        //assert
+        Assert.assertFalse(async.getCancellationToken().isCancelled());
+    }
+
+    @Test
+    public void whenExecutedTwice_exceptionThrown() {
+
+        //arrange
+        AsyncBuilder<Void, Integer> asyncBuilder = new AsyncBuilder<Void, Integer>(WorkMode.SYNCHRONOUS)
+                .doInBackground(inputs -> 1);
+        asyncBuilder.execute();
+        boolean exceptionThrown = false;
+
+        //act
+        try {
+            asyncBuilder.execute();
+        } catch (IllegalStateException e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+    }
+}
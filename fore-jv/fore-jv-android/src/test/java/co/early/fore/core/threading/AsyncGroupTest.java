@@ -0,0 +1,347 @@
+package co.early.fore.core.threading;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import co.early.fore.core.WorkMode;
+
+import static android.os.Looper.getMainLooper;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AsyncGroupTest {
+
+    @Test
+    public void whenAllTasksSucceed_resultsAvailableInOnSuccess() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+        AsyncGroup group = new AsyncGroup(WorkMode.SYNCHRONOUS);
+        AsyncGroup.Task<Integer> count = group.add(() -> 3);
+        AsyncGroup.Task<String> label = group.addCancellable(cancellationToken -> "items");
+
+        //act
+        group.onSuccess(() -> calls.add(count.get() + " " + label.get()))
+                .onFailure(throwable -> calls.add("failure"))
+                .execute();
+
+        //assert
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("3 items", calls.get(0));
+    }
+
+    @Test
+    public void whenATaskFails_remainingTasksSkipped_andFirstFailureDelivered() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+        IllegalStateException failure = new IllegalStateException("db unavailable");
+        AsyncGroup group = new AsyncGroup(WorkMode.SYNCHRONOUS);
+        group.add(() -> calls.add("task 1"));
+        group.add(() -> {
+            throw failure;
+        });
+        group.add(() -> calls.add("task 3"));
+
+        //act
+        group.onSuccess(() -> calls.add("success"))
+                .onFailure(throwable -> calls.add("failure " + throwable.getMessage()))
+                .execute();
+
+        //assert
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("task 1", calls.get(0));
+        Assert.assertEquals("failure db unavailable", calls.get(1));
+        Assert.assertTrue(group.getCancellationToken().isCancelled());
+    }
+
+    @Test
+    public void whenATaskFails_withNoOnFailure_failureIsThrown() {
+
+        //arrange
+        AsyncGroup group = new AsyncGroup(WorkMode.SYNCHRONOUS);
+        group.add(() -> {
+            throw new IllegalStateException("db unavailable");
+        });
+        boolean exceptionThrown = false;
+
+        //act
+        try {
+            group.execute();
+        } catch (IllegalStateException e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+    }
+
+    @Test
+    public void whenParentTokenCancelled_tasksSkipped_andOnCancelledCalled() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+        CancellationToken screenToken = new CancellationToken();
+        screenToken.cancel();
+        AsyncGroup group = new AsyncGroup(WorkMode.SYNCHRONOUS);
+        group.add(() -> calls.add("task"));
+
+        //act
+        group.cancellationToken(screenToken)
+                .onSuccess(() -> calls.add("success"))
+                .onCancelled(() -> calls.add("cancelled"))
+                .execute();
+
+        //assert
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("cancelled", calls.get(0));
+    }
+
+    @Test
+    public void whenResultRequested_beforeGroupCompleted_exceptionThrown() {
+
+        //arrange
+        AsyncGroup group = new AsyncGroup(WorkMode.SYNCHRONOUS);
+        AsyncGroup.Task<Integer> count = group.add(() -> 3);
+        boolean exceptionThrown = false;
+
+        //act
+        try {
+            count.get();
+        } catch (IllegalStateException e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenAllTasksSucceed_withAsynchronousWorkMode_tasksRunInParallel_andOnSuccessCalledOnceOnUiThread() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        List<String> calls = new ArrayList<>();
+        AtomicBoolean calledOnUiThread = new AtomicBoolean();
+        AsyncGroup group = new AsyncGroup(WorkMode.ASYNCHRONOUS, executor);
+        AsyncGroup.Task<Boolean> task1 = group.add(() -> startAndWaitForOthers(allStarted));
+        AsyncGroup.Task<Boolean> task2 = group.add(() -> startAndWaitForOthers(allStarted));
+        AsyncGroup.Task<Boolean> task3 = group.add(() -> startAndWaitForOthers(allStarted));
+
+        //act
+        group.onSuccess(() -> {
+                    calls.add("success " + task1.get() + " " + task2.get() + " " + task3.get());
+                    calledOnUiThread.set(Looper.myLooper() == Looper.getMainLooper());
+                })
+                .onFailure(throwable -> calls.add("failure"))
+                .execute();
+        waitForTasks(executor);
+        shadowOf(getMainLooper()).idle();
+
+        //assert
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("success true true true", calls.get(0));
+        Assert.assertTrue(calledOnUiThread.get());
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenATaskFails_withAsynchronousWorkMode_blockedSiblingInterrupted_andOnFailureCalledOnce() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        AtomicBoolean siblingInterrupted = new AtomicBoolean();
+        List<String> calls = new ArrayList<>();
+        AsyncGroup group = new AsyncGroup(WorkMode.ASYNCHRONOUS, executor);
+        group.add(() -> {
+            siblingStarted.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                siblingInterrupted.set(true);
+            }
+            return null;
+        });
+        group.add(() -> {
+            await(siblingStarted);
+            throw new IllegalStateException("db unavailable");
+        });
+
+        //act
+        group.onSuccess(() -> calls.add("success"))
+                .onFailure(throwable -> calls.add("failure " + throwable.getMessage()))
+                .onCancelled(() -> calls.add("cancelled"))
+                .execute();
+        waitForTasks(executor);
+        shadowOf(getMainLooper()).idle();
+
+        //assert
+        Assert.assertTrue(siblingInterrupted.get());
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("failure db unavailable", calls.get(0));
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenSiblingInterrupted_withAsynchronousWorkMode_poolThreadsNotLeftInterrupted() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch siblingStarted = new CountDownLatch(1);
+        AtomicBoolean siblingInterrupted = new AtomicBoolean();
+        AsyncGroup group = new AsyncGroup(WorkMode.ASYNCHRONOUS, executor);
+        group.add(() -> {
+            siblingStarted.countDown();
+            // spins rather than blocking, so the interrupt isn't cleared by an InterruptedException
+            long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!Thread.currentThread().isInterrupted() && System.nanoTime() < giveUpAt) {
+                Thread.yield();
+            }
+            siblingInterrupted.set(Thread.currentThread().isInterrupted());
+            return null;
+        });
+        group.add(() -> {
+            await(siblingStarted);
+            throw new IllegalStateException("db unavailable");
+        });
+        group.onFailure(throwable -> {});
+
+        //act
+        group.execute();
+        CountDownLatch bothThreadsBusy = new CountDownLatch(2);
+        Future<Boolean> nextTask1 = executor.submit(() -> startAndCheckInterrupted(bothThreadsBusy));
+        Future<Boolean> nextTask2 = executor.submit(() -> startAndCheckInterrupted(bothThreadsBusy));
+        boolean nextTask1Interrupted = nextTask1.get(5, TimeUnit.SECONDS);
+        boolean nextTask2Interrupted = nextTask2.get(5, TimeUnit.SECONDS);
+        waitForTasks(executor);
+        shadowOf(getMainLooper()).idle();
+
+        //assert
+        Assert.assertTrue(siblingInterrupted.get());
+        Assert.assertFalse(nextTask1Interrupted);
+        Assert.assertFalse(nextTask2Interrupted);
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenExecutorRejectsATask_withAsynchronousWorkMode_remainingTasksNotSubmitted_andOnFailureCalledOnce() throws Exception {
+
+        //arrange
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        AtomicInteger submitted = new AtomicInteger();
+        Executor acceptsOnlyOne = runnable -> {
+            if (submitted.incrementAndGet() > 1) {
+                // so that task 1 is already running when the group is cancelled
+                await(firstStarted);
+                throw new RejectedExecutionException("queue full");
+            }
+            pool.execute(runnable);
+        };
+        List<String> calls = new ArrayList<>();
+        AsyncGroup group = new AsyncGroup(WorkMode.ASYNCHRONOUS, acceptsOnlyOne);
+        group.add(() -> {
+            firstStarted.countDown();
+            try {
+                Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                calls.add("task 1 interrupted");
+            }
+            return null;
+        });
+        group.add(() -> calls.add("task 2"));
+        group.add(() -> calls.add("task 3"));
+
+        //act
+        group.onSuccess(() -> calls.add("success"))
+                .onFailure(throwable -> calls.add("failure " + throwable.getMessage()))
+                .onCancelled(() -> calls.add("cancelled"))
+                .execute();
+        waitForTasks(pool);
+        shadowOf(getMainLooper()).idle();
+
+        //assert
+        Assert.assertEquals(2, submitted.get());
+        Assert.assertTrue(group.getCancellationToken().isCancelled());
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("task 1 interrupted", calls.get(0));
+        Assert.assertEquals("failure queue full", calls.get(1));
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenExecutorRejectsEveryTask_withAsynchronousWorkMode_onFailureStillCalledOnce() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+        AsyncGroup group = new AsyncGroup(WorkMode.ASYNCHRONOUS, runnable -> {
+            throw new RejectedExecutionException("queue full");
+        });
+        group.add(() -> calls.add("task 1"));
+        group.add(() -> calls.add("task 2"));
+
+        //act
+        group.onSuccess(() -> calls.add("success"))
+                .onFailure(throwable -> calls.add("failure " + throwable.getMessage()))
+                .execute();
+        shadowOf(getMainLooper()).idle();
+
+        //assert
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("failure queue full", calls.get(0));
+    }
+
+    private static boolean startAndWaitForOthers(CountDownLatch allStarted) {
+        allStarted.countDown();
+        try {
+            return allStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static boolean startAndCheckInterrupted(CountDownLatch bothThreadsBusy) {
+        // holding both pool threads means one of these runs on the interrupted sibling's thread
+        bothThreadsBusy.countDown();
+        await(bothThreadsBusy);
+        return Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * once the executor has terminated, the last task has posted finish() to the UI thread
+     */
+    private static void waitForTasks(ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package co.early.fore.core.threading;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+import android.os.SystemClock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.core.WorkMode;
+
+import static android.os.Looper.getMainLooper;
+import static org.robolectric.Shadows.shadowOf;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AsyncTest {
+
+    @Test
+    public void whenProgressPublished_withThrottlingAndSynchronousWorkMode_everyValueDeliveredBeforeResult() {
+
+        //arrange
+        List<String> calls = new ArrayList<>();
+        Async<Void, Integer, Integer> async = new Async<Void, Integer, Integer>(WorkMode.SYNCHRONOUS) {
+            @Override
+            protected Integer doInBackground(Void... voids) {
+                for (int ii = 1; ii <= 3; ii++) {
+                    publishProgressTask(ii);
+                }
+                return 3;
+            }
+
+            @Override
+            protected void onProgressUpdate(Integer... values) {
+                calls.add("progress " + values[0]);
+            }
+
+            @Override
+            protected void onPostExecute(Integer result) {
+                calls.add("result " + result);
+            }
+        }.throttleProgress(1, TimeUnit.SECONDS);
+
+        //act
+        async.executeTask();
+
+        //assert
+        Assert.assertEquals(4, calls.size());
+        Assert.assertEquals("progress 1", calls.get(0));
+        Assert.assertEquals("progress 2", calls.get(1));
+        Assert.assertEquals("progress 3", calls.get(2));
+        Assert.assertEquals("result 3", calls.get(3));
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenProgressPublishedRepeatedly_withThrottlingAndAsynchronousWorkMode_onlyLatestValueDeliveredFromOnePost() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch published = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        List<String> calls = new ArrayList<>();
+        Async<Void, Integer, Integer> async = new Async<Void, Integer, Integer>(WorkMode.ASYNCHRONOUS, executor) {
+            @Override
+            protected Integer doInBackground(Void... voids) {
+                for (int ii = 1; ii <= 5; ii++) {
+                    publishProgressTask(ii);
+                }
+                published.countDown();
+                await(finish);
+                return 5;
+            }
+
+            @Override
+            protected void onProgressUpdate(Integer... values) {
+                calls.add("progress " + values[0]);
+            }
+
+            @Override
+            protected void onPostExecute(Integer result) {
+                super.onPostExecute(result);
+                calls.add("result " + result);
+            }
+        }.throttleProgress(100, TimeUnit.MILLISECONDS);
+        ShadowLooper mainLooper = shadowOf(getMainLooper());
+
+        //act
+        async.executeTask();
+        Assert.assertTrue(published.await(5, TimeUnit.SECONDS));
+        mainLooper.runOneTask();
+        boolean nothingElsePosted = mainLooper.isIdle() && Duration.ZERO.equals(mainLooper.getNextScheduledTaskTime());
+        finish.countDown();
+        async.get(5, TimeUnit.SECONDS);
+        mainLooper.idle();
+        executor.shutdown();
+
+        //assert
+        Assert.assertTrue(nothingElsePosted);
+        Assert.assertEquals(2, calls.size());
+        Assert.assertEquals("progress 5", calls.get(0));
+        Assert.assertEquals("result 5", calls.get(1));
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenProgressPublished_withThrottlingAndAsynchronousWorkMode_deliveriesAtLeastMinIntervalApart() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CountDownLatch publishMore = new CountDownLatch(1);
+        CountDownLatch morePublished = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        List<String> calls = new ArrayList<>();
+        List<Long> deliveredAt = new ArrayList<>();
+        Async<Void, Integer, Integer> async = new Async<Void, Integer, Integer>(WorkMode.ASYNCHRONOUS, executor) {
+            @Override
+            protected Integer doInBackground(Void... voids) {
+                publishProgressTask(1);
+                firstPublished.countDown();
+                await(publishMore);
+                publishProgressTask(2);
+                publishProgressTask(3);
+                morePublished.countDown();
+                await(finish);
+                return 3;
+            }
+
+            @Override
+            protected void onProgressUpdate(Integer... values) {
+                calls.add("progress " + values[0]);
+                deliveredAt.add(SystemClock.uptimeMillis());
+            }
+
+            @Override
+            protected void onPostExecute(Integer result) {
+                super.onPostExecute(result);
+                calls.add("result " + result);
+            }
+        }.throttleProgress(100, TimeUnit.MILLISECONDS);
+        ShadowLooper mainLooper = shadowOf(getMainLooper());
+
+        //act
+        async.executeTask();
+        Assert.assertTrue(firstPublished.await(5, TimeUnit.SECONDS));
+        mainLooper.runOneTask();
+        publishMore.countDown();
+        Assert.assertTrue(morePublished.await(5, TimeUnit.SECONDS));
+        mainLooper.idleFor(99, TimeUnit.MILLISECONDS);
+        int callsBeforeMinInterval = calls.size();
+        mainLooper.idleFor(1, TimeUnit.MILLISECONDS);
+        int callsAtMinInterval = calls.size();
+        finish.countDown();
+        async.get(5, TimeUnit.SECONDS);
+        mainLooper.idle();
+        executor.shutdown();
+
+        //assert
+        Assert.assertEquals(1, callsBeforeMinInterval);
+        Assert.assertEquals(2, callsAtMinInterval);
+        Assert.assertEquals(3, calls.size());
+        Assert.assertEquals("progress 1", calls.get(0));
+        Assert.assertEquals("progress 3", calls.get(1));
+        Assert.assertEquals("result 3", calls.get(2));
+        Assert.assertEquals(100L, deliveredAt.get(1) - deliveredAt.get(0));
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenProgressStillPending_withThrottlingAndAsynchronousWorkMode_deliveredJustBeforeOnPostExecute() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CountDownLatch publishMore = new CountDownLatch(1);
+        List<String> calls = new ArrayList<>();
+        Async<Void, Integer, Integer> async = new Async<Void, Integer, Integer>(WorkMode.ASYNCHRONOUS, executor) {
+            @Override
+            protected Integer doInBackground(Void... voids) {
+                publishProgressTask(1);
+                firstPublished.countDown();
+                await(publishMore);
+                publishProgressTask(2);
+                return 2;
+            }
+
+            @Override
+            protected void onProgressUpdate(Integer... values) {
+                calls.add("progress " + values[0]);
+            }
+
+            @Override
+            protected void onPostExecute(Integer result) {
+                super.onPostExecute(result);
+                calls.add("result " + result);
+            }
+        }.throttleProgress(100, TimeUnit.MILLISECONDS);
+        ShadowLooper mainLooper = shadowOf(getMainLooper());
+
+        //act
+        async.executeTask();
+        Assert.assertTrue(firstPublished.await(5, TimeUnit.SECONDS));
+        mainLooper.runOneTask();
+        publishMore.countDown();
+        async.get(5, TimeUnit.SECONDS);
+        mainLooper.idle();
+        int callsAtResult = calls.size();
+        mainLooper.idleFor(1, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        //assert
+        Assert.assertEquals(3, callsAtResult);
+        Assert.assertEquals(3, calls.size());
+        Assert.assertEquals("progress 1", calls.get(0));
+        Assert.assertEquals("progress 2", calls.get(1));
+        Assert.assertEquals("result 2", calls.get(2));
+    }
+
+    @Test
+    @LooperMode(LooperMode.Mode.PAUSED)
+    public void whenProgressStillPending_withThrottlingAndTaskCancelled_deliveredJustBeforeOnCancelled() throws Exception {
+
+        //arrange
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch firstPublished = new CountDownLatch(1);
+        CountDownLatch publishMore = new CountDownLatch(1);
+        CountDownLatch morePublished = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        List<String> calls = new ArrayList<>();
+        Async<Void, Integer, Integer> async = new Async<Void, Integer, Integer>(WorkMode.ASYNCHRONOUS, executor) {
+            @Override
+            protected Integer doInBackground(Void... voids) {
+                publishProgressTask(1);
+                firstPublished.countDown();
+                await(publishMore);
+                publishProgressTask(2);
+                morePublished.countDown();
+                await(finish);
+                publishProgressTask(3);
+                return 3;
+            }
+
+            @Override
+            protected void onProgressUpdate(Integer... values) {
+                calls.add("progress " + values[0]);
+            }
+
+            @Override
+            protected void onCancelled() {
+                calls.add("cancelled");
+            }
+        }.throttleProgress(100, TimeUnit.MILLISECONDS);
+        ShadowLooper mainLooper = shadowOf(getMainLooper());
+
+        //act
+        async.executeTask();
+        Assert.assertTrue(firstPublished.await(5, TimeUnit.SECONDS));
+        mainLooper.runOneTask();
+        publishMore.countDown();
+        Assert.assertTrue(morePublished.await(5, TimeUnit.SECONDS));
+        async.cancelTask();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        mainLooper.idle();
+        int callsAtCancelled = calls.size();
+        mainLooper.idleFor(1, TimeUnit.SECONDS);
+
+        //assert
+        Assert.assertEquals(3, callsAtCancelled);
+        Assert.assertEquals(3, calls.size());
+        Assert.assertEquals("progress 1", calls.get(0));
+        Assert.assertEquals("progress 2", calls.get(1));
+        Assert.assertEquals("cancelled", calls.get(2));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
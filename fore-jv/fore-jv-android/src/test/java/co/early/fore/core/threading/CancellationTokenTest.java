@@ -0,0 +1,178 @@
+package co.early.fore.core.threading;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CancellationTokenTest {
+
+    @Test
+    public void whenCancelledTwice_listenersRunOnce() {
+
+        //arrange
+        CancellationToken token = new CancellationToken();
+        AtomicInteger count = new AtomicInteger();
+        token.addOnCancelledListener(count::incrementAndGet);
+
+        //act
+        token.cancel();
+        token.cancel();
+
+        //assert
+        Assert.assertTrue(token.isCancelled());
+        Assert.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void whenListenerAdded_afterCancel_runsStraightAway() {
+
+        //arrange
+        CancellationToken token = new CancellationToken();
+        AtomicInteger count = new AtomicInteger();
+        token.cancel();
+
+        //act
+        token.addOnCancelledListener(count::incrementAndGet);
+
+        //assert
+        Assert.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void whenListenerRemoved_itIsNotRun() {
+
+        //arrange
+        CancellationToken token = new CancellationToken();
+        AtomicInteger count = new AtomicInteger();
+        Runnable listener = count::incrementAndGet;
+        token.addOnCancelledListener(listener);
+
+        //act
+        token.removeOnCancelledListener(listener);
+        token.cancel();
+
+        //assert
+        Assert.assertEquals(0, count.get());
+    }
+
+    @Test
+    public void whenCancelled_throwIfCancelledThrows() {
+
+        //arrange
+        CancellationToken token = new CancellationToken();
+        token.throwIfCancelled();
+        boolean exceptionThrown = false;
+
+        //act
+        token.cancel();
+        try {
+            token.throwIfCancelled();
+        } catch (CancellationException e) {
+            exceptionThrown = true;
+        }
+
+        //assert
+        Assert.assertTrue(exceptionThrown);
+    }
+
+    @Test
+    public void whenParentCancelled_childIsCancelled_butNotTheOtherWayRound() {
+
+        //arrange
+        CancellationToken parent = new CancellationToken();
+        CancellationToken child1 = new CancellationToken(parent);
+        CancellationToken child2 = new CancellationToken(parent);
+
+        //act
+        child1.cancel();
+        boolean parentCancelledByChild = parent.isCancelled();
+        boolean siblingCancelledByChild = child2.isCancelled();
+        parent.cancel();
+
+        //assert
+        Assert.assertFalse(parentCancelledByChild);
+        Assert.assertFalse(siblingCancelledByChild);
+        Assert.assertTrue(child2.isCancelled());
+    }
+
+    @Test
+    public void whenCreated_withCancelledParent_isAlreadyCancelled() {
+
+        //arrange
+        CancellationToken parent = new CancellationToken();
+        parent.cancel();
+
+        //act
+        CancellationToken child = new CancellationToken(parent);
+
+        //assert
+        Assert.assertTrue(child.isCancelled());
+    }
+
+    @Test
+    public void whenReleased_childNoLongerFollowsParent() {
+
+        //arrange
+        CancellationToken parent = new CancellationToken();
+        CancellationToken child = new CancellationToken(parent);
+
+        //act
+        child.release();
+        parent.cancel();
+
+        //assert
+        Assert.assertFalse(child.isCancelled());
+    }
+
+    @Test
+    public void whenTimeoutPasses_tokenIsCancelled() throws Exception {
+
+        //arrange
+        CancellationToken token = new CancellationToken();
+        CountDownLatch cancelled = new CountDownLatch(1);
+        token.addOnCancelledListener(cancelled::countDown);
+
+        //act
+        token.cancelAfter(20, TimeUnit.MILLISECONDS);
+
+        //assert
+        Assert.assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(token.isCancelled());
+    }
+
+    @Test
+    public void whenReleased_beforeTimeoutPasses_tokenIsNotCancelled() throws Exception {
+
+        //arrange
+        CancellationToken token = new CancellationToken();
+
+        //act
+        token.cancelAfter(20, TimeUnit.MILLISECONDS);
+        token.release();
+        Thread.sleep(100);
+
+        //assert
+        Assert.assertFalse(token.isCancelled());
+    }
+
+    @Test
+    public void whenReleased_timeoutIsRemovedFromScheduler() {
+
+        //arrange
+        ScheduledThreadPoolExecutor scheduler = (ScheduledThreadPoolExecutor) TaskExecutors.scheduler();
+        CancellationToken token = new CancellationToken();
+        token.cancelAfter(1, TimeUnit.HOURS);
+        int queuedBefore = scheduler.getQueue().size();
+
+        //act
+        token.release();
+
+        //assert
+        Assert.assertEquals(queuedBefore - 1, scheduler.getQueue().size());
+    }
+}
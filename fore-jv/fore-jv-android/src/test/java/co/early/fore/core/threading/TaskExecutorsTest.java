@@ -0,0 +1,124 @@
+package co.early.fore.core.threading;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TaskExecutorsTest {
+
+    @Test
+    public void whenIoTasksBlock_otherIoTasksStillRun() throws Exception {
+
+        //arrange
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch blockedTasksStarted = new CountDownLatch(10);
+        CountDownLatch unblockedTaskRan = new CountDownLatch(1);
+
+        //act
+        for (int ii = 0; ii < 10; ii++) {
+            TaskExecutors.io().execute(() -> {
+                blockedTasksStarted.countDown();
+                await(blocker);
+            });
+        }
+        TaskExecutors.io().execute(unblockedTaskRan::countDown);
+
+        //assert
+        try {
+            Assert.assertTrue(blockedTasksStarted.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(unblockedTaskRan.await(5, TimeUnit.SECONDS));
+        } finally {
+            blocker.countDown();
+        }
+    }
+
+    @Test
+    public void whenTasksRun_runOnNamedDaemonThreads() throws Exception {
+
+        //arrange
+        AtomicReference<Thread> ioThread = new AtomicReference<>();
+        AtomicReference<Thread> cpuThread = new AtomicReference<>();
+
+        //act
+        runAndWait(TaskExecutors.io(), () -> ioThread.set(Thread.currentThread()));
+        runAndWait(TaskExecutors.cpu(), () -> cpuThread.set(Thread.currentThread()));
+
+        //assert
+        Assert.assertTrue(ioThread.get().getName().startsWith("fore-io-"));
+        Assert.assertTrue(ioThread.get().isDaemon());
+        Assert.assertTrue(cpuThread.get().getName().startsWith("fore-cpu-"));
+        Assert.assertTrue(cpuThread.get().isDaemon());
+    }
+
+    @Test
+    public void whenRequestedTwice_samePoolReturned() {
+
+        //assert
+        Assert.assertSame(TaskExecutors.io(), TaskExecutors.io());
+        Assert.assertSame(TaskExecutors.cpu(), TaskExecutors.cpu());
+        Assert.assertNotSame(TaskExecutors.io(), TaskExecutors.cpu());
+    }
+
+    @Test
+    public void whenVirtualRequested_tasksRun() throws Exception {
+
+        //arrange
+        AtomicReference<Thread> thread = new AtomicReference<>();
+
+        //act
+        runAndWait(TaskExecutors.virtual(), () -> thread.set(Thread.currentThread()));
+
+        //assert
+        Assert.assertNotNull(thread.get());
+        if (!TaskExecutors.virtualThreadsAvailable()) {
+            Assert.assertSame(TaskExecutors.io(), TaskExecutors.virtual());
+        }
+    }
+
+    @Test
+    public void whenVirtualRequested_withVirtualThreadsAvailable_thousandsOfBlockedTasksRunAtOnce() throws Exception {
+
+        //arrange
+        Assume.assumeTrue(TaskExecutors.virtualThreadsAvailable());
+        int taskCount = 5000;
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch allStarted = new CountDownLatch(taskCount);
+
+        //act
+        for (int ii = 0; ii < taskCount; ii++) {
+            TaskExecutors.virtual().execute(() -> {
+                allStarted.countDown();
+                await(blocker);
+            });
+        }
+
+        //assert
+        try {
+            Assert.assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+        } finally {
+            blocker.countDown();
+        }
+    }
+
+    private static void runAndWait(Executor executor, Runnable runnable) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(() -> {
+            runnable.run();
+            done.countDown();
+        });
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import co.early.fore.Shared
+
+/**
+ * JMH benchmarks for the java adapter list strategies, JVM only and never published
+ *
+ * ./gradlew :fore-jv:fore-jv-benchmark:jmh
+ * ./gradlew :fore-jv:fore-jv-benchmark:jmh -PjmhIncludes=MutableListBenchmark
+ *
+ * results (including the gc profiler's gc.alloc.rate.norm, bytes allocated per operation) are
+ * written to fore-jv/fore-jv-benchmark/build/results/jmh/results.txt
+ *
+ * fore-jv-android-adapters is an android library so it can't be a dependency here, instead its
+ * sources are compiled straight in to the benchmarks, leaving out the classes that need a
+ * device. The few android classes the rest touch have JVM stand-ins in src/jmh/java/android*
+ */
+plugins {
+    id("java")
+    alias(libs.plugins.jmh)
+}
+
+java {
+    toolchain {
+        languageVersion.set(JavaLanguageVersion.of(Shared.Versions.jvm_toolchain))
+    }
+}
+
+println("[fore-jv-benchmark build file]")
+
+sourceSets {
+    named("jmh") {
+        java {
+            srcDir("../fore-jv-android-adapters/src/main/java")
+            exclude(
+                "co/early/fore/adapters/CrossFadeRemover.java",
+                "co/early/fore/adapters/Notifyable.java",
+                "co/early/fore/adapters/NotifyableImp.java",
+                "co/early/fore/adapters/immutable/ImmutableListMgr.java",
+            )
+        }
+    }
+}
+
+dependencies {
+    jmh(project(":fore-jv:fore-jv-core"))
+    jmh("androidx.annotation:annotation:${Shared.Versions.annotation}")
+}
+
+jmh {
+    jmhVersion.set(Shared.Versions.jmh)
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+    resultFormat.set("TEXT")
+}
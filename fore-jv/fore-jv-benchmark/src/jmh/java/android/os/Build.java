@@ -0,0 +1,15 @@
+package android.os;
+
+/**
+ * JVM stand-in, only what the adapter classes refer to
+ */
+public class Build {
+
+    public static class VERSION {
+        public static final int SDK_INT = VERSION_CODES.N;
+    }
+
+    public static class VERSION_CODES {
+        public static final int N = 24;
+    }
+}
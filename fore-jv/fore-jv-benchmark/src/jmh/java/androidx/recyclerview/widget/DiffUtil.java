@@ -0,0 +1,226 @@
+package androidx.recyclerview.widget;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import co.early.fore.adapters.immutable.ListDiff;
+
+/**
+ * JVM stand-in for recyclerview's DiffUtil, so that {@link co.early.fore.adapters.immutable.DiffCalculator}
+ * can be benchmarked without a device.
+ * <p>
+ * Like the real thing, it uses Myers' linear space diff algorithm (finding the middle snake and
+ * recursing either side of it) and calls areItemsTheSame() / areContentsTheSame() /
+ * getChangePayload() the same way, so timings are comparable. The one thing it doesn't do is
+ * move detection: DiffUtil makes an extra pass pairing up removed and inserted items, which
+ * costs up to O(removed x inserted) areItemsTheSame() calls. Moves come out of this stand-in as
+ * a remove and an insert, so for edits with lots of moves the real DiffUtil will be slower than
+ * these numbers.
+ */
+public class DiffUtil {
+
+    private DiffUtil() {
+    }
+
+    public static DiffResult calculateDiff(Callback callback) {
+        return calculateDiff(callback, true);
+    }
+
+    /**
+     * @param detectMoves ignored, see the class comment
+     */
+    public static DiffResult calculateDiff(Callback callback, boolean detectMoves) {
+
+        final int oldSize = callback.getOldListSize();
+        final int newSize = callback.getNewListSize();
+
+        // diagonals in order, each {oldPosition, newPosition, length}
+        final List<int[]> diagonals = new ArrayList<>();
+        final int total = oldSize + newSize;
+        final int[] forward = new int[total * 4 + 8];
+        final int[] backward = new int[total * 4 + 8];
+        final int offset = total * 2 + 4;
+
+        // an explicit stack holding {oldStart, oldEnd, newStart, newEnd} ranges still to be
+        // diffed and {oldPosition, newPosition, length} diagonals found between them. Everything
+        // is pushed right to left, so the diagonals are popped (and recorded) in order
+        final List<int[]> stack = new ArrayList<>();
+        stack.add(new int[]{0, oldSize, 0, newSize});
+        while (!stack.isEmpty()) {
+            int[] entry = stack.remove(stack.size() - 1);
+            if (entry.length == 3) {
+                diagonals.add(entry);
+                continue;
+            }
+            if (entry[0] == entry[1] || entry[2] == entry[3]) {
+                continue;
+            }
+            int[] snake = midPoint(callback, entry[0], entry[1], entry[2], entry[3], forward, backward, offset);
+            stack.add(new int[]{snake[6], entry[1], snake[7], entry[3]});
+            if (snake[4] > snake[2]) {
+                stack.add(new int[]{snake[2], snake[3], snake[4] - snake[2]});
+            }
+            stack.add(new int[]{entry[0], snake[0], entry[2], snake[1]});
+        }
+
+        return new DiffResult(buildListDiff(callback, diagonals, oldSize, newSize));
+    }
+
+    /**
+     * Finds the middle snake of the edit graph for these ranges: the one edit (insert or
+     * remove) and the diagonal run of matching items next to it that the middle of an
+     * optimal path goes through
+     *
+     * @return eight list positions, as (old, new) pairs: where the range before the snake ends,
+     * where the diagonal starts, where it ends, and where the range after the snake starts
+     */
+    private static int[] midPoint(Callback callback, int oldStart, int oldEnd, int newStart, int newEnd,
+                                  int[] forward, int[] backward, int offset) {
+
+        final int n = oldEnd - oldStart;
+        final int m = newEnd - newStart;
+        final int delta = n - m;
+        final boolean oddDelta = (delta & 1) != 0;
+        final int max = (n + m + 1) / 2;
+
+        // x positions here are relative to oldStart, diagonal k = x - y
+        forward[offset + 1] = 0;
+        backward[offset + delta - 1] = n;
+
+        for (int d = 0; d <= max; d++) {
+
+            for (int k = -d; k <= d; k += 2) {
+                // down is an insert, right is a remove
+                boolean down = k == -d || (k != d && forward[offset + k - 1] < forward[offset + k + 1]);
+                int x = down ? forward[offset + k + 1] : forward[offset + k - 1] + 1;
+                int y = x - k;
+                int startX = x;
+                int startY = y;
+                // the point before this step's edit
+                int previousX = d == 0 || down ? x : x - 1;
+                int previousY = d == 0 || !down ? y : y - 1;
+                while (x < n && y < m && callback.areItemsTheSame(oldStart + x, newStart + y)) {
+                    x++;
+                    y++;
+                }
+                forward[offset + k] = x;
+                if (oddDelta && k >= delta - (d - 1) && k <= delta + (d - 1) && backward[offset + k] <= x) {
+                    return new int[]{oldStart + previousX, newStart + previousY, oldStart + startX, newStart + startY,
+                            oldStart + x, newStart + y, oldStart + x, newStart + y};
+                }
+            }
+
+            for (int c = -d; c <= d; c += 2) {
+                int k = delta + c;
+                // working backwards, up is an insert, left is a remove
+                boolean up = c == d || (c != -d && backward[offset + k - 1] <= backward[offset + k + 1] - 1);
+                int x = up ? backward[offset + k - 1] : backward[offset + k + 1] - 1;
+                int y = x - k;
+                int endX = x;
+                int endY = y;
+                // the point before this step's edit
+                int previousX = d == 0 || up ? x : x + 1;
+                int previousY = d == 0 || !up ? y : y + 1;
+                while (x > 0 && y > 0 && callback.areItemsTheSame(oldStart + x - 1, newStart + y - 1)) {
+                    x--;
+                    y--;
+                }
+                backward[offset + k] = x;
+                if (!oddDelta && k >= -d && k <= d && forward[offset + k] >= x) {
+                    if (d == 0) {
+                        // overlapping with no edits at all, the ranges are one long diagonal
+                        return new int[]{oldStart, newStart, oldStart, newStart, oldEnd, newEnd, oldEnd, newEnd};
+                    }
+                    return new int[]{oldStart + x, newStart + y, oldStart + x, newStart + y,
+                            oldStart + endX, newStart + endY, oldStart + previousX, newStart + previousY};
+                }
+            }
+        }
+
+        throw new IllegalStateException("no middle snake found, the callback must be inconsistent");
+    }
+
+    /**
+     * Works from the end of the lists back to the start, so that the positions before each
+     * operation are still those of the old list
+     */
+    private static ListDiff buildListDiff(Callback callback, List<int[]> diagonals, int oldSize, int newSize) {
+
+        ListDiff.Builder builder = new ListDiff.Builder();
+
+        int oldPosition = oldSize;
+        int newPosition = newSize;
+        for (int ii = diagonals.size(); ii >= 0; ii--) {
+            int[] diagonal = ii == 0 ? new int[]{0, 0, 0} : diagonals.get(ii - 1);
+            int diagonalOldEnd = diagonal[0] + diagonal[2];
+            int diagonalNewEnd = diagonal[1] + diagonal[2];
+
+            if (oldPosition > diagonalOldEnd) {
+                builder.removed(diagonalOldEnd, oldPosition - diagonalOldEnd);
+            }
+            if (newPosition > diagonalNewEnd) {
+                builder.inserted(diagonalOldEnd, newPosition - diagonalNewEnd);
+            }
+            for (int jj = diagonal[2] - 1; jj >= 0; jj--) {
+                int oldItem = diagonal[0] + jj;
+                int newItem = diagonal[1] + jj;
+                if (!callback.areContentsTheSame(oldItem, newItem)) {
+                    builder.changed(oldItem, 1, callback.getChangePayload(oldItem, newItem));
+                }
+            }
+            oldPosition = diagonal[0];
+            newPosition = diagonal[1];
+        }
+
+        return builder.build();
+    }
+
+
+    public abstract static class Callback {
+
+        public abstract int getOldListSize();
+
+        public abstract int getNewListSize();
+
+        public abstract boolean areItemsTheSame(int oldItemPosition, int newItemPosition);
+
+        public abstract boolean areContentsTheSame(int oldItemPosition, int newItemPosition);
+
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return null;
+        }
+    }
+
+    public static class DiffResult {
+
+        private final ListDiff listDiff;
+
+        DiffResult(ListDiff listDiff) {
+            this.listDiff = listDiff;
+        }
+
+        public void dispatchUpdatesTo(final ListUpdateCallback updateCallback) {
+            listDiff.dispatchUpdatesTo(new ListDiff.Callback() {
+                @Override
+                public void onInserted(int position, int count) {
+                    updateCallback.onInserted(position, count);
+                }
+
+                @Override
+                public void onRemoved(int position, int count) {
+                    updateCallback.onRemoved(position, count);
+                }
+
+                @Override
+                public void onMoved(int fromPosition, int toPosition) {
+                    updateCallback.onMoved(fromPosition, toPosition);
+                }
+
+                @Override
+                public void onChanged(int position, int count, Object payload) {
+                    updateCallback.onChanged(position, count, payload);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package androidx.recyclerview.widget;
+
+/**
+ * JVM stand-in for the recyclerview interface of the same name
+ */
+public interface ListUpdateCallback {
+
+    void onInserted(int position, int count);
+
+    void onRemoved(int position, int count);
+
+    void onMoved(int fromPosition, int toPosition);
+
+    void onChanged(int position, int count, Object payload);
+}
@@ -0,0 +1,33 @@
+package co.early.fore.adapters;
+
+import androidx.recyclerview.widget.ListUpdateCallback;
+
+import co.early.fore.adapters.immutable.ListDiff;
+
+/**
+ * Stands in for the adapter's notifyItemXXX() methods
+ */
+public class CountingCallback implements ListDiff.Callback, ListUpdateCallback {
+
+    public int rowsNotified;
+
+    @Override
+    public void onInserted(int position, int count) {
+        rowsNotified += count;
+    }
+
+    @Override
+    public void onRemoved(int position, int count) {
+        rowsNotified += count;
+    }
+
+    @Override
+    public void onMoved(int fromPosition, int toPosition) {
+        rowsNotified++;
+    }
+
+    @Override
+    public void onChanged(int position, int count, Object payload) {
+        rowsNotified += count;
+    }
+}
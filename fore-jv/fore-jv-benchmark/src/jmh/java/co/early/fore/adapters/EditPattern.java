@@ -0,0 +1,69 @@
+package co.early.fore.adapters;
+
+import java.util.List;
+import java.util.Random;
+
+import co.early.fore.adapters.mutable.ChangeAwareList;
+
+/**
+ * The kinds of edit a screen typically makes to its list. Each edit leaves the list the same
+ * size, so a benchmark can keep on editing the same list for as long as it runs
+ *
+ * HEAD_CHURN - a row arrives at the top and one drops off the bottom (a news feed)
+ *
+ * APPEND_TRIM - a row arrives at the bottom and one drops off the top (a chat or a log)
+ *
+ * MIDDLE_CHURN - a row is inserted somewhere and another removed somewhere else
+ *
+ * SCATTERED_CHANGES - the content of one row somewhere in the list changes
+ *
+ * MOVES - one row is moved somewhere else (drag to reorder)
+ */
+public enum EditPattern {
+
+    HEAD_CHURN {
+        @Override
+        public void edit(List<Row> list, Random random, long newId) {
+            list.add(0, Row.create(newId));
+            list.remove(list.size() - 1);
+        }
+    },
+    APPEND_TRIM {
+        @Override
+        public void edit(List<Row> list, Random random, long newId) {
+            list.add(Row.create(newId));
+            list.remove(0);
+        }
+    },
+    MIDDLE_CHURN {
+        @Override
+        public void edit(List<Row> list, Random random, long newId) {
+            list.add(random.nextInt(list.size() + 1), Row.create(newId));
+            list.remove(random.nextInt(list.size()));
+        }
+    },
+    SCATTERED_CHANGES {
+        @Override
+        public void edit(List<Row> list, Random random, long newId) {
+            int index = random.nextInt(list.size());
+            list.set(index, list.get(index).withValue(list.get(index).value + 1));
+        }
+    },
+    MOVES {
+        @Override
+        public void edit(List<Row> list, Random random, long newId) {
+            int from = random.nextInt(list.size());
+            int to = random.nextInt(list.size());
+            if (list instanceof ChangeAwareList) {
+                ((ChangeAwareList<Row>) list).move(from, to);
+            } else {
+                list.add(to, list.remove(from));
+            }
+        }
+    };
+
+    /**
+     * @param newId id for a new row, if the edit needs one
+     */
+    public abstract void edit(List<Row> list, Random random, long newId);
+}
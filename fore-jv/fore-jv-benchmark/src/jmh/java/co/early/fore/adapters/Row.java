@@ -0,0 +1,43 @@
+package co.early.fore.adapters;
+
+import co.early.fore.adapters.immutable.DeepCopyable;
+import co.early.fore.adapters.immutable.DiffComparator;
+
+/**
+ * A typical list row: a stable id, some text, and a value that changes
+ */
+public class Row implements DiffComparator<Row>, DeepCopyable<Row> {
+
+    public final long id;
+    public final String label;
+    public final int value;
+
+    public Row(long id, String label, int value) {
+        this.id = id;
+        this.label = label;
+        this.value = value;
+    }
+
+    public static Row create(long id) {
+        return new Row(id, "row " + id, 0);
+    }
+
+    public Row withValue(int value) {
+        return new Row(id, label, value);
+    }
+
+    @Override
+    public boolean itemsTheSame(Row other) {
+        return other != null && id == other.id;
+    }
+
+    @Override
+    public boolean itemsLookTheSame(Row other) {
+        return other != null && value == other.value && label.equals(other.label);
+    }
+
+    @Override
+    public Row deepCopy() {
+        return new Row(id, label, value);
+    }
+}
@@ -0,0 +1,236 @@
+package co.early.fore.adapters.immutable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.adapters.CountingCallback;
+import co.early.fore.adapters.EditPattern;
+import co.early.fore.adapters.Row;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * The work ImmutableListMgr does for each update, for each of the ways it can be set up.
+ * <p>
+ * ImmutableListMgr itself needs an android ObservableImp and AsyncBuilder, so it isn't used
+ * directly: this repeats the steps of its changeList() and doWork() with the same classes, on
+ * one thread, followed by what NotifyableImp does with the resulting DiffSpec.
+ * <p>
+ * update - edit a copy of the current list, copy / diff it, and dispatch the diff to the
+ * adapter
+ * <p>
+ * diff - just the diff calculation, for one update's worth of edits
+ * <p>
+ * findThenSetWithGet / findThenSetWithIndexOfFirst - the editing part of an update that
+ * searches for a row (here the one in the middle of the list) and replaces it, searching with
+ * get() or with {@link PeekableList#indexOfFirst(PeekableList.Matcher)}. Only STABLE_ID_SHARED
+ * copies the rows get() looks at, so that's where they differ (editPattern and editsPerUpdate
+ * aren't used)
+ * <p>
+ * Run with the gc profiler (the default in build.gradle.kts) for the bytes allocated per update
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ImmutableListBenchmark {
+
+    /**
+     * DIFF_UTIL - the default, deep copies and DiffUtil (the JVM stand-in, see its comments)
+     * <p>
+     * STABLE_ID - deep copies and a StableIdDiffCalculator
+     * <p>
+     * STABLE_ID_SHARED - structural sharing and a StableIdDiffCalculator
+     * <p>
+     * PARALLEL_STABLE_ID - deep copies and a ParallelStableIdDiffCalculator using all the cores
+     */
+    public enum Strategy {
+        DIFF_UTIL,
+        STABLE_ID,
+        STABLE_ID_SHARED,
+        PARALLEL_STABLE_ID
+    }
+
+    @Param({"DIFF_UTIL", "STABLE_ID", "STABLE_ID_SHARED", "PARALLEL_STABLE_ID"})
+    public Strategy strategy;
+
+    @Param({"100", "1000", "10000", "50000"})
+    public int size;
+
+    @Param({"HEAD_CHURN", "MIDDLE_CHURN", "SCATTERED_CHANGES", "MOVES"})
+    public EditPattern editPattern;
+
+    @Param({"1", "10"})
+    public int editsPerUpdate;
+
+    private final SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+    private final Random random = new Random(42);
+    private ExecutorService executorService;
+    private StableIdDiffCalculator<Row> stableIdDiffCalculator;
+    private long nextId;
+
+    // what ImmutableListMgr holds between updates
+    private List<Row> currentList;
+    private PeekableArrayList<Row> currentListMutableCopy;
+
+    // a fixed before and after for the diff benchmark
+    private List<Row> diffOldList;
+    private List<Row> diffNewList;
+
+    @Setup(Level.Trial)
+    public void setup() {
+
+        StableIdDiffCalculator.IdExtractor<Row> idExtractor = row -> row.id;
+        if (strategy == Strategy.PARALLEL_STABLE_ID) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            executorService = Executors.newFixedThreadPool(threads);
+            stableIdDiffCalculator = new ParallelStableIdDiffCalculator<>(idExtractor, executorService, threads);
+        } else if (strategy != Strategy.DIFF_UTIL) {
+            stableIdDiffCalculator = new StableIdDiffCalculator<>(idExtractor);
+        }
+
+        List<Row> rows = new ArrayList<>(size);
+        for (nextId = 0; nextId < size; nextId++) {
+            rows.add(Row.create(nextId));
+        }
+        if (strategy == Strategy.STABLE_ID_SHARED) {
+            currentList = PersistentList.copyOf(rows);
+        } else {
+            currentList = rows;
+            currentListMutableCopy = deepCopy(rows);
+        }
+
+        diffOldList = rows;
+        diffNewList = deepCopy(rows);
+        for (int ii = 0; ii < editsPerUpdate; ii++) {
+            editPattern.edit(diffNewList, random, nextId++);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public void update(Blackhole blackhole) {
+
+        // ImmutableListMgr.changeList()
+        List<Row> newList;
+        if (strategy == Strategy.STABLE_ID_SHARED) {
+            CopyOnTouchList<Row> editable = new CopyOnTouchList<>((PersistentList<Row>) currentList);
+            edit(editable);
+            newList = editable.persistent();
+        } else {
+            edit(currentListMutableCopy);
+            newList = currentListMutableCopy;
+        }
+
+        // ImmutableListMgr.doWork()
+        List<Row> newListCopy;
+        List<Row> newListCopy2;
+        if (strategy == Strategy.STABLE_ID_SHARED) {
+            newListCopy = newList;
+            newListCopy2 = newList;
+        } else {
+            newListCopy = deepCopy(newList);
+            newListCopy2 = deepCopy(newList);
+        }
+        DiffSpec diffSpec = createDiffSpec(currentList, newListCopy);
+
+        // ImmutableListMgr.updateState()
+        currentList = newListCopy;
+        if (strategy != Strategy.STABLE_ID_SHARED) {
+            currentListMutableCopy = (PeekableArrayList<Row>) newListCopy2;
+        }
+
+        // NotifyableImp.notifyDataSetChangedAuto()
+        CountingCallback adapter = new CountingCallback();
+        if (diffSpec.listDiff != null) {
+            diffSpec.listDiff.dispatchUpdatesTo(adapter);
+        } else {
+            diffSpec.diffResult.dispatchUpdatesTo(adapter);
+        }
+        blackhole.consume(adapter.rowsNotified);
+    }
+
+    @Benchmark
+    public DiffSpec diff() {
+        return createDiffSpec(diffOldList, diffNewList);
+    }
+
+    @Benchmark
+    public List<Row> findThenSetWithGet() {
+        PeekableList<Row> listCopy = listCopy();
+        long id = currentList.get(size / 2).id;
+        for (int ii = 0; ii < listCopy.size(); ii++) {
+            Row row = listCopy.get(ii);
+            if (row.id == id) {
+                listCopy.set(ii, row.withValue(row.value + 1));
+                break;
+            }
+        }
+        return listCopy;
+    }
+
+    @Benchmark
+    public List<Row> findThenSetWithIndexOfFirst() {
+        PeekableList<Row> listCopy = listCopy();
+        long id = currentList.get(size / 2).id;
+        int index = listCopy.indexOfFirst(row -> row.id == id);
+        Row row = listCopy.peek(index);
+        listCopy.set(index, row.withValue(row.value + 1));
+        return listCopy;
+    }
+
+    // what ImmutableListMgr.editList() hands to the ListEditor
+    private PeekableList<Row> listCopy() {
+        if (strategy == Strategy.STABLE_ID_SHARED) {
+            return new CopyOnTouchList<>((PersistentList<Row>) currentList);
+        } else {
+            return currentListMutableCopy;
+        }
+    }
+
+    private void edit(List<Row> list) {
+        for (int ii = 0; ii < editsPerUpdate; ii++) {
+            editPattern.edit(list, random, nextId++);
+        }
+    }
+
+    private DiffSpec createDiffSpec(List<Row> oldList, List<Row> newList) {
+        if (stableIdDiffCalculator != null) {
+            return new DiffSpec(null, stableIdDiffCalculator.createListDiff(oldList, newList), systemTimeWrapper);
+        } else {
+            return new DiffSpec(new DiffCalculator<Row>().createDiffResult(oldList, newList), systemTimeWrapper);
+        }
+    }
+
+    private static PeekableArrayList<Row> deepCopy(List<Row> list) {
+        PeekableArrayList<Row> copy = new PeekableArrayList<>(list.size());
+        for (Row row : list) {
+            copy.add(row.deepCopy());
+        }
+        return copy;
+    }
+}
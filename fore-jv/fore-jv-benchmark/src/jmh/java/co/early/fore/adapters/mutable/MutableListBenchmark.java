@@ -0,0 +1,114 @@
+package co.early.fore.adapters.mutable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.adapters.CountingCallback;
+import co.early.fore.adapters.EditPattern;
+import co.early.fore.adapters.Row;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * The ChangeAware* lists, as a screen would use them.
+ *
+ * update - some edits to the list, then what NotifyableImp does with it: getAndClearLatestUpdateSpec()
+ * and (for batched lists) dispatching the changes to the adapter
+ *
+ * Scrolling is measured separately by {@link MutableListScrollBenchmark}.
+ *
+ * Run with the gc profiler (the default in build.gradle.kts) for the bytes allocated per update
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MutableListBenchmark {
+
+    public enum ListType {
+        ARRAY {
+            @Override
+            ChangeAwareList<Row> create(SystemTimeWrapper systemTimeWrapper) {
+                return new ChangeAwareArrayList<>(systemTimeWrapper);
+            }
+        },
+        ARRAY_BATCHED {
+            @Override
+            ChangeAwareList<Row> create(SystemTimeWrapper systemTimeWrapper) {
+                return new ChangeAwareArrayList<>(systemTimeWrapper, true);
+            }
+        },
+        LINKED {
+            @Override
+            ChangeAwareList<Row> create(SystemTimeWrapper systemTimeWrapper) {
+                return new ChangeAwareLinkedList<>(systemTimeWrapper);
+            }
+        },
+        TREE {
+            @Override
+            ChangeAwareList<Row> create(SystemTimeWrapper systemTimeWrapper) {
+                return new ChangeAwareTreeList<>(systemTimeWrapper);
+            }
+        },
+        TREE_BATCHED {
+            @Override
+            ChangeAwareList<Row> create(SystemTimeWrapper systemTimeWrapper) {
+                return new ChangeAwareTreeList<>(systemTimeWrapper, true);
+            }
+        };
+
+        abstract ChangeAwareList<Row> create(SystemTimeWrapper systemTimeWrapper);
+    }
+
+    @Param({"ARRAY", "ARRAY_BATCHED", "LINKED", "TREE", "TREE_BATCHED"})
+    public ListType listType;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"HEAD_CHURN", "APPEND_TRIM", "MIDDLE_CHURN", "SCATTERED_CHANGES", "MOVES"})
+    public EditPattern editPattern;
+
+    @Param({"1", "10"})
+    public int editsPerUpdate;
+
+    private final Random random = new Random(42);
+    private ChangeAwareList<Row> list;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        list = listType.create(new SystemTimeWrapper());
+        for (nextId = 0; nextId < size; nextId++) {
+            list.add(Row.create(nextId));
+        }
+        list.getAndClearLatestUpdateSpec(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public void update(Blackhole blackhole) {
+        for (int ii = 0; ii < editsPerUpdate; ii++) {
+            editPattern.edit(list, random, nextId++);
+        }
+        UpdateSpec updateSpec = list.getAndClearLatestUpdateSpec(Long.MAX_VALUE);
+        if (updateSpec.type == UpdateSpec.UpdateType.BATCHED) {
+            CountingCallback adapter = new CountingCallback();
+            updateSpec.changes.dispatchUpdatesTo(adapter);
+            blackhole.consume(adapter.rowsNotified);
+        }
+        blackhole.consume(updateSpec);
+    }
+}
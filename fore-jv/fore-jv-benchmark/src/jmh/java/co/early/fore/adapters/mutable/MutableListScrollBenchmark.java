@@ -0,0 +1,59 @@
+package co.early.fore.adapters.mutable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.adapters.Row;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * What scrolling costs: the adapter binding a screenful of rows from somewhere in the list,
+ * via get(position)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MutableListScrollBenchmark {
+
+    private static final int VISIBLE_ROWS = 20;
+
+    @Param({"ARRAY", "LINKED", "TREE"})
+    public MutableListBenchmark.ListType listType;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private final Random random = new Random(42);
+    private ChangeAwareList<Row> list;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        list = listType.create(new SystemTimeWrapper());
+        for (long id = 0; id < size; id++) {
+            list.add(Row.create(id));
+        }
+    }
+
+    @Benchmark
+    public void bindVisibleRows(Blackhole blackhole) {
+        int firstRow = random.nextInt(size - VISIBLE_ROWS);
+        for (int ii = firstRow; ii < firstRow + VISIBLE_ROWS; ii++) {
+            blackhole.consume(list.get(ii).label);
+        }
+    }
+}
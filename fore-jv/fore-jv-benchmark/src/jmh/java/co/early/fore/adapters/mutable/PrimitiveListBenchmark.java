@@ -0,0 +1,84 @@
+package co.early.fore.adapters.mutable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * {@link ChangeAwareLongList} against a ChangeAwareArrayList&lt;Long&gt; holding the same
+ * timestamps: appending a value and dropping the oldest (a live chart), and binding a
+ * screenful of rows. The gc profiler shows the boxing
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrimitiveListBenchmark {
+
+    private static final int VISIBLE_ROWS = 20;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final Random random = new Random(42);
+    private ChangeAwareLongList longList;
+    private ChangeAwareArrayList<Long> boxedList;
+    private long nextTimestamp = 1_600_000_000_000L;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SystemTimeWrapper systemTimeWrapper = new SystemTimeWrapper();
+        longList = new ChangeAwareLongList(size, systemTimeWrapper);
+        boxedList = new ChangeAwareArrayList<>(size, systemTimeWrapper);
+        for (int ii = 0; ii < size; ii++) {
+            longList.add(nextTimestamp);
+            boxedList.add(nextTimestamp);
+            nextTimestamp += 1000;
+        }
+    }
+
+    @Benchmark
+    public UpdateSpec longListAppendTrim() {
+        longList.add(nextTimestamp++);
+        longList.remove(0);
+        return longList.getAndClearLatestUpdateSpec(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public UpdateSpec boxedListAppendTrim() {
+        boxedList.add(nextTimestamp++);
+        boxedList.remove(0);
+        return boxedList.getAndClearLatestUpdateSpec(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public void longListBindVisibleRows(Blackhole blackhole) {
+        int firstRow = random.nextInt(size - VISIBLE_ROWS);
+        for (int ii = firstRow; ii < firstRow + VISIBLE_ROWS; ii++) {
+            blackhole.consume(longList.get(ii));
+        }
+    }
+
+    @Benchmark
+    public void boxedListBindVisibleRows(Blackhole blackhole) {
+        int firstRow = random.nextInt(size - VISIBLE_ROWS);
+        for (int ii = firstRow; ii < firstRow + VISIBLE_ROWS; ii++) {
+            blackhole.consume(boxedList.get(ii).longValue());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package co.early.fore.core.observer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import co.early.fore.core.Affirm;
+
+/**
+ * Collects work that needs to happen before the next frame is drawn (typically pending observer
+ * notifications) and runs all of it in one pass when the {@link FrameClock} says that the next
+ * frame has arrived.
+ * <p>
+ * Only one frame callback is ever requested at a time, however many flushes get scheduled
+ * before that frame arrives. Something scheduled while a frame is being flushed will be run on
+ * the following frame.
+ * <p>
+ * While a frame is being flushed, {@link #markNotifiedThisFrame(Observer)} lets the flushes
+ * make sure that each observer is only called once in that frame, however many of the flushed
+ * observables it is registered with.
+ * <p>
+ * On android, ObservableImp uses a scheduler driven by the Choreographer for DispatchMode.FRAME_ALIGNED,
+ * for tests you can construct one with a {@link co.early.fore.core.testhelpers.ManualFrameClock}
+ */
+public class FrameScheduler {
+
+    private final FrameClock frameClock;
+    private final Object lock = new Object();
+    private final Runnable onFrame = this::flush;
+
+    // double buffered so that a flush allocates nothing
+    private ArrayList<Runnable> pending = new ArrayList<>();
+    private ArrayList<Runnable> flushing = new ArrayList<>();
+    private boolean framePosted = false;
+
+    // only touched during a flush, which always happens on the same (UI) thread
+    private final Set<Observer> notifiedThisFrame = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public FrameScheduler(FrameClock frameClock) {
+        this.frameClock = Affirm.notNull(frameClock);
+    }
+
+    /**
+     * @param flush will be run once on the next frame. Callers are expected to only schedule
+     *              their flush when they go from clean to dirty, it's not de-duplicated here
+     */
+    public void schedule(Runnable flush) {
+
+        Affirm.notNull(flush);
+
+        boolean postFrame;
+        synchronized (lock) {
+            pending.add(flush);
+            postFrame = !framePosted;
+            framePosted = true;
+        }
+
+        if (postFrame) {
+            frameClock.postFrameCallback(onFrame);
+        }
+    }
+
+    /**
+     * To be called from inside a flush
+     *
+     * @param observer about to be notified
+     * @return true if this observer has not yet been notified during the current frame
+     */
+    public boolean markNotifiedThisFrame(Observer observer) {
+        return notifiedThisFrame.add(observer);
+    }
+
+    private void flush() {
+
+        ArrayList<Runnable> toFlush;
+        synchronized (lock) {
+            toFlush = pending;
+            pending = flushing;
+            flushing = toFlush;
+            framePosted = false;
+        }
+
+        // everything scheduled gets run, even if something before it throws, otherwise
+        // the callers would stay dirty and never be scheduled again
+        RuntimeException firstException = null;
+        try {
+            for (int ii = 0; ii < toFlush.size(); ii++) {
+                try {
+                    toFlush.get(ii).run();
+                } catch (RuntimeException e) {
+                    if (firstException == null) {
+                        firstException = e;
+                    }
+                }
+            }
+        } finally {
+            toFlush.clear();
+            notifiedThisFrame.clear();
+        }
+
+        if (firstException != null) {
+            throw firstException;
+        }
+    }
+
+    public interface FrameClock {
+        /**
+         * @param onFrame to be run once, on the UI thread, when the next frame starts
+         */
+        void postFrameCallback(Runnable onFrame);
+    }
+}
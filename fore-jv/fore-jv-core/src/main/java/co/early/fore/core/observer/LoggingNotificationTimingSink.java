@@ -0,0 +1,84 @@
+package co.early.fore.core.observer;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.logging.Logger;
+
+/**
+ * Logs a warning for each observer that goes over the NotificationTiming budget, and for
+ * each observable that gets notified more often than notifyRateWarningPerSecond (once per
+ * second at most, per observable)
+ */
+public class LoggingNotificationTimingSink implements NotificationTimingSink {
+
+    private static final String TAG = LoggingNotificationTimingSink.class.getSimpleName();
+
+    /**
+     * More notifications than frames per second means that some of them can't be seen
+     */
+    public static final int DEFAULT_NOTIFY_RATE_WARNING_PER_SECOND = 60;
+
+    private static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger logger;
+    private final int notifyRateWarningPerSecond;
+
+    // weak keys, this sink should not keep observables alive
+    private final Map<Observable, RateWindow> rateWindows = new WeakHashMap<>();
+
+    public LoggingNotificationTimingSink(Logger logger) {
+        this(logger, DEFAULT_NOTIFY_RATE_WARNING_PER_SECOND);
+    }
+
+    public LoggingNotificationTimingSink(Logger logger, int notifyRateWarningPerSecond) {
+        this.logger = Affirm.notNull(logger);
+        this.notifyRateWarningPerSecond = notifyRateWarningPerSecond;
+    }
+
+    @Override
+    public void onNotify(Observable observable, long timeNanos) {
+
+        boolean warn;
+
+        synchronized (rateWindows) {
+            RateWindow window = rateWindows.get(observable);
+            if (window == null) {
+                window = new RateWindow();
+                window.startNanos = timeNanos;
+                rateWindows.put(observable, window);
+            }
+            if (timeNanos - window.startNanos >= ONE_SECOND_NANOS) {
+                window.startNanos = timeNanos;
+                window.count = 0;
+            }
+            window.count++;
+            warn = (window.count == notifyRateWarningPerSecond + 1);
+        }
+
+        if (warn) {
+            logger.w(TAG, observable.getClass().getName() + " has been notified more than "
+                    + notifyRateWarningPerSecond + " times in under a second");
+        }
+    }
+
+    @Override
+    public void onObserverCalled(Observable observable, Observer observer, long durationNanos, boolean overBudget) {
+        if (overBudget) {
+            logger.w(TAG, "Slow observer: " + observer.getClass().getName() + " took " + millis(durationNanos)
+                    + "ms to run somethingChanged(), notified by: " + observable.getClass().getName()
+                    + " on thread: " + Thread.currentThread().getName());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.valueOf((nanos / 100_000) / 10.0);
+    }
+
+    private static class RateWindow {
+        long startNanos;
+        int count;
+    }
+}
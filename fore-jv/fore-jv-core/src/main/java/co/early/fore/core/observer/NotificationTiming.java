@@ -0,0 +1,72 @@
+package co.early.fore.core.observer;
+
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.core.Affirm;
+import co.early.fore.core.time.SystemTimeWrapper;
+
+/**
+ * Optional instrumentation for ObservableImp: once installed, every notifyObservers() call and
+ * every observer's somethingChanged() callback (with how long it took) is reported to a
+ * {@link NotificationTimingSink}. A slow callback on the UI thread (typically an expensive
+ * syncView()) is a common source of jank, this is a way to find it without a profiler.
+ * <p>
+ * e.g. in a debug build: NotificationTiming.install(new LoggingNotificationTimingSink(logger));
+ * <p>
+ * This is global, it applies to every ObservableImp in the process. When nothing is installed
+ * the cost to ObservableImp is one volatile read per notification.
+ */
+public final class NotificationTiming {
+
+    /**
+     * About a quarter of a 60Hz frame, a single observer taking longer than this on the UI
+     * thread doesn't leave much time for anything else
+     */
+    public static final long DEFAULT_BUDGET_MILLIS = 4;
+
+    private static volatile NotificationTiming installed = null;
+
+    private final NotificationTimingSink sink;
+    private final long budgetNanos;
+    private final SystemTimeWrapper systemTimeWrapper;
+
+    private NotificationTiming(NotificationTimingSink sink, long budgetMillis, SystemTimeWrapper systemTimeWrapper) {
+        this.sink = Affirm.notNull(sink);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        this.systemTimeWrapper = Affirm.notNull(systemTimeWrapper);
+    }
+
+    public static void install(NotificationTimingSink sink) {
+        install(sink, DEFAULT_BUDGET_MILLIS, new SystemTimeWrapper());
+    }
+
+    /**
+     * @param sink              where to send the timing data
+     * @param budgetMillis      callbacks taking longer than this are flagged as overBudget
+     * @param systemTimeWrapper source of the timestamps (mainly so tests can control them)
+     */
+    public static void install(NotificationTimingSink sink, long budgetMillis, SystemTimeWrapper systemTimeWrapper) {
+        installed = new NotificationTiming(sink, budgetMillis, systemTimeWrapper);
+    }
+
+    public static void uninstall() {
+        installed = null;
+    }
+
+    static NotificationTiming installed() {
+        return installed;
+    }
+
+    void notified(Observable observable) {
+        sink.onNotify(observable, systemTimeWrapper.nanoTime());
+    }
+
+    long startTiming() {
+        return systemTimeWrapper.nanoTime();
+    }
+
+    void stopTiming(Observable observable, Observer observer, long startNanos) {
+        long durationNanos = systemTimeWrapper.nanoTime() - startNanos;
+        sink.onObserverCalled(observable, observer, durationNanos, durationNanos > budgetNanos);
+    }
+}
@@ -0,0 +1,28 @@
+package co.early.fore.core.observer;
+
+/**
+ * Receives timing data from every ObservableImp while a {@link NotificationTiming} is installed.
+ * <p>
+ * Methods are called on whichever thread the notification happens on, implementations need to
+ * be thread safe, and quick (they run inside notifyObservers())
+ */
+public interface NotificationTimingSink {
+
+    /**
+     * notifyObservers() was called on the observable. This is counted even when the call gets
+     * coalesced in to a notification which is already pending, so it reflects how often the
+     * model is changing, rather than how often the observers get called
+     *
+     * @param timeNanos when it was called, according to {@link co.early.fore.core.time.SystemTimeWrapper#nanoTime()}
+     */
+    void onNotify(Observable observable, long timeNanos);
+
+    /**
+     * The observer's somethingChanged() callback has just returned
+     *
+     * @param durationNanos how long the callback took
+     * @param overBudget    true if durationNanos is longer than the budget that NotificationTiming
+     *                      was installed with
+     */
+    void onObserverCalled(Observable observable, Observer observer, long durationNanos, boolean overBudget);
+}
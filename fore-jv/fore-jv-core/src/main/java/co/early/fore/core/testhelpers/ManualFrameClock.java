@@ -0,0 +1,46 @@
+package co.early.fore.core.testhelpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import co.early.fore.core.observer.FrameScheduler;
+
+/**
+ * Frame clock for tests, a frame only happens when you call nextFrame()
+ */
+public class ManualFrameClock implements FrameScheduler.FrameClock {
+
+    // double buffered so that frames don't allocate anything (handy for allocation tests)
+    private List<Runnable> frameCallbacks = new ArrayList<>();
+    private List<Runnable> running = new ArrayList<>();
+
+    @Override
+    public synchronized void postFrameCallback(Runnable onFrame) {
+        frameCallbacks.add(onFrame);
+    }
+
+    /**
+     * Runs everything that was waiting for the next frame, on the calling thread
+     */
+    public void nextFrame() {
+
+        List<Runnable> toRun;
+        synchronized (this) {
+            toRun = frameCallbacks;
+            frameCallbacks = running;
+            running = toRun;
+        }
+
+        try {
+            for (int ii = 0; ii < toRun.size(); ii++) {
+                toRun.get(ii).run();
+            }
+        } finally {
+            toRun.clear();
+        }
+    }
+
+    public synchronized boolean isFrameRequested() {
+        return !frameCallbacks.isEmpty();
+    }
+}
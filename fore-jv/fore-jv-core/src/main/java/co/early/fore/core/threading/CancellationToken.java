@@ -0,0 +1,143 @@
+package co.early.fore.core.threading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import co.early.fore.core.Affirm;
+
+/**
+ * Lets background work find out that nobody wants its result any more, so that it can stop
+ * early instead of running to completion (cooperative cancellation: nothing is forcibly
+ * stopped, long running work needs to check {@link #isCancelled()} or call
+ * {@link #throwIfCancelled()} every so often).
+ * <p>
+ * A token can be created with a parent, in which case it is cancelled whenever the parent is.
+ * That way one token can represent a screen (cancelled when the screen goes away) while each
+ * task run for the screen has a child token of its own, which can be cancelled (or time out)
+ * without affecting the other tasks. Call {@link #release()} once the work a child token was
+ * created for is over, so that a long lived parent doesn't keep hold of it.
+ * <p>
+ * Once cancelled, a token stays cancelled.
+ */
+public class CancellationToken {
+
+    private final Object lock = new Object();
+    private final CancellationToken parent;
+    private final Runnable cancelWithParent = this::cancel;
+
+    private volatile boolean cancelled = false;
+    // null once cancelled
+    private List<Runnable> onCancelledListeners = new ArrayList<>();
+    private Future<?> timeout;
+
+    public CancellationToken() {
+        this.parent = null;
+    }
+
+    /**
+     * @param parent when this is cancelled, the new token will be cancelled too (but not the
+     *               other way round). If it's already cancelled, so is the new token
+     */
+    public CancellationToken(CancellationToken parent) {
+        this.parent = Affirm.notNull(parent);
+        parent.addOnCancelledListener(cancelWithParent);
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @throws CancellationException if this token has been cancelled, handy for bailing out
+     * of deeply nested work in one go
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Cancels the token, running any onCancelled listeners on this thread. Cancelling a token
+     * which is already cancelled does nothing
+     */
+    public void cancel() {
+
+        List<Runnable> listeners;
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            listeners = onCancelledListeners;
+            onCancelledListeners = null;
+        }
+
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+        release();
+    }
+
+    /**
+     * Cancels the token once the timeout has passed (unless it's been released, or cancelled
+     * some other way first). Calling this again replaces any previous timeout
+     */
+    public void cancelAfter(long timeout, TimeUnit unit) {
+        Affirm.notNull(unit);
+        synchronized (lock) {
+            if (cancelled) {
+                return;
+            }
+            cancelTimeout();
+            this.timeout = TaskExecutors.scheduler().schedule(cancelWithParent, timeout, unit);
+        }
+    }
+
+    /**
+     * @param listener will be run once, on whichever thread cancels the token (or straight away
+     *                 on this thread, if it's already cancelled)
+     */
+    public void addOnCancelledListener(Runnable listener) {
+        Affirm.notNull(listener);
+        synchronized (lock) {
+            if (!cancelled) {
+                onCancelledListeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    public void removeOnCancelledListener(Runnable listener) {
+        Affirm.notNull(listener);
+        synchronized (lock) {
+            if (!cancelled) {
+                onCancelledListeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Call once the work this token was created for is over: the token stops following its
+     * parent and any timeout is stopped. The token itself can still be cancelled directly
+     */
+    public void release() {
+        if (parent != null) {
+            parent.removeOnCancelledListener(cancelWithParent);
+        }
+        synchronized (lock) {
+            cancelTimeout();
+        }
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel(false);
+            timeout = null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package co.early.fore.core.threading;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Default thread pools for background work, used by Async / AsyncBuilder unless they are
+ * given an Executor of their own.
+ * <p>
+ * io() - for work that spends most of its time blocked (database queries, file and network
+ * access). It has plenty of threads so that a few slow queries don't hold up everything
+ * queued behind them
+ * <p>
+ * cpu() - for work that keeps a core busy the whole time it runs (diffing, parsing, sorting).
+ * It has one thread per core, more than that just adds context switching
+ * <p>
+ * virtual() - for JVM code that makes thousands of blocking calls at once (simulators, load
+ * tests). Each task gets its own virtual thread, so the number of tasks blocked at the same time
+ * isn't capped by a pool size. Virtual threads need Java 21+, on anything else (including
+ * android) this is just io()
+ * <p>
+ * The io() and cpu() pools are only created when first used, they have unbounded queues so a task is never
+ * rejected, and their threads are daemon threads which go away after they have been idle for
+ * a while. Unlike AsyncTask.THREAD_POOL_EXECUTOR, they are only used by fore, so other
+ * libraries' AsyncTasks can't fill them up.
+ */
+public class TaskExecutors {
+
+    public static final int IO_THREADS = 64;
+    public static final int CPU_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private TaskExecutors() {
+    }
+
+    public static Executor io() {
+        return IoHolder.EXECUTOR;
+    }
+
+    public static Executor cpu() {
+        return CpuHolder.EXECUTOR;
+    }
+
+    public static Executor virtual() {
+        return VirtualHolder.EXECUTOR;
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return VirtualHolder.EXECUTOR != io();
+    }
+
+    /**
+     * Just for timeouts, see {@link CancellationToken#cancelAfter(long, TimeUnit)}
+     */
+    static ScheduledExecutorService scheduler() {
+        return SchedulerHolder.EXECUTOR;
+    }
+
+    private static class IoHolder {
+        static final Executor EXECUTOR = createPool(IO_THREADS, "fore-io-");
+    }
+
+    private static class CpuHolder {
+        static final Executor EXECUTOR = createPool(CPU_THREADS, "fore-cpu-");
+    }
+
+    private static class SchedulerHolder {
+        static final ScheduledExecutorService EXECUTOR = createScheduler();
+    }
+
+    private static class VirtualHolder {
+        static final Executor EXECUTOR = createVirtualThreadExecutor();
+    }
+
+    /**
+     * fore is built for java 8, so Executors.newVirtualThreadPerTaskExecutor() has to be found
+     * at runtime. On java 19 and 20 it exists but throws unless preview features are enabled,
+     * that ends up as an InvocationTargetException which is handled the same way
+     */
+    private static Executor createVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError | SecurityException e) {
+            return io();
+        }
+    }
+
+    /**
+     * With an unbounded queue a ThreadPoolExecutor never grows past its core size, so the core
+     * size is the pool size here, and the core threads are allowed to time out instead
+     */
+    private static ThreadPoolExecutor createPool(int threads, String namePrefix) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory(namePrefix));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * The thread only times out while nothing is scheduled. Most timeouts are cancelled well
+     * before they are due, so they are removed from the queue when that happens rather than
+     * sitting there (holding on to their tokens) until their delay has passed.
+     * setRemoveOnCancelPolicy() is only on android from API 21, before that cancelled timeouts
+     * are left in the queue as they would have been anyway
+     */
+    private static ScheduledThreadPoolExecutor createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory("fore-timeout-"));
+        scheduler.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+        scheduler.allowCoreThreadTimeOut(true);
+        try {
+            scheduler.setRemoveOnCancelPolicy(true);
+        } catch (NoSuchMethodError e) {
+            // android < 21
+        }
+        return scheduler;
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final String namePrefix;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        DaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, namePrefix + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
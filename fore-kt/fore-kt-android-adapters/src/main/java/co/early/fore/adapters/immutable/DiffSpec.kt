@@ -4,12 +4,17 @@ import co.early.fore.core.time.SystemTimeWrapper
 import androidx.recyclerview.widget.DiffUtil.DiffResult
 
 /**
- * Wraps a DiffResult with a timestamp so that we can abandon it when it gets old. This helps
- * the NotifyableImp manage adapter updates appropriately
+ * Wraps a DiffResult (or a ListDiff) with a timestamp so that we can abandon it when it gets old.
+ * This helps the NotifyableImp manage adapter updates appropriately
  *
  * @param diffResult can be null to indicate no changes
+ * @param listDiff an alternative to diffResult (set at most one of them, if neither is set this
+ * indicates no changes)
  * @param systemTimeWrapper wrapper for the system time
  */
-class DiffSpec(val diffResult: DiffResult?, systemTimeWrapper: SystemTimeWrapper) {
+class DiffSpec(val diffResult: DiffResult?, val listDiff: ListDiff?, systemTimeWrapper: SystemTimeWrapper) {
+
+    constructor(diffResult: DiffResult?, systemTimeWrapper: SystemTimeWrapper) : this(diffResult, null, systemTimeWrapper)
+
     val timeStamp: Long = systemTimeWrapper.currentTimeMillis()
 }
@@ -0,0 +1,169 @@
+package co.early.fore.adapters.immutable
+
+/**
+ * An ordered list of insert / remove / move / change operations which, applied in order, turn
+ * an old list in to a new list. Produced by a diff calculator, or recorded as the changes
+ * happen by a batching ChangeAware list.
+ *
+ * Positions follow the same rules as the RecyclerView.Adapter notifyItemXXX() methods: each
+ * one is relative to the list as it is once all the previous operations have been applied,
+ * so they can be passed straight through to an adapter (see NotifyableImp)
+ */
+class ListDiff private constructor(
+    private val operations: IntArray,
+    val operationCount: Int,
+    // payloads of CHANGED operations by operation index, null until there is a payload
+    private val payloads: Array<Any?>?
+) {
+
+    interface Callback {
+        fun onInserted(position: Int, count: Int)
+        fun onRemoved(position: Int, count: Int)
+        fun onMoved(fromPosition: Int, toPosition: Int)
+
+        /**
+         * @param payload passed on to the adapter's notifyItemRangeChanged(), null for a full rebind
+         */
+        fun onChanged(position: Int, count: Int, payload: Any?)
+    }
+
+    fun dispatchUpdatesTo(callback: Callback) {
+        var ii = 0
+        while (ii < operationCount * 3) {
+            val a = operations[ii + 1]
+            val b = operations[ii + 2]
+            when (operations[ii]) {
+                INSERTED -> callback.onInserted(a, b)
+                REMOVED -> callback.onRemoved(a, b)
+                MOVED -> callback.onMoved(a, b)
+                CHANGED -> callback.onChanged(a, b, payloads?.get(ii / 3))
+            }
+            ii += 3
+        }
+    }
+
+    fun isEmpty(): Boolean {
+        return operationCount == 0
+    }
+
+    /**
+     * Collects operations in the order they happen, merging each one in to the previous one
+     * where the two describe a single range (eg: removing positions 5, 4, 3 in turn, or
+     * inserting at 7 then at 8, or changing 2..4 then 5..6). Changes are only merged if they
+     * have the same payload.
+     */
+    class Builder {
+
+        // operations are stored as (type, a, b) triplets, a and b being position and count,
+        // or from and to for a move
+        private var operations = IntArray(3 * 16)
+        var operationCount = 0
+            private set
+        private var payloads: Array<Any?>? = null
+
+        fun inserted(position: Int, count: Int) {
+            if (lastTypeIs(INSERTED) && lastA() <= position && position <= lastA() + lastB()) {
+                // inserted within or either side of the previous insert
+                operations[lastIndex() + 2] += count
+            } else {
+                add(INSERTED, position, count)
+            }
+        }
+
+        fun removed(position: Int, count: Int) {
+            if (lastTypeIs(REMOVED) && position <= lastA() && lastA() <= position + count) {
+                // removed from either side of the previous removal
+                operations[lastIndex() + 1] = position
+                operations[lastIndex() + 2] += count
+            } else {
+                add(REMOVED, position, count)
+            }
+        }
+
+        fun moved(fromPosition: Int, toPosition: Int) {
+            add(MOVED, fromPosition, toPosition)
+        }
+
+        /**
+         * Adds a range move as single moves (that's all an adapter supports)
+         *
+         * @param fromPosition first position of the range before it moves
+         * @param toPosition first position of the range after it has moved
+         * @param count size of the range
+         */
+        fun moved(fromPosition: Int, toPosition: Int, count: Int) {
+            if (toPosition > fromPosition) {
+                for (ii in 0 until count) {
+                    add(MOVED, fromPosition, toPosition + count - 1)
+                }
+            } else if (toPosition < fromPosition) {
+                for (ii in 0 until count) {
+                    add(MOVED, fromPosition + ii, toPosition + ii)
+                }
+            }
+        }
+
+        /**
+         * @param payload passed on to the adapter's notifyItemRangeChanged(), can be null
+         */
+        fun changed(position: Int, count: Int, payload: Any? = null) {
+            if (lastTypeIs(CHANGED) && lastPayload() === payload
+                && position <= lastA() + lastB() && lastA() <= position + count) {
+                // overlaps or touches the previous change
+                val start = minOf(position, lastA())
+                val end = maxOf(position + count, lastA() + lastB())
+                operations[lastIndex() + 1] = start
+                operations[lastIndex() + 2] = end - start
+            } else {
+                add(CHANGED, position, count)
+                if (payload != null) {
+                    val payloads = payloads ?: arrayOfNulls<Any?>(operations.size / 3).also { payloads = it }
+                    payloads[operationCount - 1] = payload
+                }
+            }
+        }
+
+        fun build(): ListDiff {
+            return ListDiff(operations, operationCount, payloads)
+        }
+
+        private fun add(type: Int, a: Int, b: Int) {
+            if (operations.size < (operationCount + 1) * 3) {
+                operations = operations.copyOf(operations.size * 2)
+                payloads = payloads?.copyOf(operations.size / 3)
+            }
+            val index = operationCount * 3
+            operations[index] = type
+            operations[index + 1] = a
+            operations[index + 2] = b
+            operationCount++
+        }
+
+        private fun lastTypeIs(type: Int): Boolean {
+            return operationCount > 0 && operations[lastIndex()] == type
+        }
+
+        private fun lastIndex(): Int {
+            return (operationCount - 1) * 3
+        }
+
+        private fun lastA(): Int {
+            return operations[lastIndex() + 1]
+        }
+
+        private fun lastB(): Int {
+            return operations[lastIndex() + 2]
+        }
+
+        private fun lastPayload(): Any? {
+            return payloads?.get(operationCount - 1)
+        }
+    }
+
+    private companion object {
+        const val INSERTED = 0
+        const val REMOVED = 1
+        const val MOVED = 2
+        const val CHANGED = 3
+    }
+}
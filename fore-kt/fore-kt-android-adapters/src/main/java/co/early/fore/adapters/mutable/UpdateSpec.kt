@@ -1,38 +1,70 @@
 package co.early.fore.adapters.mutable
 
+import co.early.fore.adapters.immutable.ListDiff
 import co.early.fore.core.time.SystemTimeWrapper
 import java.lang.NullPointerException
 
 /**
- * Indicates what was the most recent change in a list, helps the ChangeAware* classes
- * call the correct notify* method for android adapters to take advantage of built in
- * list animations
+ * Indicates what was the most recent change in a list (or for BATCHED updates, all the changes
+ * since the last update), helps the ChangeAware* classes call the correct notify* method for
+ * android adapters to take advantage of built in list animations
  */
-class UpdateSpec(
-    type: UpdateType,
-    rowPosition: Int,
-    rowsEffected: Int,
-    systemTimeWrapper: SystemTimeWrapper
-) {
+class UpdateSpec {
+
     enum class UpdateType {
-        FULL_UPDATE, ITEM_CHANGED, ITEM_INSERTED, ITEM_REMOVED
+        FULL_UPDATE, ITEM_CHANGED, ITEM_INSERTED, ITEM_REMOVED, ITEM_MOVED, BATCHED
     }
 
     val type: UpdateType
     val rowPosition: Int
     val rowsEffected: Int
+
+    /**
+     * only meaningful for ITEM_MOVED updates: where rowPosition has moved to
+     */
+    val toRowPosition: Int
     val timeStamp: Long
+
+    /**
+     * only set for BATCHED updates: all the changes made since the last update, in order
+     */
+    val changes: ListDiff?
+
+    constructor(
+        type: UpdateType,
+        rowPosition: Int,
+        rowsEffected: Int,
+        systemTimeWrapper: SystemTimeWrapper
+    ) : this(type, rowPosition, rowPosition, rowsEffected, systemTimeWrapper)
+
+    constructor(
+        type: UpdateType,
+        rowPosition: Int,
+        toRowPosition: Int,
+        rowsEffected: Int,
+        systemTimeWrapper: SystemTimeWrapper
+    ) {
+        this.type = notNull(type)
+        this.rowPosition = rowPosition
+        this.toRowPosition = toRowPosition
+        this.rowsEffected = rowsEffected
+        this.timeStamp = notNull(systemTimeWrapper).currentTimeMillis()
+        this.changes = null
+    }
+
+    constructor(changes: ListDiff, timeStamp: Long) {
+        this.type = UpdateType.BATCHED
+        this.rowPosition = 0
+        this.toRowPosition = 0
+        this.rowsEffected = 0
+        this.timeStamp = timeStamp
+        this.changes = notNull(changes)
+    }
+
     private fun <T> notNull(param: T?): T {
         if (param == null) {
             throw NullPointerException("Parameter must not be null")
         }
         return param
     }
-
-    init {
-        this.type = notNull(type)
-        this.rowPosition = rowPosition
-        this.rowsEffected = rowsEffected
-        timeStamp = notNull(systemTimeWrapper).currentTimeMillis()
-    }
 }
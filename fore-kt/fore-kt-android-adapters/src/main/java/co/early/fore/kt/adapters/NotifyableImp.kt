@@ -3,6 +3,7 @@ package co.early.fore.kt.adapters
 import androidx.recyclerview.widget.RecyclerView
 import co.early.fore.adapters.Notifyable
 import co.early.fore.adapters.immutable.Diffable
+import co.early.fore.adapters.immutable.ListDiff
 import co.early.fore.adapters.mutable.UpdateSpec.UpdateType
 import co.early.fore.adapters.mutable.Updateable
 
@@ -12,6 +13,7 @@ class NotifyableImp<VH : RecyclerView.ViewHolder>(
 ) : Notifyable<VH> {
 
     private lateinit var adapter: RecyclerView.Adapter<VH>
+    private val listDiffCallback: ListDiff.Callback = AdapterListDiffCallback()
 
     init {
         if (updateable == null && diffable == null) {
@@ -49,15 +51,37 @@ class NotifyableImp<VH : RecyclerView.ViewHolder>(
             UpdateType.ITEM_CHANGED -> adapter.notifyItemRangeChanged(updateSpec.rowPosition, updateSpec.rowsEffected)
             UpdateType.ITEM_REMOVED -> adapter.notifyItemRangeRemoved(updateSpec.rowPosition, updateSpec.rowsEffected)
             UpdateType.ITEM_INSERTED -> adapter.notifyItemRangeInserted(updateSpec.rowPosition, updateSpec.rowsEffected)
+            UpdateType.ITEM_MOVED -> ListDiff.Builder().apply {
+                moved(updateSpec.rowPosition, updateSpec.toRowPosition, updateSpec.rowsEffected)
+            }.build().dispatchUpdatesTo(listDiffCallback)
+            UpdateType.BATCHED -> updateSpec.changes!!.dispatchUpdatesTo(listDiffCallback)
         }
     }
 
     private fun processDiffable() {
         val diffSpec = diffable!!.getAndClearLatestDiffSpec(MAX_AGE_MS_BEFORE_IGNORE.toLong())
-        if (diffSpec.diffResult == null) {
-            adapter.notifyDataSetChanged()
-        } else {
-            diffSpec.diffResult.dispatchUpdatesTo(adapter)
+        when {
+            diffSpec.diffResult != null -> diffSpec.diffResult.dispatchUpdatesTo(adapter)
+            diffSpec.listDiff != null -> diffSpec.listDiff.dispatchUpdatesTo(listDiffCallback)
+            else -> adapter.notifyDataSetChanged()
+        }
+    }
+
+    private inner class AdapterListDiffCallback : ListDiff.Callback {
+        override fun onInserted(position: Int, count: Int) {
+            adapter.notifyItemRangeInserted(position, count)
+        }
+
+        override fun onRemoved(position: Int, count: Int) {
+            adapter.notifyItemRangeRemoved(position, count)
+        }
+
+        override fun onMoved(fromPosition: Int, toPosition: Int) {
+            adapter.notifyItemMoved(fromPosition, toPosition)
+        }
+
+        override fun onChanged(position: Int, count: Int, payload: Any?) {
+            adapter.notifyItemRangeChanged(position, count, payload)
         }
     }
 
@@ -0,0 +1,37 @@
+import co.early.fore.Shared
+
+/**
+ * JMH benchmarks for the kotlin core, JVM only and never published
+ *
+ * ./gradlew :fore-kt:fore-kt-benchmark:jmh
+ * ./gradlew :fore-kt:fore-kt-benchmark:jmh -PjmhIncludes=ObservableImpBenchmark
+ *
+ * results are written to fore-kt/fore-kt-benchmark/build/results/jmh/results.txt, run the same
+ * benchmarks before and after a change to the notification path and compare the two files
+ */
+plugins {
+    alias(libs.plugins.kotlin)
+    alias(libs.plugins.jmh)
+}
+
+kotlin {
+    jvmToolchain {
+        languageVersion.set(JavaLanguageVersion.of(Shared.Versions.jvm_toolchain))
+    }
+}
+
+println("[fore-kt-benchmark build file]")
+
+dependencies {
+    jmh(project(":fore-kt:fore-kt-core"))
+    jmh("org.jetbrains.kotlinx:kotlinx-coroutines-test:${Shared.Versions.kotlinx_coroutines_test}")
+}
+
+jmh {
+    jmhVersion.set(Shared.Versions.jmh)
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("TEXT")
+}
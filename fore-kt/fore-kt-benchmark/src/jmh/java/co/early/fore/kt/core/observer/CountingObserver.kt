@@ -0,0 +1,17 @@
+package co.early.fore.kt.core.observer
+
+import co.early.fore.core.observer.Observer
+
+/**
+ * Does the least possible work while still giving the JIT something it can't remove. The
+ * count is not thread safe, it doesn't need to be, nothing reads it
+ */
+class CountingObserver : Observer {
+
+    @JvmField
+    var count = 0L
+
+    override fun somethingChanged() {
+        count++
+    }
+}
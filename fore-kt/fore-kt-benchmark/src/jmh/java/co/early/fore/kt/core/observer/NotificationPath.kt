@@ -0,0 +1,50 @@
+package co.early.fore.kt.core.observer
+
+import co.early.fore.core.WorkMode
+import co.early.fore.kt.core.logging.SilentLogger
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.StandardTestDispatcher
+import kotlinx.coroutines.test.TestCoroutineScheduler
+import kotlinx.coroutines.test.UnconfinedTestDispatcher
+
+/**
+ * The ways an [ObservableImp] can deliver its notifications on the JVM:
+ *
+ * SYNCHRONOUS - observers are called on the notifying thread (what unit tests use)
+ *
+ * TEST_DISPATCHER - ASYNCHRONOUS WorkMode with a coroutine dispatcher in place of
+ * Dispatchers.Main.immediate (which doesn't exist off android). The dispatcher is unconfined
+ * so the observers still run before notifyObservers() returns, the same situation as calling
+ * notifyObservers() from the UI thread on android
+ *
+ * DISPATCHED - ASYNCHRONOUS WorkMode with a dispatcher whose isDispatchNeeded() is true, so
+ * every notification is launched as a coroutine and queued, the same situation as calling
+ * notifyObservers() from a background thread on android. The queued notifications are run by
+ * [runPending], which the benchmarks call straight after notifying, so the cost of delivering
+ * them is included
+ */
+enum class NotificationPath {
+    SYNCHRONOUS,
+    TEST_DISPATCHER,
+    DISPATCHED;
+
+    private val scheduler = TestCoroutineScheduler()
+
+    @OptIn(ExperimentalCoroutinesApi::class)
+    fun createObservable(): ObservableImp {
+        return when (this) {
+            SYNCHRONOUS -> ObservableImp(WorkMode.SYNCHRONOUS, SilentLogger(), UnconfinedTestDispatcher())
+            TEST_DISPATCHER -> ObservableImp(WorkMode.ASYNCHRONOUS, SilentLogger(), UnconfinedTestDispatcher())
+            DISPATCHED -> ObservableImp(WorkMode.ASYNCHRONOUS, SilentLogger(), StandardTestDispatcher(scheduler))
+        }
+    }
+
+    /**
+     * Runs any notifications that are still queued (only DISPATCHED ever has any)
+     */
+    fun runPending() {
+        if (this == DISPATCHED) {
+            scheduler.advanceUntilIdle()
+        }
+    }
+}
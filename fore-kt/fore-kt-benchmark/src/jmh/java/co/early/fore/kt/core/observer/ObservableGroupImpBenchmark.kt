@@ -0,0 +1,63 @@
+package co.early.fore.kt.core.observer
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * A typical screen observes a handful of models through an [ObservableGroupImp], this
+ * measures registering against the whole group and a notification coming from every
+ * member in turn (i.e. one "change wave" across all the models)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+open class ObservableGroupImpBenchmark {
+
+    @Param("1", "4", "16", "256")
+    var observerCount = 0
+
+    @Param("4")
+    var groupSize = 0
+
+    @Param("SYNCHRONOUS", "TEST_DISPATCHER", "DISPATCHED")
+    lateinit var path: NotificationPath
+
+    private lateinit var members: Array<ObservableImp>
+    private lateinit var group: ObservableGroupImp
+    private val extraObserver = CountingObserver()
+
+    @Setup(Level.Trial)
+    fun setup() {
+        members = Array(groupSize) { path.createObservable() }
+        group = ObservableGroupImp(*members)
+        repeat(observerCount) {
+            group.addObserver(CountingObserver())
+        }
+    }
+
+    @Benchmark
+    fun notifyEveryMember() {
+        for (member in members) {
+            member.notifyObservers()
+        }
+        path.runPending()
+    }
+
+    @Benchmark
+    fun addThenRemoveObserver() {
+        group.addObserver(extraObserver)
+        group.removeObserver(extraObserver)
+    }
+}
@@ -0,0 +1,66 @@
+package co.early.fore.kt.core.observer
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Single threaded add / remove / notify costs for [ObservableImp].
+ *
+ * Throughput gives ops/us, SampleTime gives the latency distribution (p50, p99, p99.99...)
+ * which is where lock hand-offs and allocation spikes tend to show up
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+open class ObservableImpBenchmark {
+
+    @Param("1", "4", "16", "256")
+    var observerCount = 0
+
+    @Param("SYNCHRONOUS", "TEST_DISPATCHER", "DISPATCHED")
+    lateinit var path: NotificationPath
+
+    private lateinit var observable: ObservableImp
+    private val extraObserver = CountingObserver()
+
+    @Setup(Level.Trial)
+    fun setup() {
+        observable = path.createObservable()
+        repeat(observerCount) {
+            observable.addObserver(CountingObserver())
+        }
+    }
+
+    @Benchmark
+    fun notifyObservers() {
+        observable.notifyObservers()
+        path.runPending()
+    }
+
+    /**
+     * add and remove are always paired in real code (onStart / onStop), measuring them
+     * together keeps the observer count stable for the whole trial
+     */
+    @Benchmark
+    fun addThenRemoveObserver() {
+        observable.addObserver(extraObserver)
+        observable.removeObserver(extraObserver)
+    }
+
+    @Benchmark
+    fun hasObservers(): Boolean {
+        return observable.hasObservers()
+    }
+}
@@ -0,0 +1,73 @@
+package co.early.fore.kt.core.observer
+
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Group
+import org.openjdk.jmh.annotations.GroupThreads
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Several threads notifying the same [ObservableImp] at once, with and without another
+ * thread adding and removing an observer at the same time (a screen rotating while a
+ * background repository keeps publishing, for example).
+ *
+ * The thread counts below are the defaults, to try other values of N pass a thread
+ * distribution to JMH, e.g. -tg 8 for "notifiers" or -tg 8,1 for "notifiersWithChurn"
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput, Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+open class ObservableImpContentionBenchmark {
+
+    @Param("1", "4", "16", "256")
+    var observerCount = 0
+
+    @Param("SYNCHRONOUS", "TEST_DISPATCHER", "DISPATCHED")
+    lateinit var path: NotificationPath
+
+    private lateinit var observable: ObservableImp
+    private val churnObserver = CountingObserver()
+
+    @Setup(Level.Trial)
+    fun setup() {
+        observable = path.createObservable()
+        repeat(observerCount) {
+            observable.addObserver(CountingObserver())
+        }
+    }
+
+    @Benchmark
+    @Group("notifiers")
+    @GroupThreads(4)
+    fun notifyOnly() {
+        observable.notifyObservers()
+        path.runPending()
+    }
+
+    @Benchmark
+    @Group("notifiersWithChurn")
+    @GroupThreads(4)
+    fun notifyWhileChurning() {
+        observable.notifyObservers()
+        path.runPending()
+    }
+
+    @Benchmark
+    @Group("notifiersWithChurn")
+    @GroupThreads(1)
+    fun churn() {
+        observable.addObserver(churnObserver)
+        observable.removeObserver(churnObserver)
+    }
+}
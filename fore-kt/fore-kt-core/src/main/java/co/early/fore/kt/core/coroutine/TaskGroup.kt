@@ -0,0 +1,59 @@
+package co.early.fore.kt.core.coroutine
+
+import co.early.fore.core.WorkMode
+import co.early.fore.kt.core.delegate.Fore
+import kotlinx.coroutines.*
+import kotlin.coroutines.CoroutineContext
+import kotlin.coroutines.coroutineContext
+
+/**
+ * Fan-out / fan-in: runs independent pieces of work in parallel and resumes once, when they
+ * have all finished, so a screen waits for the slowest of them rather than for the sum of them.
+ *
+ * ```
+ * launchMain {
+ *     val (rowCount, items) = awaitAllIO {
+ *         val rowCount = fork { dao.getRowCount() }
+ *         val items = fork { dao.getAllItems() }
+ *         rowCount.await() to items.await()
+ *     }
+ *     //back on the UI thread with both results
+ * }
+ * ```
+ *
+ * If any forked task fails, the others are cancelled and the first failure is thrown from
+ * awaitAll*() (standard structured concurrency, via [coroutineScope]). If the calling coroutine
+ * is cancelled, so are all the forked tasks.
+ *
+ * As with the other fore coroutine extensions, when SYNCHRONOUS each fork{} is run to
+ * completion as soon as it is called, one after another on the calling thread.
+ */
+class TaskGroupScope internal constructor(
+    private val scope: CoroutineScope,
+    private val dispatcher: CoroutineContext,
+    private val workMode: WorkMode,
+) {
+    suspend fun <T> fork(block: suspend CoroutineScope.() -> T): Deferred<T> {
+        return if (workMode == WorkMode.SYNCHRONOUS) {
+            CompletableDeferred(block(scope))
+        } else {
+            scope.async(dispatcher) { block() }
+        }
+    }
+}
+
+suspend fun <R> awaitAllIO(workMode: WorkMode? = null, block: suspend TaskGroupScope.() -> R): R {
+    return awaitAllCustom(Dispatchers.IO, workMode, block)
+}
+
+suspend fun <R> awaitAllDefault(workMode: WorkMode? = null, block: suspend TaskGroupScope.() -> R): R {
+    return awaitAllCustom(Dispatchers.Default, workMode, block)
+}
+
+suspend fun <R> awaitAllCustom(dispatcher: CoroutineContext, workMode: WorkMode? = null, block: suspend TaskGroupScope.() -> R): R {
+    return if (Fore.getWorkMode(workMode) == WorkMode.SYNCHRONOUS) {
+        block(TaskGroupScope(CoroutineScope(coroutineContext), dispatcher, WorkMode.SYNCHRONOUS))
+    } else {
+        coroutineScope { block(TaskGroupScope(this, dispatcher, WorkMode.ASYNCHRONOUS)) }
+    }
+}
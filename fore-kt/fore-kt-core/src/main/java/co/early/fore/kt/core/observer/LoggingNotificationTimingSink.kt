@@ -0,0 +1,67 @@
+package co.early.fore.kt.core.observer
+
+import co.early.fore.core.observer.Observable
+import co.early.fore.core.observer.Observer
+import co.early.fore.kt.core.delegate.Fore
+import co.early.fore.kt.core.logging.Logger
+import java.util.WeakHashMap
+import java.util.concurrent.TimeUnit
+
+/**
+ * Logs a warning for each observer that goes over the NotificationTiming budget, and for
+ * each observable that gets notified more often than notifyRateWarningPerSecond (once per
+ * second at most, per observable)
+ *
+ * @param logger if not specified, it will be taken from Fore
+ */
+class LoggingNotificationTimingSink(
+    private val logger: Logger? = null,
+    private val notifyRateWarningPerSecond: Int = DEFAULT_NOTIFY_RATE_WARNING_PER_SECOND
+) : NotificationTimingSink {
+
+    // weak keys, this sink should not keep observables alive
+    private val rateWindows = WeakHashMap<Observable, RateWindow>()
+
+    override fun onNotify(observable: Observable, timeNanos: Long) {
+
+        val warn = synchronized(rateWindows) {
+            val window = rateWindows.getOrPut(observable) { RateWindow(timeNanos) }
+            if (timeNanos - window.startNanos >= ONE_SECOND_NANOS) {
+                window.startNanos = timeNanos
+                window.count = 0
+            }
+            window.count++
+            window.count == notifyRateWarningPerSecond + 1
+        }
+
+        if (warn) {
+            Fore.getLogger(logger).w(
+                "${observable.javaClass.name} has been notified more than " +
+                        "$notifyRateWarningPerSecond times in under a second"
+            )
+        }
+    }
+
+    override fun onObserverCalled(observable: Observable, observer: Observer, durationNanos: Long, overBudget: Boolean) {
+        if (overBudget) {
+            Fore.getLogger(logger).w(
+                "Slow observer: ${observer.javaClass.name} took ${(durationNanos / 100_000) / 10.0}ms " +
+                        "to run somethingChanged(), notified by: ${observable.javaClass.name} " +
+                        "on thread: ${Thread.currentThread().name}"
+            )
+        }
+    }
+
+    private class RateWindow(var startNanos: Long) {
+        var count = 0
+    }
+
+    companion object {
+        /**
+         * More notifications than frames per second means that some of them can't be seen
+         */
+        const val DEFAULT_NOTIFY_RATE_WARNING_PER_SECOND = 60
+
+        private val ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1)
+    }
+}
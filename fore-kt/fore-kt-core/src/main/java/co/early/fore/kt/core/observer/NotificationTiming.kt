@@ -0,0 +1,71 @@
+package co.early.fore.kt.core.observer
+
+import co.early.fore.core.observer.Observable
+import co.early.fore.core.observer.Observer
+import co.early.fore.core.time.SystemTimeWrapper
+import co.early.fore.kt.core.delegate.Fore
+import java.util.concurrent.TimeUnit
+
+/**
+ * Optional instrumentation for ObservableImp: once installed, every notifyObservers() call and
+ * every observer's somethingChanged() callback (with how long it took) is reported to a
+ * [NotificationTimingSink]. A slow callback on the UI thread (typically an expensive syncView())
+ * is a common source of jank, this is a way to find it without a profiler.
+ *
+ * e.g. in a debug build: NotificationTiming.install(LoggingNotificationTimingSink())
+ *
+ * This is global, it applies to every ObservableImp in the process. When nothing is installed
+ * the cost to ObservableImp is one volatile read per notification.
+ *
+ * @param systemTimeWrapper if not specified, it will be taken from Fore
+ */
+class NotificationTiming private constructor(
+    private val sink: NotificationTimingSink,
+    budgetMillis: Long,
+    private val systemTimeWrapper: SystemTimeWrapper?
+) {
+
+    private val budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis)
+
+    internal fun notified(observable: Observable) {
+        sink.onNotify(observable, Fore.getSystemTimeWrapper(systemTimeWrapper).nanoTime())
+    }
+
+    internal fun startTiming(): Long {
+        return Fore.getSystemTimeWrapper(systemTimeWrapper).nanoTime()
+    }
+
+    internal fun stopTiming(observable: Observable, observer: Observer, startNanos: Long) {
+        val durationNanos = Fore.getSystemTimeWrapper(systemTimeWrapper).nanoTime() - startNanos
+        sink.onObserverCalled(observable, observer, durationNanos, durationNanos > budgetNanos)
+    }
+
+    companion object {
+
+        /**
+         * About a quarter of a 60Hz frame, a single observer taking longer than this on the UI
+         * thread doesn't leave much time for anything else
+         */
+        const val DEFAULT_BUDGET_MILLIS = 4L
+
+        @Volatile
+        internal var installed: NotificationTiming? = null
+            private set
+
+        /**
+         * @param sink where to send the timing data
+         * @param budgetMillis callbacks taking longer than this are flagged as overBudget
+         */
+        fun install(
+            sink: NotificationTimingSink,
+            budgetMillis: Long = DEFAULT_BUDGET_MILLIS,
+            systemTimeWrapper: SystemTimeWrapper? = null
+        ) {
+            installed = NotificationTiming(sink, budgetMillis, systemTimeWrapper)
+        }
+
+        fun uninstall() {
+            installed = null
+        }
+    }
+}
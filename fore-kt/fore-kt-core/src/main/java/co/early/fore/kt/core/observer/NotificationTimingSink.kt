@@ -0,0 +1,29 @@
+package co.early.fore.kt.core.observer
+
+import co.early.fore.core.observer.Observable
+import co.early.fore.core.observer.Observer
+
+/**
+ * Receives timing data from every ObservableImp while a [NotificationTiming] is installed.
+ *
+ * Functions are called on whichever thread the notification happens on, implementations need
+ * to be thread safe, and quick (they run inside notifyObservers())
+ */
+interface NotificationTimingSink {
+
+    /**
+     * notifyObservers() was called on the observable
+     *
+     * @param timeNanos when it was called, according to SystemTimeWrapper.nanoTime()
+     */
+    fun onNotify(observable: Observable, timeNanos: Long)
+
+    /**
+     * The observer's somethingChanged() callback has just returned
+     *
+     * @param durationNanos how long the callback took
+     * @param overBudget true if durationNanos is longer than the budget that NotificationTiming
+     * was installed with
+     */
+    fun onObserverCalled(observable: Observable, observer: Observer, durationNanos: Long, overBudget: Boolean)
+}
@@ -9,8 +9,10 @@ import co.early.fore.kt.core.delegate.Fore
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.Dispatchers
 import java.lang.IllegalArgumentException
-import java.util.concurrent.locks.ReentrantLock
-import kotlin.concurrent.withLock
+import java.lang.ref.WeakReference
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.coroutines.EmptyCoroutineContext
 
 
 /**
@@ -26,6 +28,12 @@ import kotlin.concurrent.withLock
  * we'd recommend passing in Dispatchers.Main.immediate here in that case, otherwise leave this as
  * null
  *
+ * @param weakObservers If true, observers are only weakly referenced by this Observable. An observer
+ * that was never removed is then dropped once it has been garbage collected, rather than leaking and
+ * being notified forever (see [purgedObserverCount]). Whatever added the observer must keep its own
+ * reference to it (e.g. as a property) for as long as it wants notifications: an observer lambda
+ * that is only referenced by this Observable can be collected at any time
+ *
  * If you don't specify any construction parameters, they will be taken from ForeDelegateHolder
  *
  * NB: If there are any Android Adapters depending on your model for their list data, you will
@@ -40,11 +48,54 @@ import kotlin.concurrent.withLock
 class ObservableImp(
     private val notificationMode: WorkMode? = null,
     private val logger: Logger? = null,
-    private val dispatcher: CoroutineDispatcher? = null
+    private val dispatcher: CoroutineDispatcher? = null,
+    private val weakObservers: Boolean
 ) : Observable {
 
-    private val observerList = mutableListOf<Observer>()
-    private val addRemoveLock = ReentrantLock(true)
+    /**
+     * Keeps the constructors this class had before weakObservers was added (including the no
+     * argument one) for code compiled against them, observers are strongly referenced
+     */
+    constructor(
+        notificationMode: WorkMode? = null,
+        logger: Logger? = null,
+        dispatcher: CoroutineDispatcher? = null
+    ) : this(notificationMode, logger, dispatcher, false)
+
+    constructor() : this(null, null, null, false)
+
+    /**
+     * Copy-on-write: add / remove swap in a new array with a CAS, notifications iterate over
+     * whatever array was current when they started, so no lock is held while observers run
+     */
+    private val observers = AtomicReference(NO_OBSERVERS)
+    private val purgedCount = AtomicLong()
+
+    /**
+     * How many weakly held observers have been garbage collected without ever being removed,
+     * and were dropped by this Observable as a result (always 0 unless constructed with
+     * weakObservers = true). Anything above 0 means some code is forgetting to call removeObserver()
+     */
+    val purgedObserverCount: Long
+        get() = purgedCount.get()
+
+    /**
+     * Resolved once (Dispatchers.Main.immediate is not free to look up), and only when first
+     * needed: SYNCHRONOUS observables never touch it
+     */
+    private val targetDispatcher: CoroutineDispatcher by lazy {
+        dispatcher ?: try {
+            Dispatchers.Main.immediate
+        } catch (uoe: UnsupportedOperationException) {
+            val errorMessage = "\nIt looks like you are running in a non-android module\n" +
+                    "If this is intentional, you will need to specify a dispatcher in the\n" +
+                    "constructor, we'd recommend Dispatchers.Main.immediate\n" +
+                    "If this is NOT intentional, move your code to a module that supports\n" +
+                    "Dispatchers.Main.immediate"
+            Fore.getLogger(logger).e(errorMessage)
+            throw IllegalArgumentException(errorMessage)
+        }
+    }
 
     /**
      * Take the observer and add it to the list of registered observers that
@@ -53,21 +104,29 @@ class ObservableImp(
      */
     override fun addObserver(observer: Observer) {
 
-        addRemoveLock.withLock {
+        val entry = ObserverEntry(observer, weakObservers)
 
-            observerList.add(observer)
+        var current: Array<ObserverEntry>
+        var updated: Array<ObserverEntry>
+        do {
+            current = observers.get()
+            updated = liveEntries(current) + entry
+        } while (!observers.compareAndSet(current, updated))
 
-            if (observerList.size > 4) {
-                Fore.getLogger(logger).w(
-                        "There are now:" + observerList.size + " Observers added to this Observable, that's quite a lot.\n" +
-                        "It's sometimes indicative of code which is not removing observers when it should\n" +
-                        "(forgetting to remove observers in an onStop(), onClear() or onDetachedFromWindow() method for example)\n" +
-                        "Failing to remove observers when you no longer need them will cause memory leaks,\n" +
-                        "you might want to look in to the ForeLifecycleObserver which handles this for you.\n" +
-                        "[If the number of observers steadily increases as you use the app, that's probably what you have,\n" +
-                        "if the number remains constant or goes down, then you're probably ok :) ]"
-                )
-            }
+        if (updated.size < current.size + 1) {
+            purgedCount.addAndGet((current.size + 1 - updated.size).toLong())
+        }
+
+        if (updated.size > 4) {
+            Fore.getLogger(logger).w(
+                    "There are now:" + updated.size + " Observers added to this Observable, that's quite a lot.\n" +
+                    "It's sometimes indicative of code which is not removing observers when it should\n" +
+                    "(forgetting to remove observers in an onStop(), onClear() or onDetachedFromWindow() method for example)\n" +
+                    "Failing to remove observers when you no longer need them will cause memory leaks,\n" +
+                    "you might want to look in to the ForeLifecycleObserver which handles this for you.\n" +
+                    "[If the number of observers steadily increases as you use the app, that's probably what you have,\n" +
+                    "if the number remains constant or goes down, then you're probably ok :) ]"
+            )
         }
     }
 
@@ -80,19 +139,21 @@ class ObservableImp(
      */
     override fun removeObserver(observer: Observer) {
 
-        addRemoveLock.withLock {
-
-            val beforeSize = observerList.size
-            observerList.remove(observer)
-
-            if (observerList.size == beforeSize) {
+        var current: Array<ObserverEntry>
+        var updated: Array<ObserverEntry>
+        do {
+            current = observers.get()
+            val index = current.indexOfFirst { it.get() == observer }
+            if (index == -1) {
                 Fore.getLogger(logger).w(
                     "You have tried to remove an observer that wasn't added in the first place. This is almost certainly an error and " +
                             "will cause a memory leak. Usually an observer is added and removed in line with _mirrored_ lifecycle methods " +
                             "(for example onStart()/onStop() or onAttachedToWindow()/onDetachedFromWindow())"
                 )
+                return
             }
-        }
+            updated = Array(current.size - 1) { ii -> if (ii < index) current[ii] else current[ii + 1] }
+        } while (!observers.compareAndSet(current, updated))
     }
 
 
@@ -117,39 +178,63 @@ class ObservableImp(
      * Adapter.get() on the UI thread and you cannot change the adapter's size between these calls.
      */
     override fun notifyObservers() {
-
-        var dispatch = dispatcher
-
-        if (dispatch == null) {
-            try {
-                dispatch = Dispatchers.Main.immediate
-            } catch (uoe: UnsupportedOperationException){
-                val errorMessage = "\nIt looks like you are running in a non-android module\n" +
-                        "If this is intentional, you will need to specify a dispatcher in the\n" +
-                        "constructor, we'd recommend Dispatchers.Main.immediate\n" +
-                        "If this is NOT intentional, move your code to a module that supports\n" +
-                        "Dispatchers.Main.immediate"
-                Fore.getLogger(logger).e(errorMessage)
-                throw IllegalArgumentException(errorMessage)
+        NotificationTiming.installed?.notified(this)
+        if (Fore.getWorkMode(notificationMode) == WorkMode.SYNCHRONOUS
+            || !targetDispatcher.isDispatchNeeded(EmptyCoroutineContext)) {
+            // already where the observers need to be called, no need for a coroutine
+            notifyAllObservers()
+        } else {
+            launchCustom(targetDispatcher, WorkMode.ASYNCHRONOUS) {
+                notifyAllObservers()
             }
         }
+    }
 
-        launchCustom(dispatch, Fore.getWorkMode(notificationMode)) {
-            addRemoveLock.withLock {
-                for (observer in observerList) {
-                    doNotification(observer)
-                }
+    private fun notifyAllObservers() {
+        var clearedFound = false
+        for (entry in observers.get()) {
+            val observer = entry.get()
+            if (observer != null) {
+                doNotification(observer)
+            } else {
+                clearedFound = true
             }
         }
+        if (clearedFound) {
+            purgeClearedEntries()
+        }
     }
 
     override fun hasObservers(): Boolean {
-        return addRemoveLock.withLock {
-            observerList.size > 0
-        }
+        return observers.get().any { it.get() != null }
+    }
+
+    private fun purgeClearedEntries() {
+        var current: Array<ObserverEntry>
+        var updated: Array<ObserverEntry>
+        do {
+            current = observers.get()
+            updated = liveEntries(current)
+            if (updated === current) {
+                return
+            }
+        } while (!observers.compareAndSet(current, updated))
+
+        purgedCount.addAndGet((current.size - updated.size).toLong())
+    }
+
+    /**
+     * @return entries without any that have been garbage collected (or entries itself if
+     * there is nothing to drop)
+     */
+    private fun liveEntries(entries: Array<ObserverEntry>): Array<ObserverEntry> {
+        val live = entries.filter { it.get() != null }
+        return if (live.size == entries.size) entries else live.toTypedArray()
     }
 
     private fun doNotification(observer: Observer) {
+        val timing = NotificationTiming.installed
+        val startNanos = timing?.startTiming() ?: 0
         try {
             observer.somethingChanged()
         } catch (e: Exception) {
@@ -168,5 +253,22 @@ class ObservableImp(
             Fore.getLogger(logger).e(errorMessage + e.message)
             throw e
         }
+        timing?.stopTiming(this, observer, startNanos)
+    }
+
+    private class ObserverEntry(observer: Observer, weak: Boolean) {
+
+        // exactly one of these is set
+        private val observer: Observer? = if (weak) null else observer
+        private val weakObserver: WeakReference<Observer>? = if (weak) WeakReference(observer) else null
+
+        /**
+         * @return the observer, or null if it was weakly held and has since been garbage collected
+         */
+        fun get(): Observer? = observer ?: weakObserver?.get()
+    }
+
+    private companion object {
+        val NO_OBSERVERS = arrayOf<ObserverEntry>()
     }
 }
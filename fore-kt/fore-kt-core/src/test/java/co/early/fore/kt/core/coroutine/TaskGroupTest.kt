@@ -0,0 +1,88 @@
+package co.early.fore.kt.core.coroutine
+
+import co.early.fore.core.WorkMode
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.runBlocking
+import org.junit.Assert
+import org.junit.Test
+
+
+class TaskGroupTest {
+
+    @Test
+    fun `when synchronous, forked tasks run in order and results are collected`() {
+
+        // arrange
+        val calls = mutableListOf<String>()
+
+        // act
+        val result = runBlocking {
+            awaitAllIO(WorkMode.SYNCHRONOUS) {
+                val count = fork { calls.add("count"); 3 }
+                val label = fork { calls.add("label"); "items" }
+                "${count.await()} ${label.await()}"
+            }
+        }
+
+        // assert
+        Assert.assertEquals("3 items", result)
+        Assert.assertEquals(listOf("count", "label"), calls)
+    }
+
+    @Test
+    fun `when asynchronous, forked tasks run in parallel`() {
+
+        // arrange
+        val startedAt = System.currentTimeMillis()
+
+        // act
+        val result = runBlocking {
+            awaitAllCustom(Dispatchers.Default, WorkMode.ASYNCHRONOUS) {
+                val tasks = (1..4).map { fork { delay(300); it } }
+                tasks.sumOf { it.await() }
+            }
+        }
+
+        // assert
+        Assert.assertEquals(10, result)
+        Assert.assertTrue(System.currentTimeMillis() - startedAt < 1000)
+    }
+
+    @Test
+    fun `when asynchronous and a task fails, siblings are cancelled and first failure is thrown`() {
+
+        // arrange
+        var siblingCancelled = false
+        var failure: Throwable? = null
+
+        // act
+        runBlocking {
+            try {
+                awaitAllCustom(Dispatchers.Default, WorkMode.ASYNCHRONOUS) {
+                    val slow = fork {
+                        try {
+                            delay(10_000)
+                            "late"
+                        } catch (e: CancellationException) {
+                            siblingCancelled = true
+                            throw e
+                        }
+                    }
+                    val failing = fork<String> {
+                        delay(50)
+                        throw IllegalStateException("db unavailable")
+                    }
+                    slow.await() + failing.await()
+                }
+            } catch (e: IllegalStateException) {
+                failure = e
+            }
+        }
+
+        // assert
+        Assert.assertEquals("db unavailable", failure?.message)
+        Assert.assertTrue(siblingCancelled)
+    }
+}
@@ -0,0 +1,134 @@
+package co.early.fore.kt.core.observer
+
+import co.early.fore.core.observer.Observer
+import co.early.fore.core.time.SystemTimeWrapper
+import co.early.fore.kt.core.delegate.Fore
+import co.early.fore.kt.core.delegate.TestDelegateDefault
+import co.early.fore.kt.core.logging.Logger
+import io.mockk.MockKAnnotations
+import io.mockk.every
+import io.mockk.impl.annotations.MockK
+import io.mockk.verify
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+class NotificationTimingTest {
+
+    @MockK
+    private lateinit var mockSink: NotificationTimingSink
+
+    @MockK
+    private lateinit var mockSystemTimeWrapper: SystemTimeWrapper
+
+    @MockK
+    private lateinit var mockLogger: Logger
+
+    @MockK
+    private lateinit var mockObserver1: Observer
+
+    @MockK
+    private lateinit var mockObserver2: Observer
+
+
+    @Before
+    fun setup() {
+        MockKAnnotations.init(this, relaxed = true)
+        Fore.setDelegate(TestDelegateDefault())
+    }
+
+    @After
+    fun tearDown() {
+        NotificationTiming.uninstall()
+    }
+
+
+    @Test
+    fun `when timing installed, each observer call is timed and a slow observer is over budget`() {
+
+        // arrange
+        NotificationTiming.install(mockSink, 4, mockSystemTimeWrapper)
+        // notify, observer1 start/stop, observer2 start/stop
+        every { mockSystemTimeWrapper.nanoTime() } returns 0L andThen 0L andThen ONE_MS andThen ONE_MS andThen 11 * ONE_MS
+        val observable = ObservableImp()
+        observable.addObserver(mockObserver1)
+        observable.addObserver(mockObserver2)
+
+        // act
+        observable.notifyObservers()
+
+        // assert
+        verify(exactly = 1) { mockSink.onNotify(observable, 0L) }
+        verify(exactly = 1) { mockSink.onObserverCalled(observable, mockObserver1, ONE_MS, false) }
+        verify(exactly = 1) { mockSink.onObserverCalled(observable, mockObserver2, 10 * ONE_MS, true) }
+    }
+
+    @Test
+    fun `when timing uninstalled, sink is not called`() {
+
+        // arrange
+        NotificationTiming.install(mockSink, 4, mockSystemTimeWrapper)
+        NotificationTiming.uninstall()
+        val observable = ObservableImp()
+        observable.addObserver(mockObserver1)
+
+        // act
+        observable.notifyObservers()
+
+        // assert
+        verify(exactly = 1) { mockObserver1.somethingChanged() }
+        verify(exactly = 0) { mockSink.onNotify(any(), any()) }
+        verify(exactly = 0) { mockSink.onObserverCalled(any(), any(), any(), any()) }
+    }
+
+    @Test
+    fun `when observer over budget, logging sink logs a warning`() {
+
+        // arrange
+        val sink = LoggingNotificationTimingSink(mockLogger)
+        val observable = ObservableImp()
+
+        // act
+        sink.onObserverCalled(observable, mockObserver1, ONE_MS, false)
+        sink.onObserverCalled(observable, mockObserver2, 10 * ONE_MS, true)
+
+        // assert
+        verify(exactly = 1) { mockLogger.w(any()) }
+    }
+
+    @Test
+    fun `when notified too often, logging sink logs a warning once per second`() {
+
+        // arrange
+        val sink = LoggingNotificationTimingSink(mockLogger, 10)
+        val observable = ObservableImp()
+
+        // act
+        repeat(30) {
+            sink.onNotify(observable, it * ONE_MS)
+        }
+
+        // assert
+        verify(exactly = 1) { mockLogger.w(any()) }
+    }
+
+    @Test
+    fun `when notified slowly, logging sink logs nothing`() {
+
+        // arrange
+        val sink = LoggingNotificationTimingSink(mockLogger, 10)
+        val observable = ObservableImp()
+
+        // act
+        repeat(30) {
+            sink.onNotify(observable, it * 200 * ONE_MS)
+        }
+
+        // assert
+        verify(exactly = 0) { mockLogger.w(any()) }
+    }
+
+    companion object {
+        private const val ONE_MS = 1_000_000L
+    }
+}
@@ -10,6 +10,7 @@ import co.early.fore.kt.core.logging.SilentLogger
 import io.mockk.MockKAnnotations
 import io.mockk.impl.annotations.MockK
 import io.mockk.verify
+import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.asCoroutineDispatcher
@@ -17,9 +18,12 @@ import kotlinx.coroutines.launch
 import org.junit.Assert.assertEquals
 import org.junit.Before
 import org.junit.Test
+import java.lang.ref.WeakReference
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.Executors
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.coroutines.CoroutineContext
 
 class ObservableImpTest {
 
@@ -209,4 +213,203 @@ class ObservableImpTest {
         // assert
         assertEquals(loop / 2, counter)
     }
+
+    @Test
+    fun `when an observer removes itself during notification, remaining observers are still notified`() {
+
+        // arrange
+        observableImp = ObservableImp()
+        val selfRemovingObserver = object : Observer {
+            override fun somethingChanged() {
+                observableImp.removeObserver(this)
+            }
+        }
+        observableImp.addObserver(mockObserver1)
+        observableImp.addObserver(selfRemovingObserver)
+        observableImp.addObserver(mockObserver2)
+
+        // act
+        observableImp.notifyObservers()
+        observableImp.notifyObservers()
+
+        // assert
+        verify(exactly = 2) { mockObserver1.somethingChanged() }
+        verify(exactly = 2) { mockObserver2.somethingChanged() }
+    }
+
+    @Test
+    fun `when an observer is slow, other threads can still add and remove observers`() {
+
+        // arrange
+        observableImp = ObservableImp(
+            notificationMode = WorkMode.ASYNCHRONOUS,
+            logger = SilentLogger(),
+            dispatcher = Dispatchers.IO
+        )
+        val observerRunning = CountDownLatch(1)
+        val releaseObserver = CountDownLatch(1)
+        val slowObserver = object : Observer {
+            override fun somethingChanged() {
+                observerRunning.countDown()
+                releaseObserver.await(10, TimeUnit.SECONDS)
+            }
+        }
+        observableImp.addObserver(slowObserver)
+        observableImp.notifyObservers()
+        observerRunning.await(10, TimeUnit.SECONDS)
+
+        // act
+        val addedAndRemoved = CountDownLatch(1)
+        Executors.newSingleThreadExecutor().execute {
+            observableImp.addObserver(mockObserver1)
+            observableImp.removeObserver(mockObserver1)
+            addedAndRemoved.countDown()
+        }
+        val completedWhileObserverRunning = addedAndRemoved.await(5, TimeUnit.SECONDS)
+        releaseObserver.countDown()
+
+        // assert
+        assertEquals(true, completedWhileObserverRunning)
+        verify(exactly = 0) { mockObserver1.somethingChanged() }
+    }
+
+    @Test
+    fun `when notifying asynchronously, already on the target dispatcher, observers are called inline`() {
+
+        // arrange
+        val dispatcher = RecordingDispatcher(dispatchNeeded = false)
+        observableImp = ObservableImp(
+            notificationMode = WorkMode.ASYNCHRONOUS,
+            dispatcher = dispatcher
+        )
+        val callingThread = Thread.currentThread()
+        var notifiedThread: Thread? = null
+        observableImp.addObserver(object : Observer {
+            override fun somethingChanged() {
+                notifiedThread = Thread.currentThread()
+            }
+        })
+
+        // act
+        observableImp.notifyObservers()
+
+        // assert
+        assertEquals(callingThread, notifiedThread)
+        assertEquals(0, dispatcher.dispatched.size)
+    }
+
+    @Test
+    fun `when notifying asynchronously, not on the target dispatcher, observers are called once dispatched`() {
+
+        // arrange
+        val dispatcher = RecordingDispatcher(dispatchNeeded = true)
+        observableImp = ObservableImp(
+            notificationMode = WorkMode.ASYNCHRONOUS,
+            dispatcher = dispatcher
+        )
+        observableImp.addObserver(mockObserver1)
+
+        // act
+        observableImp.notifyObservers()
+
+        // assert
+        verify(exactly = 0) { mockObserver1.somethingChanged() }
+        assertEquals(1, dispatcher.dispatched.size)
+        dispatcher.runDispatched()
+        verify(exactly = 1) { mockObserver1.somethingChanged() }
+    }
+
+    @Test
+    fun `when a weak observer is garbage collected without being removed, it is purged`() {
+
+        // arrange
+        observableImp = ObservableImp(weakObservers = true)
+        val leakedObserverCount = AtomicInteger()
+        observableImp.addObserver(mockObserver1)
+        val leakedObserver = addUnreferencedObserver(observableImp, leakedObserverCount)
+        collectGarbage(leakedObserver)
+
+        // act
+        observableImp.notifyObservers()
+
+        // assert
+        assertEquals(null, leakedObserver.get())
+        assertEquals(0, leakedObserverCount.get())
+        assertEquals(1L, observableImp.purgedObserverCount)
+        verify(exactly = 1) { mockObserver1.somethingChanged() }
+        assertEquals(true, observableImp.hasObservers())
+    }
+
+    @Test
+    fun `when a strong observer is no longer referenced elsewhere, it is still notified`() {
+
+        // arrange
+        observableImp = ObservableImp()
+        val count = AtomicInteger()
+        val observer = addUnreferencedObserver(observableImp, count)
+        collectGarbage(WeakReference(Any()))
+
+        // act
+        observableImp.notifyObservers()
+
+        // assert
+        assertEquals(1, count.get())
+        assertEquals(0L, observableImp.purgedObserverCount)
+        assertEquals(true, observer.get() != null)
+    }
+
+    @Test
+    fun `constructors from before weak observers are still there for code compiled against them`() {
+
+        // arrange
+        val clazz = ObservableImp::class.java
+
+        // act
+        val noArgs = clazz.getConstructor()
+        val threeArgs = clazz.getConstructor(WorkMode::class.java, Logger::class.java, CoroutineDispatcher::class.java)
+
+        // assert
+        assertEquals(0L, (noArgs.newInstance() as ObservableImp).purgedObserverCount)
+        assertEquals(0L, (threeArgs.newInstance(WorkMode.SYNCHRONOUS, null, null) as ObservableImp).purgedObserverCount)
+    }
+
+    private fun addUnreferencedObserver(observable: ObservableImp, count: AtomicInteger): WeakReference<Observer> {
+        val observer = object : Observer {
+            override fun somethingChanged() {
+                count.incrementAndGet()
+            }
+        }
+        observable.addObserver(observer)
+        return WeakReference(observer)
+    }
+
+    private fun collectGarbage(reference: WeakReference<*>) {
+        repeat(50) {
+            if (reference.get() != null) {
+                System.gc()
+                Thread.sleep(10)
+            }
+        }
+    }
+}
+
+/**
+ * Doesn't run anything it's asked to dispatch, just keeps hold of it until runDispatched()
+ * is called, so tests can see whether (and when) an observer was dispatched
+ */
+private class RecordingDispatcher(private val dispatchNeeded: Boolean) : CoroutineDispatcher() {
+
+    val dispatched = mutableListOf<Runnable>()
+
+    override fun isDispatchNeeded(context: CoroutineContext): Boolean = dispatchNeeded
+
+    override fun dispatch(context: CoroutineContext, block: Runnable) {
+        dispatched.add(block)
+    }
+
+    fun runDispatched() {
+        while (dispatched.isNotEmpty()) {
+            dispatched.removeAt(0).run()
+        }
+    }
 }